@@ -0,0 +1,84 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.DealerHandUnmasked;
+import com.blackjack.blackjack.model.HandState;
+import com.blackjack.blackjack.model.PackedHand;
+import com.blackjack.blackjack.service.DealerPlayEngine;
+import com.blackjack.blackjack.service.HandStateUpdater;
+import com.blackjack.blackjack.service.HandValueCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Az osztó játéka: a DealerPlayEngine egy menete a korábbi, lapról lapra újraépítő ciklussal
+ * (PackedHand.with + calculateSum húzásonként) szemben. A lapforrás egy előre kevert tömb,
+ * hogy a mérésben csak az osztó logikája szerepeljen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealerPlayBenchmark {
+
+    public enum StartHand {
+        // 2 + 3: sok kis lapos húzás
+        LOW("♠2", "♥3"),
+        // 10 + 6: egy húzás
+        STIFF("♣10", "♦6");
+
+        private final DealerHandUnmasked hand;
+
+        StartHand(String first, String second) {
+            this.hand = DealerHandUnmasked.builder().hand(List.of(Card.of(first), Card.of(second))).build();
+        }
+    }
+
+    @Param
+    public StartHand startHand;
+
+    private final HandValueCalculator handValueCalculator = new HandValueCalculator();
+    private final HandStateUpdater handStateUpdater = new HandStateUpdater();
+    private final DealerPlayEngine engine = new DealerPlayEngine(handStateUpdater, false);
+
+    private final Card[] shoe = {
+        Card.of("♥2"), Card.of("♠A"), Card.of("♦3"), Card.of("♣2"), Card.of("♥4"), Card.of("♠5"), Card.of("♦K")
+    };
+    private int position;
+
+    private Card next() {
+        Card card = shoe[position];
+        position++;
+        return card;
+    }
+
+    // Minden mérés a cipő elejéről indul (a Level.Invocation setup ns-os méréseknél torzítana)
+    @Benchmark
+    public DealerHandUnmasked engine() {
+        position = 0;
+        return engine.play(startHand.hand, this::next);
+    }
+
+    @Benchmark
+    public DealerHandUnmasked previousLoop() {
+        position = 0;
+        DealerHandUnmasked dealerHand = startHand.hand;
+        PackedHand dealerCards = PackedHand.copyOf(dealerHand.hand());
+        int dealerSum = handValueCalculator.calculateSum(dealerCards);
+        while (dealerSum < 17) {
+            dealerCards = dealerCards.with(next());
+            dealerSum = handValueCalculator.calculateSum(dealerCards);
+        }
+
+        HandState dealerHandState = handStateUpdater.updateHandState(dealerSum, dealerCards.size(), false);
+        return dealerHand.toBuilder()
+            .hand(dealerCards)
+            .sum(dealerSum)
+            .handState(dealerHandState.getValue())
+            .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.model.DealResult;
+import com.blackjack.blackjack.model.Deck;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark {
+
+    @Param({"FRESH_SHOE", "MID_SHOE"})
+    public EngineFixtures.Scenario scenario;
+
+    private Deck deck;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        deck = (scenario == EngineFixtures.Scenario.FRESH_SHOE) ? EngineFixtures.freshShoe() : EngineFixtures.midShoe();
+    }
+
+    @Benchmark
+    public DealResult dealCard() {
+        return deck.dealCard();
+    }
+
+    /**
+     * Egy tipikus kör lapszükséglete (4 kezdő lap + 2 húzás) egymás után.
+     */
+    @Benchmark
+    public void dealSixCards(Blackhole blackhole) {
+        Deck current = deck;
+        for (int i = 0; i < 6; i++) {
+            DealResult result = current.dealCard();
+            blackhole.consume(result.dealtCard());
+            current = result.newDeck();
+        }
+        blackhole.consume(current);
+    }
+
+    @Benchmark
+    public Deck createNewDeck() {
+        return Deck.createNewDeck(EngineFixtures.SEED);
+    }
+}
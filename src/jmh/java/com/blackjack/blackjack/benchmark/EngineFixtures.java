@@ -0,0 +1,108 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.factory.DefaultPlayerHandFactory;
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
+import com.blackjack.blackjack.service.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A benchmarkok közös, Spring nélkül összerakott motorja és determinisztikus kiinduló állapotai.
+ */
+public final class EngineFixtures {
+    public static final long SEED = 20240917L;
+
+    public final HandValueCalculator handValueCalculator = new HandValueCalculator();
+    public final HandStateUpdater handStateUpdater = new HandStateUpdater();
+    public final GameRuleEngine gameRuleEngine = new GameRuleEngine();
+    public final DeckService deckService = new DeckService();
+    public final GameStateManager gameStateManager = new GameStateManager(
+        gameRuleEngine, new DefaultPlayerHandFactory(), handValueCalculator, handStateUpdater, deckService,
+        new DealerPlayEngine(handStateUpdater, false));
+    public final GameService gameService = new GameService(
+        gameRuleEngine, gameStateManager, handValueCalculator, handStateUpdater, TableRules.STANDARD);
+
+    public enum Scenario {
+        FRESH_SHOE,
+        MID_SHOE,
+        SPLIT_HEAVY
+    }
+
+    public static Deck freshShoe() {
+        return Deck.createNewDeck(SEED);
+    }
+
+    public static Deck midShoe() {
+        Deck deck = freshShoe();
+        int toDeal = deck.getDeckLength() / 2;
+        for (int i = 0; i < toDeal; i++) {
+            deck = deck.dealCard().newDeck();
+        }
+        return deck;
+    }
+
+    /**
+     * Kör előtti állapot (tét megtéve), a kért cipővel.
+     */
+    public GameState bettingState(Scenario scenario) {
+        return GameState.builder()
+            .deck(scenario == Scenario.FRESH_SHOE ? freshShoe() : midShoe())
+            .bet(10)
+            .betList(List.of(10))
+            .isRoundActive(false)
+            .build();
+    }
+
+    /**
+     * Aktív kör: a játékosnak 8-8 párja van (splitelhető, 16 -> hit/stand érdemi),
+     * az osztónak 10-6 (16 -> standnél húznia kell).
+     * SPLIT_HEAVY esetén már két korábbi split kéz is vár a players map-ben.
+     */
+    public GameState activeRoundState(Scenario scenario) {
+        List<Card> playerCards = List.of(Card.of("♥8"), Card.of("♠8"));
+        List<Card> dealerCards = List.of(Card.of("♣10"), Card.of("♦6"));
+
+        PlayerHand player = PlayerHand.builder()
+            .id("P-001")
+            .hand(playerCards)
+            .canSplit(true)
+            .bet(10)
+            .sum(handValueCalculator.calculateSum(playerCards))
+            .handState(HandState.UNDER_21.getValue())
+            .build();
+
+        DealerHandUnmasked dealerUnmasked = DealerHandUnmasked.builder()
+            .hand(dealerCards)
+            .sum(handValueCalculator.calculateSum(dealerCards))
+            .handState(HandState.UNDER_21.getValue())
+            .build();
+
+        DealerHandMasked dealerMasked = DealerHandMasked.builder()
+            .hand(List.of(Card.createMaskedCard(), dealerCards.get(1)))
+            .build();
+
+        GameState.GameStateBuilder builder = bettingState(scenario).toBuilder()
+            .isRoundActive(true)
+            .player(player)
+            .splitPlayer(PlayerHand.createEmptyHand())
+            .dealerUnmasked(dealerUnmasked)
+            .dealerMasked(dealerMasked)
+            .handCounter(1);
+
+        if (scenario == Scenario.SPLIT_HEAVY) {
+            PlayerHand second = player.toBuilder().id("P-002").hand(List.of(Card.of("♦8"))).canSplit(false).sum(8).build();
+            PlayerHand third = player.toBuilder().id("P-003").hand(List.of(Card.of("♣8"))).canSplit(false).sum(8).build();
+
+            builder
+                .players(Map.of(second.id(), second, third.id(), third))
+                .playersIndex(Map.of(player.id(), false, second.id(), false, third.id(), false))
+                .splitReq(2)
+                .handCounter(3)
+                .wasSplitInRound(true);
+        }
+
+        return builder.build();
+    }
+}
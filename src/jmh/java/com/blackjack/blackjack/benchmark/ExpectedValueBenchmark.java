@@ -0,0 +1,74 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.dto.hint.ExpectedValueHint;
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.service.DealerProbabilityCalculator;
+import com.blackjack.blackjack.service.ExpectedValueService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EV tipp 8 paklis cipővel: "cold" üres osztói cache-sel (minden kérés új számítás),
+ * "warm" a megosztott cache-sel (ugyanaz az állapot ismételten, pl. újratöltés).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpectedValueBenchmark {
+
+    @Param({"8-8", "10-6", "A-7"})
+    public String playerHand;
+
+    private GameState state;
+    private ExpectedValueService warmService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] ranks = playerHand.split("-");
+        Card player1 = Card.of("♥" + ranks[0]);
+        Card player2 = Card.of("♠" + ranks[1]);
+        Card hole = Card.of("♦9");
+        Card up = Card.of("♣6");
+
+        List<Card> shoe = new ArrayList<>();
+        for (int deck = 0; deck < 8; deck++) {
+            for (Suit suit : List.of(Suit.HEARTS, Suit.DIAMONDS, Suit.CLUBS, Suit.SPADES)) {
+                for (Rank rank : Rank.values()) {
+                    if (rank != Rank.MASKED_RANK) {
+                        shoe.add(new Card(suit, rank));
+                    }
+                }
+            }
+        }
+        shoe.remove(player1);
+        shoe.remove(player2);
+        shoe.remove(hole);
+        shoe.remove(up);
+
+        state = GameState.builder()
+            .deck(new Deck(shoe))
+            .isRoundActive(true)
+            .player(PlayerHand.builder().id("P-001").hand(List.of(player1, player2)).canSplit(ranks[0].equals(ranks[1])).build())
+            .dealerMasked(DealerHandMasked.builder().hand(List.of(Card.createMaskedCard(), up)).build())
+            .dealerUnmasked(DealerHandUnmasked.builder().hand(List.of(hole, up)).build())
+            .build();
+
+        warmService = new ExpectedValueService(new DealerProbabilityCalculator(10_000));
+    }
+
+    @Benchmark
+    public ExpectedValueHint cold() {
+        return new ExpectedValueService(new DealerProbabilityCalculator(10_000)).calculate(state);
+    }
+
+    @Benchmark
+    public ExpectedValueHint warm() {
+        return warmService.calculate(state);
+    }
+}
@@ -0,0 +1,60 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.service.GameService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A GameService publikus akcióinak áteresztőképessége és allokációja (-prof gc).
+ * Minden hívás ugyanabból az immutable állapotból indul, így a mérések nem sodródnak.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameEngineBenchmark {
+
+    @Param({"FRESH_SHOE", "MID_SHOE", "SPLIT_HEAVY"})
+    public EngineFixtures.Scenario scenario;
+
+    private GameService gameService;
+    private GameState bettingState;
+    private GameState activeRoundState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EngineFixtures fixtures = new EngineFixtures();
+        gameService = fixtures.gameService;
+        bettingState = fixtures.bettingState(scenario);
+        activeRoundState = fixtures.activeRoundState(scenario);
+    }
+
+    @Benchmark
+    public GameState initializeNewRound() {
+        return gameService.initializeNewRound(bettingState);
+    }
+
+    @Benchmark
+    public GameState playerHit() {
+        return gameService.playerHit(activeRoundState);
+    }
+
+    @Benchmark
+    public GameState playerStand() {
+        return gameService.playerStand(activeRoundState);
+    }
+
+    @Benchmark
+    public GameState splitHand() {
+        return gameService.splitHand(activeRoundState);
+    }
+
+    @Benchmark
+    public GameService.TransactionResult standAndRewards() {
+        return gameService.calculateRewards(gameService.playerStand(activeRoundState));
+    }
+}
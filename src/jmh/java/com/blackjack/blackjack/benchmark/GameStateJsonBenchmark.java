@@ -0,0 +1,44 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.model.GameState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A players.current_game_state jsonb oszlop (de)szerializálása teljes GameState-tel.
+ * A mapper beállítása megegyezik azzal, amit a Hibernate a jsonb oszlophoz használ.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateJsonBenchmark {
+
+    @Param({"FRESH_SHOE", "MID_SHOE", "SPLIT_HEAVY"})
+    public EngineFixtures.Scenario scenario;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private GameState gameState;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        gameState = new EngineFixtures().activeRoundState(scenario);
+        json = objectMapper.writeValueAsBytes(gameState);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(gameState);
+    }
+
+    @Benchmark
+    public GameState deserialize() throws Exception {
+        return objectMapper.readValue(json, GameState.class);
+    }
+}
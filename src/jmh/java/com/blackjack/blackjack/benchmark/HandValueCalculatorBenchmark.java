@@ -0,0 +1,46 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.PackedHand;
+import com.blackjack.blackjack.service.HandValueCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandValueCalculatorBenchmark {
+
+    private final HandValueCalculator handValueCalculator = new HandValueCalculator();
+
+    private final List<Card> twoCardHand = List.of(Card.of("♥10"), Card.of("♠7"));
+    private final List<Card> softMultiCardHand = List.of(
+        Card.of("♥A"), Card.of("♠A"), Card.of("♦3"), Card.of("♣2"), Card.of("♥4"));
+    private final PackedHand packedSoftHand = PackedHand.copyOf(softMultiCardHand);
+    private final Card hitCard = Card.of("♦5");
+
+    @Benchmark
+    public int twoCardHand() {
+        return handValueCalculator.calculateSum(twoCardHand);
+    }
+
+    @Benchmark
+    public int softMultiCardHand() {
+        return handValueCalculator.calculateSum(softMultiCardHand);
+    }
+
+    @Benchmark
+    public int packedSoftMultiCardHand() {
+        return handValueCalculator.calculateSum(packedSoftHand);
+    }
+
+    @Benchmark
+    public int packedHit() {
+        return packedSoftHand.with(hitCard).bestTotal();
+    }
+}
@@ -0,0 +1,34 @@
+package com.blackjack.blackjack.benchmark;
+
+import com.blackjack.blackjack.simulation.BasicStrategy;
+import com.blackjack.blackjack.simulation.MonteCarloSimulator;
+import com.blackjack.blackjack.simulation.RoundSimulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makro-benchmark: teljes körök alapstratégiával a valódi motoron (osztás, döntések, split, elszámolás).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    private RoundSimulator roundSimulator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roundSimulator = MonteCarloSimulator.withDefaultEngine(new BasicStrategy(), 10)
+            .newRoundSimulator(new SplittableRandom(EngineFixtures.SEED));
+    }
+
+    @Benchmark
+    public long playRound() {
+        return roundSimulator.playRound();
+    }
+}
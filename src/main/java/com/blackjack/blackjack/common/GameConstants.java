@@ -6,4 +6,6 @@ public class GameConstants {
     public static final int CARDS_IN_DECK = 52;
     public static final int NUM_DECKS = 2;
     public static final int INITIAL_DECK_LENGTH = NUM_DECKS * CARDS_IN_DECK;
+    public static final int MAX_BATCH_ACTIONS = 32;
+    public static final double DEFAULT_PENETRATION = 0.75;
 }
@@ -0,0 +1,116 @@
+package com.blackjack.blackjack.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Játékosonkénti (clientId) sorosított végrehajtási sáv: ugyanannak a játékosnak
+ * a kérései érkezési sorrendben, egymás után futnak (dupla kattintás, több fül,
+ * új kulccsal újrapróbált kérés), a különböző játékosok pedig párhuzamosan.
+ * <p>
+ * A kéréskezelés virtuális szálakon fut (spring.threads.virtual.enabled), ezért
+ * a várakozás ReentrantLock-kal történik: a virtuális szál leparkol, nem foglal platform szálat.
+ * A sáv csak addig él a map-ben, amíg van benne futó vagy várakozó kérés.
+ */
+@Component
+public class ClientLanes {
+    public static final String QUEUE_DEPTH_GAUGE = "blackjack.lane.queue.depth";
+    public static final String ACTIVE_LANES_GAUGE = "blackjack.lane.active";
+    public static final String WAIT_TIMER = "blackjack.lane.wait";
+
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Duration waitTimeout;
+
+    public ClientLanes(MeterRegistry registry, @Value("${app.lanes.wait-timeout:10s}") Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+            .description("Várakozási idő a játékos sávjában, mielőtt a kérés futhat")
+            .publishPercentileHistogram()
+            .register(registry);
+
+        Gauge.builder(QUEUE_DEPTH_GAUGE, waiting, AtomicInteger::get)
+            .description("A sávokban éppen várakozó kérések száma")
+            .register(registry);
+        Gauge.builder(ACTIVE_LANES_GAUGE, lanes, Map::size)
+            .description("Futó vagy várakozó kéréssel rendelkező játékosok száma")
+            .register(registry);
+    }
+
+    /**
+     * Lefuttatja az akciót a játékos sávjában. Ha a sáv a megadott időn belül sem
+     * szabadul fel, 429-cel utasítjuk el a kérést (a kliens újrapróbálhatja).
+     */
+    public <T> T run(UUID clientId, Supplier<T> action) {
+        if (clientId == null) {
+            // A validálás (getAndValidatePlayer) úgyis elutasítja, nincs mit sorosítani
+            return action.get();
+        }
+
+        Lane lane = acquireLane(clientId);
+        try {
+            lockLane(lane);
+            try {
+                return action.get();
+            } finally {
+                lane.lock.unlock();
+            }
+        } finally {
+            releaseLane(clientId);
+        }
+    }
+
+    private void lockLane(Lane lane) {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!lane.lock.tryLock(waitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Another action is in progress for this player");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for player lane");
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Lane acquireLane(UUID clientId) {
+        return lanes.compute(clientId, (id, lane) -> {
+            Lane current = (lane != null) ? lane : new Lane();
+            current.users++;
+            return current;
+        });
+    }
+
+    private void releaseLane(UUID clientId) {
+        lanes.computeIfPresent(clientId, (id, lane) -> --lane.users == 0 ? null : lane);
+    }
+
+    int activeLanes() {
+        return lanes.size();
+    }
+
+    private static final class Lane {
+        // Fair: a várakozó kérések érkezési sorrendben kerülnek sorra
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // Csak a map compute-jain belül módosul, ezért nem kell atomic
+        private int users;
+    }
+}
@@ -0,0 +1,47 @@
+package com.blackjack.blackjack.concurrency;
+
+import com.blackjack.blackjack.metrics.ActionMetrics;
+import com.blackjack.blackjack.model.Player;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Optimista zárolás ütközésének kezelése a feltételes mentés (applyAction) után.
+ * <p>
+ * Ha a mentés nem módosított sort és a kérés nem duplikátum, az újra betöltött játékos verziójából
+ * derül ki, hogy közben más írta-e a sort. Ütközésnél a tiszta motor lépés a friss állapoton újra fut,
+ * legfeljebb maxAttempts próbálkozásig; utána 409. Azonos verziónál nem ütközés volt, hanem szabálysértés.
+ */
+@Component
+public class OptimisticRetryPolicy {
+    private final ActionMetrics actionMetrics;
+    private final int maxAttempts;
+
+    public OptimisticRetryPolicy(ActionMetrics actionMetrics,
+                                 @Value("${app.concurrency.max-attempts:3}") int maxAttempts) {
+        this.actionMetrics = actionMetrics;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * @param attempted a sikertelen próbálkozás alapjául szolgáló játékos
+     * @param latest    a mentés után újra betöltött játékos
+     * @param attempt   hányadik próbálkozás volt (1-től)
+     * @return true, ha ütközés volt és újra kell futtatni a lépést a latest állapotán;
+     * false, ha nem volt ütközés (a hívó dönti el a szabálysértést)
+     */
+    public boolean shouldRetry(String endpoint, Player attempted, Player latest, int attempt) {
+        if (latest.getVersion() == attempted.getVersion()) {
+            return false;
+        }
+
+        boolean exhausted = attempt >= maxAttempts;
+        actionMetrics.recordConflict(endpoint, exhausted);
+        if (exhausted) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "CONCURRENT_MODIFICATION");
+        }
+        return true;
+    }
+}
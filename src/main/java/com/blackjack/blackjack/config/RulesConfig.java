@@ -0,0 +1,36 @@
+package com.blackjack.blackjack.config;
+
+import com.blackjack.blackjack.rules.RuleProfile;
+import com.blackjack.blackjack.rules.RulesProperties;
+import com.blackjack.blackjack.rules.TableRules;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Az aktív szabályprofil lefordítása induláskor; ismeretlen vagy hibás profil esetén
+ * az alkalmazás el sem indul.
+ */
+@Configuration
+@EnableConfigurationProperties(RulesProperties.class)
+@Slf4j
+public class RulesConfig {
+
+    @Bean
+    public TableRules tableRules(RulesProperties properties) {
+        String name = properties.profile();
+        RuleProfile profile = (properties.profiles() != null) ? properties.profiles().get(name) : null;
+
+        if (profile == null) {
+            if (!TableRules.STANDARD_NAME.equals(name)) {
+                throw new IllegalStateException("Unknown rule profile: " + name);
+            }
+            profile = RuleProfile.STANDARD;
+        }
+
+        TableRules rules = TableRules.compile(name, profile);
+        log.info("Rule profile: {}", rules);
+        return rules;
+    }
+}
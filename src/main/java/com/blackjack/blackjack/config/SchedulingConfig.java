@@ -0,0 +1,10 @@
+package com.blackjack.blackjack.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Háttérfeladatok (pl. lejárt idempotencia válaszok takarítása)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,25 @@
+package com.blackjack.blackjack.config;
+
+import com.blackjack.blackjack.websocket.GameSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final GameSocketHandler gameSocketHandler;
+
+    public WebSocketConfig(GameSocketHandler gameSocketHandler) {
+        this.gameSocketHandler = gameSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Ugyanazok az originek, mint a REST CORS beállításban
+        registry.addHandler(gameSocketHandler, "/ws/game")
+            .setAllowedOriginPatterns("https://*.vercel.app", "http://localhost:5173");
+    }
+}
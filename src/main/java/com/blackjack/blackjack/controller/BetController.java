@@ -1,13 +1,20 @@
 package com.blackjack.blackjack.controller;
 
+import com.blackjack.blackjack.concurrency.ClientLanes;
+import com.blackjack.blackjack.concurrency.OptimisticRetryPolicy;
 import com.blackjack.blackjack.dto.ApiResponse;
 import com.blackjack.blackjack.dto.bet.BetRequest;
 import com.blackjack.blackjack.dto.bet.GameStateBet;
+import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.metrics.ActionMetrics;
 import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.model.PlayerAction;
 import com.blackjack.blackjack.service.BetService;
 import com.blackjack.blackjack.service.BetService.RetakeResult;
+import com.blackjack.blackjack.service.IdempotencyResponseStore;
 import com.blackjack.blackjack.service.PlayerService;
+import com.blackjack.blackjack.service.RoundStateMachine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,120 +22,222 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api")
 public class BetController {
     private final PlayerService playerService;
     private final BetService betService;
+    private final ActionMetrics actionMetrics;
+    private final ClientLanes clientLanes;
+    private final OptimisticRetryPolicy retryPolicy;
+    private final IdempotencyResponseStore idempotencyStore;
+    private final RoundStateMachine roundStateMachine;
 
     @Autowired
     public BetController(
         PlayerService playerService,
-        BetService betService) {
+        BetService betService,
+        ActionMetrics actionMetrics,
+        ClientLanes clientLanes,
+        OptimisticRetryPolicy retryPolicy,
+        IdempotencyResponseStore idempotencyStore,
+        RoundStateMachine roundStateMachine) {
         this.playerService = playerService;
         this.betService = betService;
+        this.actionMetrics = actionMetrics;
+        this.clientLanes = clientLanes;
+        this.retryPolicy = retryPolicy;
+        this.idempotencyStore = idempotencyStore;
+        this.roundStateMachine = roundStateMachine;
     }
 
     @PostMapping("/bet")
     public ResponseEntity<?> placeBet(@RequestBody BetRequest betRequest) {
+        return clientLanes.run(betRequest.clientId(), () -> executePlaceBet(betRequest));
+    }
+
+    @PostMapping("/retake_bet")
+    public ResponseEntity<?> retakeBet(@RequestBody BetRequest betRequest) {
+        return clientLanes.run(betRequest.clientId(), () -> executeRetakeBet(betRequest));
+    }
+
+    private ResponseEntity<?> executePlaceBet(BetRequest betRequest) {
+        Optional<ResponseEntity<byte[]>> replay = replay(betRequest);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
         // 1. Validálás (Auth helyett): Csak létező játékos fogadhat
         Player player = playerService.getAndValidatePlayer(betRequest.clientId());
 
         // 2. Duplikáció szűrés + Állapot visszaadása
         if (playerService.isDuplicateRequest(player, betRequest.idempotencyKey())) {
-            GameState state = player.getCurrentGameState();
-            assert state.getDeck() != null;
-            return ResponseEntity.ok(ApiResponse.<GameStateBet>builder()
-                .status("success")
-                .currentTokens(player.getTokens())
-                .gameState(new GameStateBet(state.getBet(), state.getBetList(), state.getDeck().getDeckLength())) // Visszaadjuk a mentett állapotot is
-                .build());
+            return duplicateResponse(player, betRequest.idempotencyKey());
         }
 
-        // 3. Jelenlegi állapot kezelése
-        GameState currentState = player.getCurrentGameState();
-        if (currentState == null) {
-            currentState = GameState.builder()
-                .isRoundActive(false)
-                .build();
-        }
+        for (int attempt = 1; ; attempt++) {
+            // 3. Jelenlegi állapot kezelése
+            GameState currentState = player.getCurrentGameState();
+            if (currentState == null) {
+                currentState = GameState.builder()
+                    .isRoundActive(false)
+                    .build();
+            }
+            roundStateMachine.require(currentState, PlayerAction.BET);
 
-        // 4. Üzleti logika
-        GameStateBet betDto = betService.placeBet(currentState, betRequest.bet());
+            // 4. Üzleti logika
+            GameStateBet betDto = betService.placeBet(currentState, betRequest.bet());
 
-        GameState updatedState = currentState.toBuilder()
-            .bet(betDto.bet())
-            .betList(betDto.betList())
-            .isRoundActive(false)
-            .build();
+            GameState updatedState = roundStateMachine.advance(currentState.toBuilder()
+                .bet(betDto.bet())
+                .betList(betDto.betList())
+                .isRoundActive(false)
+                .version(currentState.getVersion() + 1)
+                .view(null) // a tét válasz (deckLen) nem a BET nézetből épül: a következő akció teljes snapshot-ot kap
+                .build(), PlayerAction.BET);
 
-        Player playerToSave = player.toBuilder()
-            .currentGameState(updatedState)
-            .idempotencyKey(betRequest.idempotencyKey())
-            .build();
+            if (player.getTokens() < betRequest.bet()) {
+                throw new GameRuleException("NOT_ENOUGH_TOKENS_FOR_BET");
+            }
 
-        // 6. Mentés és levonás
-        Player savedPlayer = playerService.deductBet(playerToSave, betRequest.bet());
+            // 5. Mentés és levonás egyetlen atomi UPDATE-tel, ha a sor közben nem változott
+            Optional<Integer> newTokens = playerService.applyAction(
+                player.getClientId(), player.getVersion(), updatedState, -betRequest.bet(), betRequest.idempotencyKey());
+
+            if (newTokens.isPresent()) {
+                return idempotencyStore.store(player.getClientId(), betRequest.idempotencyKey(),
+                    ApiResponse.<GameStateBet>builder()
+                        .status("success")
+                        .gameState(betDto)
+                        .currentTokens(newTokens.get())
+                        .version(updatedState.getVersion())
+                        .roundPhase(updatedState.getRoundPhase())
+                        .allowedActions(updatedState.getAllowedActions())
+                        .build());
+            }
 
-        return ResponseEntity.ok(ApiResponse.<GameStateBet>builder()
-            .status("success")
-            .gameState(betDto)
-            .currentTokens(savedPlayer.getTokens())
-            .build());
+            Player latest = playerService.getAndValidatePlayer(betRequest.clientId());
+            if (playerService.isDuplicateRequest(latest, betRequest.idempotencyKey())) {
+                return duplicateResponse(latest, betRequest.idempotencyKey());
+            }
+            Optional<ResponseEntity<byte[]>> stored = idempotencyStore.replayDurable(latest.getClientId(), betRequest.idempotencyKey());
+            if (stored.isPresent()) {
+                actionMetrics.recordDuplicate(actionMetrics.currentEndpoint());
+                return stored.get();
+            }
+            player = retryOrReject(player, latest, attempt, "NOT_ENOUGH_TOKENS_FOR_BET");
+        }
     }
 
-    @PostMapping("/retake_bet")
-    public ResponseEntity<?> retakeBet(@RequestBody BetRequest betRequest) {
+    private ResponseEntity<?> executeRetakeBet(BetRequest betRequest) {
+        Optional<ResponseEntity<byte[]>> replay = replay(betRequest);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
         // 1. Validálás és betöltés: Az AuthenticationService helyett a PlayerService-t használjuk
         Player player = playerService.getAndValidatePlayer(betRequest.clientId());
 
         // 2. Idempotencia ellenőrzés: Ne lehessen kétszer visszakérni ugyanazt a tétet
         if (playerService.isDuplicateRequest(player, betRequest.idempotencyKey())) {
-            GameState state = player.getCurrentGameState();
-            GameStateBet currentBetDto;
-            if ((state != null)) {
-                assert state.getDeck() != null;
-                currentBetDto = new GameStateBet(state.getBet(), state.getBetList(), state.getDeck().getDeckLength());
-            } else {
-                currentBetDto = null;
+            return duplicateResponse(player, betRequest.idempotencyKey());
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            // 3. Jelenlegi állapot kinyerése
+            GameState currentState = player.getCurrentGameState();
+            if (currentState == null) {
+                currentState = GameState.builder()
+                    .isRoundActive(false)
+                    .build();
+            }
+            roundStateMachine.require(currentState, PlayerAction.RETAKE_BET);
+
+            // 4. Üzleti logika: Tét visszavétele
+            RetakeResult result = betService.retakeBet(currentState);
+            GameStateBet betDto = result.newState();
+
+            // 5. Új állapot (JSON frissítés)
+            GameState updatedState = roundStateMachine.advance(currentState.toBuilder()
+                .bet(betDto.bet())
+                .betList(betDto.betList())
+                .version(currentState.getVersion() + 1)
+                .view(null)
+                .build(), PlayerAction.RETAKE_BET);
+
+            // 6. Tokenek visszajuttatása, állapot és új kulcs mentése egyetlen atomi UPDATE-tel
+            Optional<Integer> newTokens = playerService.applyAction(
+                player.getClientId(), player.getVersion(), updatedState, result.amountReturned(), betRequest.idempotencyKey());
+
+            if (newTokens.isPresent()) {
+                return idempotencyStore.store(player.getClientId(), betRequest.idempotencyKey(),
+                    ApiResponse.<GameStateBet>builder()
+                        .status("success")
+                        .gameState(betDto)
+                        .currentTokens(newTokens.get())
+                        .version(updatedState.getVersion())
+                        .roundPhase(updatedState.getRoundPhase())
+                        .allowedActions(updatedState.getAllowedActions())
+                        .build());
             }
 
-            return ResponseEntity.ok(ApiResponse.<GameStateBet>builder()
-                .status("success")
-                .currentTokens(player.getTokens())
-                .gameState(currentBetDto)
-                .build());
+            Player latest = playerService.getAndValidatePlayer(betRequest.clientId());
+            if (playerService.isDuplicateRequest(latest, betRequest.idempotencyKey())) {
+                return duplicateResponse(latest, betRequest.idempotencyKey());
+            }
+            Optional<ResponseEntity<byte[]>> stored = idempotencyStore.replayDurable(latest.getClientId(), betRequest.idempotencyKey());
+            if (stored.isPresent()) {
+                actionMetrics.recordDuplicate(actionMetrics.currentEndpoint());
+                return stored.get();
+            }
+            player = retryOrReject(player, latest, attempt, "RETAKE_BET_REJECTED");
         }
+    }
 
-        // 3. Jelenlegi állapot kinyerése
-        GameState currentState = player.getCurrentGameState();
-        if (currentState == null) {
-            currentState = GameState.builder()
-                .isRoundActive(false)
-                .build();
+    /**
+     * Ha az atomi mentés nem módosított sort és a kérés nem duplikátum: ütközésnél (közben más írta a sort)
+     * a friss játékossal újra próbálkozunk, különben a szabály sérült.
+     */
+    private Player retryOrReject(Player attempted, Player latest, int attempt, String errorCode) {
+        if (!retryPolicy.shouldRetry(actionMetrics.currentEndpoint(), attempted, latest, attempt)) {
+            throw new GameRuleException(errorCode);
         }
+        return latest;
+    }
 
-        // 4. Üzleti logika: Tét visszavétele
-        RetakeResult result = betService.retakeBet(currentState);
-        GameStateBet betDto = result.newState();
+    /**
+     * Friss kérés ismétlése: a mentett válasz bájtjai, betöltés nélkül.
+     */
+    private Optional<ResponseEntity<byte[]>> replay(BetRequest betRequest) {
+        Optional<ResponseEntity<byte[]>> replay = idempotencyStore.replay(betRequest.clientId(), betRequest.idempotencyKey());
+        replay.ifPresent(response -> actionMetrics.recordDuplicate(actionMetrics.currentEndpoint()));
+        return replay;
+    }
 
-        // 5. Player előkészítése (JSON frissítés + új kulcs mentése)
-        Player playerToSave = player.toBuilder()
-            .currentGameState(currentState.toBuilder()
-                .bet(betDto.bet())
-                .betList(betDto.betList())
-                .build())
-            .idempotencyKey(betRequest.idempotencyKey())
-            .build();
+    private ResponseEntity<?> duplicateResponse(Player player, UUID idempotencyKey) {
+        actionMetrics.recordDuplicate(actionMetrics.currentEndpoint());
+
+        // Ha a válasz még megvan, pontosan azt adjuk vissza
+        Optional<ResponseEntity<byte[]>> stored = idempotencyStore.replayDurable(player.getClientId(), idempotencyKey);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
 
-        // 6. Tokenek visszajuttatása és mentés egyetlen lépésben
-        // A PlayerService.updateTokens elvégzi a mentést is!
-        Player savedPlayer = playerService.updateTokens(playerToSave, result.amountReturned());
+        GameState state = player.getCurrentGameState();
+        GameStateBet currentBetDto = (state != null)
+            ? new GameStateBet(state.getBet(), state.getBetList(), state.getDeckLen()) // Visszaadjuk a mentett állapotot is
+            : null;
 
         return ResponseEntity.ok(ApiResponse.<GameStateBet>builder()
             .status("success")
-            .gameState(betDto)
-            .currentTokens(savedPlayer.getTokens())
+            .currentTokens(player.getTokens())
+            .gameState(currentBetDto)
+            .version(state != null ? state.getVersion() : null)
+            .roundPhase(state != null ? roundStateMachine.phase(state) : null)
+            .allowedActions(state != null ? roundStateMachine.allowedActions(state) : null)
             .build());
     }
 }
@@ -1,15 +1,25 @@
 package com.blackjack.blackjack.controller;
 
+import com.blackjack.blackjack.concurrency.ClientLanes;
+import com.blackjack.blackjack.concurrency.OptimisticRetryPolicy;
 import com.blackjack.blackjack.dto.ActionRequest;
 import com.blackjack.blackjack.dto.ApiResponse;
+import com.blackjack.blackjack.dto.BatchActionRequest;
+import com.blackjack.blackjack.dto.GameStateView;
 import com.blackjack.blackjack.dto.bet.GameStateBet;
-import com.blackjack.blackjack.dto.others.*;
 import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.metrics.ActionMetrics;
 import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.model.PlayerAction;
+import com.blackjack.blackjack.rules.TableRules;
 import com.blackjack.blackjack.service.GameService;
+import com.blackjack.blackjack.service.GameStateDeltaService;
 import com.blackjack.blackjack.service.GameStateManager;
+import com.blackjack.blackjack.service.IdempotencyResponseStore;
 import com.blackjack.blackjack.service.PlayerService;
+import com.blackjack.blackjack.service.RoundStateMachine;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,11 +28,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
 
-import static com.blackjack.blackjack.common.GameConstants.INITIAL_DECK_LENGTH;
-import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
+import static com.blackjack.blackjack.common.GameConstants.MAX_BATCH_ACTIONS;
+import static java.util.Map.entry;
 
 @RestController
 @RequestMapping("/api")
@@ -31,303 +46,376 @@ public class GameController {
     private final GameService gameService;
     private final PlayerService playerService;
     private final GameStateManager gameStateManager;
-
-    public GameController(GameService gameService, PlayerService playerService, GameStateManager gameStateManager) {
+    private final ActionMetrics actionMetrics;
+    private final ClientLanes clientLanes;
+    private final GameStateDeltaService gameStateDeltaService;
+    private final OptimisticRetryPolicy retryPolicy;
+    private final IdempotencyResponseStore idempotencyStore;
+    private final TableRules tableRules;
+    private final RoundStateMachine roundStateMachine;
+    private final Map<String, GameAction> actions;
+
+    public GameController(GameService gameService, PlayerService playerService, GameStateManager gameStateManager, ActionMetrics actionMetrics, ClientLanes clientLanes, GameStateDeltaService gameStateDeltaService, OptimisticRetryPolicy retryPolicy, IdempotencyResponseStore idempotencyStore, TableRules tableRules, RoundStateMachine roundStateMachine) {
         this.gameService = gameService;
         this.playerService = playerService;
         this.gameStateManager = gameStateManager;
+        this.actionMetrics = actionMetrics;
+        this.clientLanes = clientLanes;
+        this.gameStateDeltaService = gameStateDeltaService;
+        this.retryPolicy = retryPolicy;
+        this.idempotencyStore = idempotencyStore;
+        this.tableRules = tableRules;
+        this.roundStateMachine = roundStateMachine;
+        this.actions = createActions();
     }
 
     /**
      * GENERIKUS KERETRENDSZER (DRY)
      * Ez a metódus kezeli a validálást, idempotenciát, mentést és DTO konverziót.
      */
-    private <T> ResponseEntity<?> handleAction(
+    private ResponseEntity<?> handleAction(ActionRequest request, String name) {
+        GameAction action = actions.get(name);
+        return handleTransaction(request, action.hint(), action.view(), (player, state) -> guarded(action, player, state));
+    }
+
+    /**
+     * Egy lépés az állapotgépen keresztül: a tárolt maszk ellenőrzése a motor előtt (szabálytalan
+     * akció esetén sem motor, sem mentés nem fut), majd az új állapot fázisa és maszkja.
+     */
+    private GameService.TransactionResult guarded(GameAction action, Player player, GameState state) {
+        roundStateMachine.require(state, action.action());
+        GameService.TransactionResult result = action.step().apply(player, state);
+        return new GameService.TransactionResult(
+            roundStateMachine.advance(result.gameState(), action.action()), result.transactionResult());
+    }
+
+    /**
+     * Token változással járó akciók: a token változást az akció maga számolja ki
+     * a betöltött játékos és állapot alapján, így nincs szükség külön előzetes betöltésre.
+     * Ugyanannak a játékosnak a kérései a saját sávjukban, egymás után futnak.
+     */
+    private ResponseEntity<?> handleTransaction(
         ActionRequest request,
         String hint,
-        Function<GameState, T> dtoBuilder,
-        UnaryOperator<GameState> action,
-        Integer tokenChange
+        GameStateView view,
+        BiFunction<Player, GameState, GameService.TransactionResult> action
     ) {
+        return clientLanes.run(request.getClientId(),
+            () -> executeTransaction(request, hint, view, action));
+    }
+
+    private ResponseEntity<?> executeTransaction(
+        ActionRequest request,
+        String hint,
+        GameStateView view,
+        BiFunction<Player, GameState, GameService.TransactionResult> action
+    ) {
+        String endpoint = actionMetrics.currentEndpoint();
+        long phaseStart = System.nanoTime();
+
+        // 0. Friss kérés ismétlése: a mentett válasz bájtjai, betöltés nélkül
+        Optional<ResponseEntity<byte[]>> replay = idempotencyStore.replay(request.getClientId(), request.getIdempotencyKey());
+        if (replay.isPresent()) {
+            actionMetrics.record(endpoint, ActionMetrics.Phase.DUPLICATE_CHECK, phaseStart);
+            actionMetrics.recordDuplicate(endpoint);
+            return replay.get();
+        }
+
         Player player = playerService.getAndValidatePlayer(request.getClientId());
+        phaseStart = actionMetrics.record(endpoint, ActionMetrics.Phase.LOAD, phaseStart);
 
         // 1. Idempotencia ellenőrzés
-        if (playerService.isDuplicateRequest(player, request.getIdempotencyKey())) {
-            return ResponseEntity.ok(ApiResponse.builder()
-                .status("SUCCESS")
-                .currentTokens(player.getTokens())
-                .gameState(dtoBuilder.apply(player.getCurrentGameState()))
-                .build());
+        boolean duplicate = playerService.isDuplicateRequest(player, request.getIdempotencyKey());
+        phaseStart = actionMetrics.record(endpoint, ActionMetrics.Phase.DUPLICATE_CHECK, phaseStart);
+        if (duplicate) {
+            actionMetrics.recordDuplicate(endpoint);
+            return duplicateResponse(player, view, request.getIdempotencyKey());
         }
 
-        GameState current = player.getCurrentGameState();
-        if (current == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active game state");
+        GameState current;
+        GameState updated;
+        Optional<Integer> newTokens;
+
+        for (int attempt = 1; ; attempt++) {
+            current = player.getCurrentGameState();
+            if (current == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active game state");
+
+            // 2. Üzleti logika futtatása (tiszta lépés, ütközésnél a friss állapoton újra futtatható)
+            GameService.TransactionResult result = action.apply(player, current);
+            updated = result.gameState().toBuilder()
+                .version(current.getVersion() + 1)
+                .view(view.name())
+                .build();
+            phaseStart = actionMetrics.record(endpoint, ActionMetrics.Phase.ENGINE, phaseStart);
+
+            // 3. Atomi mentés: állapot + token változás + idempotencia kulcs egyetlen UPDATE-tel, ha a sor nem változott
+            newTokens = playerService.applyAction(
+                player.getClientId(), player.getVersion(), updated, result.transactionResult(), request.getIdempotencyKey());
+            phaseStart = actionMetrics.record(endpoint, ActionMetrics.Phase.PERSIST, phaseStart);
+
+            if (newTokens.isPresent()) {
+                break;
+            }
+
+            // Vagy egy párhuzamos kérés már feldolgozta ezt a kulcsot (akár egy régebbit is),
+            // vagy közben más írta a sort, vagy elfogyott a token
+            Player latest = playerService.getAndValidatePlayer(request.getClientId());
+            if (playerService.isDuplicateRequest(latest, request.getIdempotencyKey())) {
+                actionMetrics.recordDuplicate(endpoint);
+                return duplicateResponse(latest, view, request.getIdempotencyKey());
+            }
+            Optional<ResponseEntity<byte[]>> stored = idempotencyStore.replayDurable(latest.getClientId(), request.getIdempotencyKey());
+            if (stored.isPresent()) {
+                actionMetrics.recordDuplicate(endpoint);
+                return stored.get();
+            }
+            if (!retryPolicy.shouldRetry(endpoint, player, latest, attempt)) {
+                throw new GameRuleException("NOT_ENOUGH_TOKENS");
+            }
+            player = latest;
+        }
 
-        // 2. Üzleti logika futtatása
-        GameState updated = action.apply(current);
+        // 4. Válasz küldése: delta, ha a kliens a mentés előtti verziót nyugtázta, különben teljes snapshot
+        ApiResponse.ApiResponseBuilder<Object> body = ApiResponse.builder()
+            .status("SUCCESS")
+            .gameStateHint(hint)
+            .currentTokens(newTokens.get())
+            .version(updated.getVersion())
+            .roundPhase(updated.getRoundPhase())
+            .allowedActions(updated.getAllowedActions());
+
+        Optional<JsonNode> delta = gameStateDeltaService.delta(current, updated, view, request.getAckVersion());
+        if (delta.isPresent()) {
+            body.baseVersion(current.getVersion()).gameStateDelta(delta.get());
+        } else {
+            body.gameState(view.build(updated));
+        }
+        actionMetrics.recordResponseMode(endpoint, delta.isPresent());
 
-        // 3. Mentés előkészítése
-        Player playerToSave = player.toBuilder()
-            .currentGameState(updated)
-            .idempotencyKey(request.getIdempotencyKey())
-            .build();
+        // A válasz bájtjai eltárolódnak, az ismétlések pontosan ezt kapják
+        ResponseEntity<?> response = idempotencyStore.store(player.getClientId(), request.getIdempotencyKey(), body.build());
+        actionMetrics.record(endpoint, ActionMetrics.Phase.RESPONSE_BUILD, phaseStart);
 
-        // 4. Atomi mentés (Token változással vagy anélkül)
-        Player savedPlayer = (tokenChange != null && tokenChange != 0)
-            ? playerService.updateTokens(playerToSave, tokenChange)
-            : playerService.savePlayer(playerToSave);
+        return response;
+    }
 
-        // 5. Válasz küldése
+    /**
+     * Ismételt kérés: a mentett válasz, ha még megvan; különben a jelenlegi állapotból épített nézet.
+     */
+    private ResponseEntity<?> duplicateResponse(Player player, GameStateView view, UUID idempotencyKey) {
+        Optional<ResponseEntity<byte[]>> stored = idempotencyStore.replayDurable(player.getClientId(), idempotencyKey);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        GameState state = player.getCurrentGameState();
         return ResponseEntity.ok(ApiResponse.builder()
             .status("SUCCESS")
-            .gameState(dtoBuilder.apply(updated))
-            .gameStateHint(hint)
-            .currentTokens(savedPlayer.getTokens())
+            .currentTokens(player.getTokens())
+            .gameState(view.build(state))
+            .version(state != null ? state.getVersion() : null)
+            .roundPhase(state != null ? roundStateMachine.phase(state) : null)
+            .allowedActions(state != null ? roundStateMachine.allowedActions(state) : null)
             .build());
     }
 
     // --- STANDARD JÁTÉK VÉGPONTOK ---
     @PostMapping("/create_deck")
     public ResponseEntity<?> createDeck(@RequestBody ActionRequest req) {
-        return handleAction(req, "DECK_CREATED", this::buildGameStateBet, gameStateManager::createNewDeck, null);
+        return handleAction(req, "create_deck");
     }
 
     @PostMapping("/start_game")
     public ResponseEntity<?> initializeNewRound(@RequestBody ActionRequest req) {
-        return handleAction(req, "NEW_ROUND_INITIALIZED", this::buildGameStateStart, gameService::initializeNewRound, null);
+        return handleAction(req, "start_game");
     }
 
     @PostMapping("/hit")
     public ResponseEntity<?> playerHit(@RequestBody ActionRequest req) {
-        return handleAction(req, "HIT_RECEIVED", this::buildGameStateStart, gameService::playerHit, null);
+        return handleAction(req, "hit");
     }
 
     @PostMapping("/stand_and_rewards")
     public ResponseEntity<?> standAndRewards(@RequestBody ActionRequest req) {
-        Player player = playerService.getAndValidatePlayer(req.getClientId());
-
-        GameState stoodState = gameService.playerStand(player.getCurrentGameState());
-        GameService.TransactionResult result = gameService.calculateRewards(stoodState);
-
-        return handleAction(
-            req,
-            "REWARDS_PROCESSED",
-            this::buildGameStateRewards,
-            state -> result.gameState(),    // Az új állapot (benne a dealer lapjaival)
-            result.transactionResult()      // A TÉNYLEGES nyeremény (pl. +200), így bekerül a DB-be!
-        );
+        return handleAction(req, "stand_and_rewards");
     }
 
     @PostMapping("/double_request")
     public ResponseEntity<?> doubleRequest(@RequestBody ActionRequest req) {
-        Player p = playerService.getAndValidatePlayer(req.getClientId());
-        GameState current = p.getCurrentGameState();
-
-        if (current == null || !current.isRoundActive()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active round");
-        }
-
-        if (current.getPlayer() == null) {
-            throw new IllegalStateException("Critical error: Player object is missing from GameState during Double request");
-        }
-
-        if (current.getPlayer().hand().size() != 2) {
-            throw new GameRuleException("DOUBLE NOT ALLOWED");
-        }
-
-        int betToDeduct = current.getBet();
-        if (p.getTokens() < betToDeduct) {
-            throw new GameRuleException("NOT_ENOUGH_TOKENS");
-        }
-
-        return handleAction(req, "DOUBLE_PROCESSED", this::buildGameStateDouble, state -> {
-            GameState afterHit = gameService.playerHit(state);
-            return gameService.applyDoubleBet(afterHit, betToDeduct);
-        }, -betToDeduct);
+        return handleAction(req, "double_request");
     }
 
     @PostMapping("/ins_request")
     public ResponseEntity<?> insuranceRequest(@RequestBody ActionRequest req) {
-        Player player = playerService.getAndValidatePlayer(req.getClientId());
-        GameService.TransactionResult res = gameService.insuranceRequest(player.getCurrentGameState());
-
-        return handleAction(req, "INS_PROCESSED", this::buildGameStateInsurance,
-            state -> res.gameState(),
-            res.transactionResult()
-        );
+        return handleAction(req, "ins_request");
     }
 
     @PostMapping("/rewards")
     public ResponseEntity<?> rewards(@RequestBody ActionRequest req) {
-        Player player = playerService.getAndValidatePlayer(req.getClientId());
-        GameState current = player.getCurrentGameState();
-
-        if (current == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active game state for rewards");
-        }
-
-        GameService.TransactionResult rewardResult = gameService.calculateRewards(current);
-
-        return handleAction(
-            req,
-            "REWARDS_PROCESSED",
-            this::buildGameStateRewards,
-            state -> rewardResult.gameState(), // Az action visszaadja a már kiszámolt állapotot
-            rewardResult.transactionResult()   // Itt adjuk át a token változást (nyereményt)
-        );
+        return handleAction(req, "rewards");
     }
 
     // --- SPLIT VÉGPONTOK ---
     @PostMapping("/split_request")
     public ResponseEntity<?> splitRequest(@RequestBody ActionRequest req) {
-        Player p = playerService.getAndValidatePlayer(req.getClientId());
-        int bet = p.getCurrentGameState().getBet();
-        return handleAction(req, "SPLIT_PROCESSED", this::buildGameStateSplitHand, gameService::splitHand, -bet);
+        return handleAction(req, "split_request");
     }
 
     @PostMapping("/add_to_players_list_by_stand")
     public ResponseEntity<?> addToPlayersByStand(@RequestBody ActionRequest req) {
-        return handleAction(req, "HAND_SAVED", this::buildGameStateAddToPlayers, gameService::addToPlayersListByStand, null);
+        return handleAction(req, "add_to_players_list_by_stand");
     }
 
     @PostMapping("/add_split_player_to_game")
     public ResponseEntity<?> addSplitPlayerToGame(@RequestBody ActionRequest req) {
-        return handleAction(req, "NEXT_SPLIT_HAND_ACTIVE", this::buildGameStateSplitHand, gameService::addSplitPlayerToGame, null);
+        return handleAction(req, "add_split_player_to_game");
     }
 
     @PostMapping("/add_player_from_players")
     public ResponseEntity<?> addPlayerFromPlayers(@RequestBody ActionRequest req) {
-        return handleAction(req, "ALL_HANDS_COLLECTED", this::buildGameStateAddPlayerFromPlayers, gameService::addPlayerFromPlayers, null);
+        return handleAction(req, "add_player_from_players");
     }
 
     @PostMapping("/split_hit")
     public ResponseEntity<?> splitHit(@RequestBody ActionRequest req) {
-        return handleAction(req, "SPLIT_HIT_RECEIVED", this::buildGameStateSplitHand, gameService::playerHit, null);
+        return handleAction(req, "split_hit");
     }
 
     @PostMapping("/split_stand_and_rewards")
     public ResponseEntity<?> splitStandAndRewards(@RequestBody ActionRequest req) {
-        Player player = playerService.getAndValidatePlayer(req.getClientId());
-        GameState current = player.getCurrentGameState();
-
-        if (current == null || !current.isRoundActive()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active round to stand");
-        }
-
-        GameState stoodState = gameService.playerStand(current);
-        GameService.TransactionResult rewardResult = gameService.calculateRewards(stoodState);
-
-        return handleAction(
-            req,
-            "REWARDS_PROCESSED",
-            this::buildGameStateSplitRewards,
-            state -> rewardResult.gameState(),
-            rewardResult.transactionResult()
-        );
+        return handleAction(req, "split_stand_and_rewards");
     }
 
     @PostMapping("/split_double_request")
     public ResponseEntity<?> splitDoubleRequest(@RequestBody ActionRequest req) {
-        Player p = playerService.getAndValidatePlayer(req.getClientId());
-        GameState current = p.getCurrentGameState();
+        return handleAction(req, "split_double_request");
+    }
 
-        if (current == null || !current.isRoundActive()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active round for split double");
-        }
+    // --- KÖTEGELT AKCIÓK ---
 
-        if (current.getPlayer() == null) {
-            throw new IllegalStateException("Critical error: Player object is missing from GameState during Double request");
+    /**
+     * Több akció egymás után, egyetlen betöltéssel és egyetlen mentéssel (pl. egy teljes split kör).
+     * Az akciók ugyanazok a lépések, mint az egyes végpontoké; a token változásokat lépésenként
+     * követjük (a duplázás/split fedezet ellenőrzése a futó egyenleggel történik), és a nettó
+     * változást mentjük egy idempotencia kulccsal. Bármelyik lépés hibája esetén semmi sem mentődik.
+     * A válasz az utolsó akció nézete.
+     */
+    @PostMapping("/actions")
+    public ResponseEntity<?> batchActions(@RequestBody BatchActionRequest req) {
+        List<String> names = req.getActions();
+        if (names == null || names.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "NO_ACTIONS");
         }
-
-        if (current.getPlayer().hand().size() != 2) {
-            throw new GameRuleException("DOUBLE_ONLY_ALLOWED_ON_STARTING_HAND");
+        if (names.size() > MAX_BATCH_ACTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "TOO_MANY_ACTIONS");
         }
 
-        int betToDeduct = current.getPlayer().bet();
-        if (p.getTokens() < betToDeduct) {
-            throw new GameRuleException("NOT_ENOUGH_TOKENS_FOR_DOUBLE");
+        List<GameAction> steps = new ArrayList<>(names.size());
+        for (String name : names) {
+            GameAction step = actions.get(name);
+            if (step == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "UNKNOWN_ACTION");
+            }
+            steps.add(step);
         }
 
-        return handleAction(
-            req,
-            "SPLT_REQUEST_PROCESSED",
-            this::buildGameStateSplitHand,
-            state -> {
-                GameState afterHit = gameService.playerHit(state);
-                return gameService.applyDoubleBet(afterHit, betToDeduct);
-            },
-            -betToDeduct
-        );
+        GameAction last = steps.getLast();
+        return handleTransaction(req, last.hint(), last.view(), (player, state) -> {
+            int tokens = player.getTokens();
+            int tokenDelta = 0;
+            GameState current = state;
+
+            for (GameAction step : steps) {
+                Player running = (tokens == player.getTokens()) ? player : player.toBuilder().tokens(tokens).build();
+                GameService.TransactionResult result = guarded(step, running, current);
+                current = result.gameState();
+                tokens += result.transactionResult();
+                tokenDelta += result.transactionResult();
+
+                if (tokens < 0) {
+                    throw new GameRuleException("NOT_ENOUGH_TOKENS");
+                }
+            }
+            return new GameService.TransactionResult(current, tokenDelta);
+        });
     }
 
-    @PostMapping("/set_restart")
-    public ResponseEntity<?> setRestart(@RequestBody ActionRequest actionRequest) {
-        Player player = playerService.getAndValidatePlayer(actionRequest.getClientId());
-
-        Player playerToUpdate = player.toBuilder()
-            .tokens(INITIAL_TOKENS)
-            .currentGameState(null) // Ha már null volt, null marad, ha nem, akkor törlődik
-            .idempotencyKey(actionRequest.getIdempotencyKey())
-            .build();
-
-        Player savedPlayer = playerService.savePlayer(playerToUpdate);
+    // --- AKCIÓK (végpontonként és kötegelve is ugyanaz a lépés) ---
 
-        GameStateBet emptyGameState = GameStateBet.builder()
-            .deckLen(INITIAL_DECK_LENGTH)
-            .build();
-
-        return ResponseEntity.ok(ApiResponse.builder()
-            .status("SUCCESS")
-            .currentTokens(savedPlayer.getTokens())
-            .gameState(emptyGameState)
-            .gameStateHint("GAME_RESET_TO_NULL")
-            .build());
+    private record GameAction(PlayerAction action, String hint, GameStateView view,
+                              BiFunction<Player, GameState, GameService.TransactionResult> step) {
     }
 
-
-    // --- DTO BUILDEREK ---
-    private GameStateBet buildGameStateBet(GameState s) {
-        return GameStateBet.builder().bet(s.getBet()).betList(s.getBetList()).deckLen(s.getDeckLen()).build();
+    private static GameAction action(PlayerAction action, String hint, GameStateView view, UnaryOperator<GameState> step) {
+        return new GameAction(action, hint, view, (player, state) -> new GameService.TransactionResult(step.apply(state), 0));
     }
 
-    private GameStateStart buildGameStateStart(GameState s) {
-        return GameStateStart.builder().player(s.getPlayer()).dealerMasked(s.getDealerMasked()).bet(s.getBet()).deckLen(s.getDeckLen()).isRoundActive(s.isRoundActive()).build();
+    private static Map.Entry<String, GameAction> entryOf(GameAction action) {
+        return entry(action.action().getEndpoint(), action);
     }
 
-    private GameStateRewards buildGameStateRewards(GameState s) {
-        return GameStateRewards.builder().player(s.getPlayer()).dealerUnmasked(s.getDealerUnmasked()).deckLen(s.getDeckLen()).bet(s.getBet()).winner(s.getWinner()).isRoundActive(s.isRoundActive()).build();
+    private Map<String, GameAction> createActions() {
+        return Map.ofEntries(
+            entryOf(action(PlayerAction.CREATE_DECK, "DECK_CREATED", GameStateView.BET, gameStateManager::createNewDeck)),
+            entryOf(action(PlayerAction.START_GAME, "NEW_ROUND_INITIALIZED", GameStateView.START, gameService::initializeNewRound)),
+            entryOf(action(PlayerAction.HIT, "HIT_RECEIVED", GameStateView.START, gameService::playerHit)),
+            // Az új állapot (benne a dealer lapjaival) és a TÉNYLEGES nyeremény (pl. +200)
+            entryOf(new GameAction(PlayerAction.STAND, "REWARDS_PROCESSED", GameStateView.REWARDS,
+                (player, state) -> gameService.calculateRewards(gameService.playerStand(state)))),
+            entryOf(new GameAction(PlayerAction.DOUBLE, "DOUBLE_PROCESSED", GameStateView.DOUBLE, this::doubleDown)),
+            entryOf(new GameAction(PlayerAction.INSURANCE, "INS_PROCESSED", GameStateView.INSURANCE,
+                (player, state) -> gameService.insuranceRequest(state))),
+            // Az új állapot és a token változás (nyeremény)
+            entryOf(new GameAction(PlayerAction.REWARDS, "REWARDS_PROCESSED", GameStateView.REWARDS,
+                (player, state) -> gameService.calculateRewards(state))),
+            entryOf(new GameAction(PlayerAction.SPLIT, "SPLIT_PROCESSED", GameStateView.SPLIT_HAND,
+                (player, state) -> new GameService.TransactionResult(gameService.splitHand(state), -state.getBet()))),
+            entryOf(action(PlayerAction.STASH_SPLIT_HAND, "HAND_SAVED", GameStateView.ADD_TO_PLAYERS, gameService::addToPlayersListByStand)),
+            entryOf(action(PlayerAction.NEXT_SPLIT_HAND, "NEXT_SPLIT_HAND_ACTIVE", GameStateView.SPLIT_HAND, gameService::addSplitPlayerToGame)),
+            entryOf(action(PlayerAction.COLLECT_SPLIT_HANDS, "ALL_HANDS_COLLECTED", GameStateView.ADD_PLAYER_FROM_PLAYERS, gameService::addPlayerFromPlayers)),
+            entryOf(action(PlayerAction.SPLIT_HIT, "SPLIT_HIT_RECEIVED", GameStateView.SPLIT_HAND, gameService::playerHit)),
+            entryOf(new GameAction(PlayerAction.SPLIT_STAND, "REWARDS_PROCESSED", GameStateView.SPLIT_REWARDS,
+                (player, state) -> gameService.calculateRewards(gameService.playerStand(state)))),
+            entryOf(new GameAction(PlayerAction.SPLIT_DOUBLE, "SPLT_REQUEST_PROCESSED", GameStateView.SPLIT_HAND, this::splitDoubleDown))
+        );
     }
 
-    private GameStateDouble buildGameStateDouble(GameState s) {
-        return GameStateDouble.builder().player(s.getPlayer()).deckLen(s.getDeckLen()).isRoundActive(s.isRoundActive()).build();
-    }
+    // Az aktív kör, a kéz és a két lap már a maszkban ellenőrzött; itt csak a fedezet marad
+    private GameService.TransactionResult doubleDown(Player p, GameState current) {
+        int betToDeduct = current.getBet();
+        if (p.getTokens() < betToDeduct) {
+            throw new GameRuleException("NOT_ENOUGH_TOKENS");
+        }
 
-    private GameStateInsurance buildGameStateInsurance(GameState s) {
-        return GameStateInsurance.builder().player(s.getPlayer()).natural21(s.getNatural21()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).dealerMasked(s.getDealerMasked()).dealerUnmasked(s.getDealerUnmasked()).build();
+        GameState afterHit = gameService.playerHit(current);
+        return new GameService.TransactionResult(gameService.applyDoubleBet(afterHit, betToDeduct), -betToDeduct);
     }
 
-    private GameStateSplitHand buildGameStateSplitHand(GameState s) {
-        return GameStateSplitHand.builder().player(s.getPlayer()).dealerHandMasked(s.getDealerMasked()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).build();
-    }
+    // A split kör, a két lap és a DAS szabály már a maszkban ellenőrzött
+    private GameService.TransactionResult splitDoubleDown(Player p, GameState current) {
+        int betToDeduct = current.getPlayer().bet();
+        if (p.getTokens() < betToDeduct) {
+            throw new GameRuleException("NOT_ENOUGH_TOKENS_FOR_DOUBLE");
+        }
 
-    private GameStateAddToPlayersByStand buildGameStateAddToPlayers(GameState s) {
-        return GameStateAddToPlayersByStand.builder().player(s.getPlayer()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).dealerMasked(s.getDealerMasked()).dealerUnmasked(s.getDealerUnmasked()).build();
+        GameState afterHit = gameService.playerHit(current);
+        return new GameService.TransactionResult(gameService.applyDoubleBet(afterHit, betToDeduct), -betToDeduct);
     }
 
-    private GameStateAddPlayerFromPlayers buildGameStateAddPlayerFromPlayers(GameState s) {
-        return GameStateAddPlayerFromPlayers.builder().player(s.getPlayer()).dealerUnmasked(s.getDealerUnmasked()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).build();
-    }
+    @PostMapping("/set_restart")
+    public ResponseEntity<?> setRestart(@RequestBody ActionRequest actionRequest) {
+        // Egyetlen UPDATE: a régi állapotot (ha volt) nem kell betölteni ahhoz, hogy töröljük
+        int tokens = playerService.restartPlayer(actionRequest.getClientId(), actionRequest.getIdempotencyKey());
 
-    private GameStateSplitStandAndRewards buildGameStateSplitRewards(GameState state) {
-        return GameStateSplitStandAndRewards.builder()
-            .player(state.getPlayer())
-            .dealerUnmasked(state.getDealerUnmasked())
-            .players(state.getPlayers())
-            .winner(state.getWinner())
-            .splitReq(state.getSplitReq())
-            .deckLen(state.getDeckLen())
-            .bet(state.getBet())
-            .isRoundActive(state.isRoundActive())
+        GameStateBet emptyGameState = GameStateBet.builder()
+            .deckLen(tableRules.shoeLength())
             .build();
+
+        return ResponseEntity.ok(ApiResponse.builder()
+            .status("SUCCESS")
+            .currentTokens(tokens)
+            .gameState(emptyGameState)
+            .gameStateHint("GAME_RESET_TO_NULL")
+            .build());
     }
 }
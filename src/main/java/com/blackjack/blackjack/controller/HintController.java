@@ -0,0 +1,59 @@
+package com.blackjack.blackjack.controller;
+
+import com.blackjack.blackjack.dto.ActionRequest;
+import com.blackjack.blackjack.dto.ApiResponse;
+import com.blackjack.blackjack.dto.hint.ExpectedValueHint;
+import com.blackjack.blackjack.model.DealerHandMasked;
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.model.WinnerState;
+import com.blackjack.blackjack.service.ExpectedValueService;
+import com.blackjack.blackjack.service.PlayerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Csak olvasó végpont: "mit lépjek" tipp az aktív kézre, a cipő maradék lapjaiból számolt EV-kkel.
+ * Nem módosít állapotot, ezért nincs idempotencia kulcs ellenőrzés és mentés.
+ */
+@RestController
+@RequestMapping("/api")
+public class HintController {
+    private final PlayerService playerService;
+    private final ExpectedValueService expectedValueService;
+
+    public HintController(PlayerService playerService, ExpectedValueService expectedValueService) {
+        this.playerService = playerService;
+        this.expectedValueService = expectedValueService;
+    }
+
+    @PostMapping("/ev_hint")
+    public ResponseEntity<?> expectedValueHint(@RequestBody ActionRequest req) {
+        Player player = playerService.getAndValidatePlayer(req.getClientId());
+        GameState state = player.getCurrentGameState();
+
+        // Csak a kliens által látott natúr számít: a takart osztói blackjack (nat21 = NONE) nem szivároghat ki
+        if (state == null || !state.isRoundActive() || hasVisibleNatural(state)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active decision to hint");
+        }
+
+        ExpectedValueHint hint = expectedValueService.calculate(state);
+
+        return ResponseEntity.ok(ApiResponse.<ExpectedValueHint>builder()
+            .status("SUCCESS")
+            .gameState(hint)
+            .gameStateHint("EV_HINT")
+            .currentTokens(player.getTokens())
+            .build());
+    }
+
+    private static boolean hasVisibleNatural(GameState state) {
+        DealerHandMasked dealerMasked = state.getDealerMasked();
+        return dealerMasked != null && dealerMasked.nat21() != WinnerState.NONE.getValue();
+    }
+}
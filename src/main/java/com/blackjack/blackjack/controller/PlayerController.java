@@ -4,6 +4,8 @@ import com.blackjack.blackjack.dto.init.InitializationRequest;
 import com.blackjack.blackjack.dto.init.InitializationResponse;
 import com.blackjack.blackjack.model.Player;
 import com.blackjack.blackjack.repository.PlayerRepository;
+import com.blackjack.blackjack.rules.TableRules;
+import com.blackjack.blackjack.service.PlayerStateCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,7 +13,6 @@ import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
 
-import static com.blackjack.blackjack.common.GameConstants.INITIAL_DECK_LENGTH;
 import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
 
 @RestController
@@ -19,9 +20,13 @@ import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
 public class PlayerController {
 
     private final PlayerRepository playerRepository;
+    private final PlayerStateCache playerStateCache;
+    private final TableRules tableRules;
 
-    public PlayerController(PlayerRepository playerRepository) {
+    public PlayerController(PlayerRepository playerRepository, PlayerStateCache playerStateCache, TableRules tableRules) {
         this.playerRepository = playerRepository;
+        this.playerStateCache = playerStateCache;
+        this.tableRules = tableRules;
     }
 
     @PostMapping("/initialize_session")
@@ -33,16 +38,9 @@ public class PlayerController {
         // 2. Itt dől el a végleges érték (egy új, final változóba mentjük)
         final UUID finalClientId = (rawId == null) ? UUID.randomUUID() : rawId;
 
-        // Megkeressük vagy létrehozzuk a playert
-        Player player = playerRepository.findByClientId(finalClientId)
-            .map(existingPlayer -> {
-                // HA MÁR LÉTEZIK: Kinullázzuk az állapotot és az idempotencia kulcsot
-                return playerRepository.save(existingPlayer.toBuilder()
-                    .currentGameState(null)
-                    .idempotencyKey(UUID.randomUUID())
-                    .lastActivity(OffsetDateTime.now())
-                    .build());
-            })
+        // Meglévő játékos: az állapot és az idempotencia kulcs nullázása betöltés nélkül (UPDATE ... RETURNING)
+        playerStateCache.invalidate(finalClientId);
+        int tokens = playerRepository.resetGameState(finalClientId, null, UUID.randomUUID())
             .orElseGet(() -> {
                 // HA ÚJ: Létrehozzuk alapértékekkel
                 Player newPlayer = Player.builder()
@@ -52,13 +50,13 @@ public class PlayerController {
                     .lastActivity(OffsetDateTime.now())
                     .idempotencyKey(UUID.randomUUID())
                     .build();
-                return playerRepository.save(newPlayer);
+                return playerRepository.save(newPlayer).getTokens();
             });
 
         // 2. Összerakjuk a választ PONTOSAN úgy, ahogy kérted
         InitializationResponse.GameStateInit gameStateData =
             InitializationResponse.GameStateInit.builder()
-                .deckLen(INITIAL_DECK_LENGTH)
+                .deckLen(tableRules.shoeLength())
                 .build();
 
         return ResponseEntity.ok(InitializationResponse.builder()
@@ -66,7 +64,7 @@ public class PlayerController {
             .message("success.")
             .gameState(gameStateData)
             .gameStateHint("Place your bet.")
-            .tokens(player.getTokens()) // A tényleges token az adatbázisból
+            .tokens(tokens) // A tényleges token az adatbázisból
             .build());
     }
 
@@ -82,19 +80,15 @@ public class PlayerController {
         try {
             UUID clientId = UUID.fromString(clientIdStr);
 
-            return playerRepository.findByClientId(clientId)
-                .map(player -> {
-                    // Python: game.restart_game() megfelelője
-                    player.setCurrentGameState(null);
-                    playerRepository.save(player);
-
-                    return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "current_tokens", player.getTokens(),
-                        "game_state", Map.of("status", "BETTING"),
-                        "game_state_hint", "HIT_RESTART"
-                    ));
-                })
+            // Python: game.restart_game() megfelelője, a régi állapot betöltése nélkül
+            playerStateCache.invalidate(clientId);
+            return playerRepository.resetGameState(clientId, null, null)
+                .<ResponseEntity<?>>map(tokens -> ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "current_tokens", tokens,
+                    "game_state", Map.of("status", "BETTING"),
+                    "game_state_hint", "HIT_RESTART"
+                )))
                 .orElse(ResponseEntity.status(404).body(Map.of("error", "Player not found")));
 
         } catch (IllegalArgumentException e) {
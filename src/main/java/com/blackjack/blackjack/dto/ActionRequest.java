@@ -12,4 +12,8 @@ public class ActionRequest {
 
     @JsonProperty("idempotencyKey")
     private UUID idempotencyKey;
+
+    // Az utolsó, a kliens által feldolgozott állapot verziója; ha megegyezik a szerverével, delta válasz jön
+    @JsonProperty("ackVersion")
+    private Long ackVersion;
 }
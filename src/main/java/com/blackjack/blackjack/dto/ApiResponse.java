@@ -1,10 +1,24 @@
 package com.blackjack.blackjack.dto;
 
+import com.blackjack.blackjack.model.RoundPhase;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Builder;
 
+/**
+ * version: a mentett állapot verziója, ezt nyugtázza a kliens a következő kérésben (ackVersion).
+ * Delta válasznál a game_state helyett a game_state_delta (merge patch) érkezik a base_version nézetéhez képest.
+ * round_phase / allowed_actions: a kör fázisa és az engedélyezett akciók bitmaszkja (PlayerAction sorszámai),
+ * a kliens ez alapján tiltja a gombokat.
+ */
 @Builder(toBuilder = true)
 public record ApiResponse<T>(String status, @JsonProperty("game_state") T gameState,
                              @JsonProperty("game_state_hint") String gameStateHint,
-                             @JsonProperty("current_tokens") int currentTokens) {
+                             @JsonProperty("current_tokens") int currentTokens,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) Long version,
+                             @JsonProperty("base_version") @JsonInclude(JsonInclude.Include.NON_NULL) Long baseVersion,
+                             @JsonProperty("game_state_delta") @JsonInclude(JsonInclude.Include.NON_NULL) JsonNode gameStateDelta,
+                             @JsonProperty("round_phase") @JsonInclude(JsonInclude.Include.NON_NULL) RoundPhase roundPhase,
+                             @JsonProperty("allowed_actions") @JsonInclude(JsonInclude.Include.NON_NULL) Integer allowedActions) {
 }
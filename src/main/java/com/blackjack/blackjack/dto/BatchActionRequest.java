@@ -0,0 +1,18 @@
+package com.blackjack.blackjack.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+/**
+ * Kötegelt akciók: a végpontnevek sorrendben (pl. ["split_request", "split_hit", "add_to_players_list_by_stand"]),
+ * egyetlen idempotencia kulccsal.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BatchActionRequest extends ActionRequest {
+    @JsonProperty("actions")
+    private List<String> actions;
+}
@@ -0,0 +1,65 @@
+package com.blackjack.blackjack.dto;
+
+import com.blackjack.blackjack.dto.bet.GameStateBet;
+import com.blackjack.blackjack.dto.others.*;
+import com.blackjack.blackjack.model.GameState;
+
+import java.util.function.Function;
+
+/**
+ * A végpontok válasz DTO-i (a kliens által látott nézetek). A nézet nevét a GameState is eltárolja,
+ * így a következő akciónál ugyanaz a nézet újraépíthető a kliens által nyugtázott verzióból (delta alap).
+ */
+public enum GameStateView {
+    BET(s -> GameStateBet.builder().bet(s.getBet()).betList(s.getBetList()).deckLen(s.getDeckLen()).build()),
+
+    START(s -> GameStateStart.builder().player(s.getPlayer()).dealerMasked(s.getDealerMasked()).bet(s.getBet()).deckLen(s.getDeckLen()).isRoundActive(s.isRoundActive()).build()),
+
+    REWARDS(s -> GameStateRewards.builder().player(s.getPlayer()).dealerUnmasked(s.getDealerUnmasked()).deckLen(s.getDeckLen()).bet(s.getBet()).winner(s.getWinner()).isRoundActive(s.isRoundActive()).build()),
+
+    DOUBLE(s -> GameStateDouble.builder().player(s.getPlayer()).deckLen(s.getDeckLen()).isRoundActive(s.isRoundActive()).build()),
+
+    INSURANCE(s -> GameStateInsurance.builder().player(s.getPlayer()).natural21(s.getNatural21()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).dealerMasked(s.getDealerMasked()).dealerUnmasked(s.getDealerUnmasked()).build()),
+
+    SPLIT_HAND(s -> GameStateSplitHand.builder().player(s.getPlayer()).dealerHandMasked(s.getDealerMasked()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).build()),
+
+    ADD_TO_PLAYERS(s -> GameStateAddToPlayersByStand.builder().player(s.getPlayer()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).dealerMasked(s.getDealerMasked()).dealerUnmasked(s.getDealerUnmasked()).build()),
+
+    ADD_PLAYER_FROM_PLAYERS(s -> GameStateAddPlayerFromPlayers.builder().player(s.getPlayer()).dealerUnmasked(s.getDealerUnmasked()).aces(s.isAces()).players(s.getPlayers()).splitReq(s.getSplitReq()).deckLen(s.getDeckLen()).bet(s.getBet()).isRoundActive(s.isRoundActive()).build()),
+
+    SPLIT_REWARDS(s -> GameStateSplitStandAndRewards.builder()
+        .player(s.getPlayer())
+        .dealerUnmasked(s.getDealerUnmasked())
+        .players(s.getPlayers())
+        .winner(s.getWinner())
+        .splitReq(s.getSplitReq())
+        .deckLen(s.getDeckLen())
+        .bet(s.getBet())
+        .isRoundActive(s.isRoundActive())
+        .build());
+
+    private final Function<GameState, ?> builder;
+
+    GameStateView(Function<GameState, ?> builder) {
+        this.builder = builder;
+    }
+
+    public Object build(GameState state) {
+        return builder.apply(state);
+    }
+
+    /**
+     * A GameState-ben tárolt nézetnév feloldása; ismeretlen vagy hiányzó név esetén null.
+     */
+    public static GameStateView fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (GameStateView view : values()) {
+            if (view.name().equals(name)) {
+                return view;
+            }
+        }
+        return null;
+    }
+}
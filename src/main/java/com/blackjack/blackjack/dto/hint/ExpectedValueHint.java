@@ -0,0 +1,22 @@
+package com.blackjack.blackjack.dto.hint;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+/**
+ * Várható értékek (EV) az aktív kéz tétjének egységében; a nem elérhető akciók null-ok,
+ * és kimaradnak a JSON-ból. A biztosítás EV-je a biztosítás nélküli játékhoz képesti
+ * különbség, az alaptét egységében.
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExpectedValueHint(
+    Double stand,
+    Double hit,
+    @JsonProperty("double") Double doubleDown,
+    Double split,
+    Double insurance,
+    @JsonProperty("best_action") String bestAction
+) {
+}
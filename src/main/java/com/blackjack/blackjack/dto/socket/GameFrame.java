@@ -0,0 +1,20 @@
+package com.blackjack.blackjack.dto.socket;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * Kompakt WebSocket akció frame, pl. {"a":"hit","k":"...","v":12} vagy {"a":"bet","k":"...","b":50}.
+ * A clientId nem része: a kapcsolathoz kötött.
+ *
+ * @param action         a REST végpont neve (hit, stand_and_rewards, double_request, split_request, ins_request, bet, ...)
+ * @param idempotencyKey ugyanaz a kulcs, mint az ActionRequest-ben
+ * @param ackVersion     delta válaszhoz a kliens által nyugtázott verzió (opcionális)
+ * @param bet            csak bet akciónál
+ */
+public record GameFrame(@JsonProperty("a") String action,
+                        @JsonProperty("k") UUID idempotencyKey,
+                        @JsonProperty("v") Long ackVersion,
+                        @JsonProperty("b") Integer bet) {
+}
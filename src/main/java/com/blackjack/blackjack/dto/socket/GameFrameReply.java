@@ -0,0 +1,13 @@
+package com.blackjack.blackjack.dto.socket;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * Válasz frame: a kérés kulcsa, a HTTP-vel azonos státuszkód és törzs (ApiResponse vagy ErrorResponse).
+ */
+public record GameFrameReply(@JsonProperty("k") UUID idempotencyKey,
+                             @JsonProperty("s") int status,
+                             @JsonProperty("r") Object body) {
+}
@@ -1,7 +1,9 @@
 package com.blackjack.blackjack.exception;
 
 import com.blackjack.blackjack.dto.error.ErrorResponse;
+import com.blackjack.blackjack.metrics.ActionMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,11 +13,18 @@ import org.springframework.web.server.ResponseStatusException;
 @ControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
+    private final ActionMetrics actionMetrics;
+
+    public GlobalExceptionHandler(ActionMetrics actionMetrics) {
+        this.actionMetrics = actionMetrics;
+    }
+
     // 400 Bad Request
     @ExceptionHandler(GameRuleException.class)
     public ResponseEntity<ErrorResponse> handleGameRuleException(GameRuleException ex) {
 
         log.warn("Game Rule Violation: {}", ex.getMessage());
+        actionMetrics.recordRuleViolation(ex.getMessage());
         ErrorResponse errorResponse = new ErrorResponse(
             ex.getMessage()
         );
@@ -44,6 +53,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, ex.getStatusCode());
     }
 
+    // 409 Conflict: JPA mentés (pl. restart) elavult verzióval
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+
+        log.warn("Optimista zárolási ütközés: {}", ex.getMessage());
+        actionMetrics.recordConflict(actionMetrics.currentEndpoint(), true);
+
+        return new ResponseEntity<>(new ErrorResponse("CONCURRENT_MODIFICATION"), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
         //log.error("Elkapott Kivétel Típusa: {}", ex.getClass().getName());
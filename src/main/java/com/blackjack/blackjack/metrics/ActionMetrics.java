@@ -0,0 +1,154 @@
+package com.blackjack.blackjack.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A játékakciók fázisonkénti időmérése (endpoint + fázis címkével) és a
+ * duplikált / szabálysértő kérések, valamint a delta / snapshot válaszok és az ütközések számlálói. Prometheus-on: /actuator/prometheus.
+ */
+@Component
+public class ActionMetrics {
+    public static final String PHASE_TIMER = "blackjack.action.phase";
+    public static final String DUPLICATE_COUNTER = "blackjack.action.duplicates";
+    public static final String RULE_VIOLATION_COUNTER = "blackjack.rule.violations";
+    public static final String RESPONSE_MODE_COUNTER = "blackjack.action.responses";
+    public static final String CONFLICT_COUNTER = "blackjack.action.conflicts";
+
+    private static final String UNKNOWN_ENDPOINT = "unknown";
+
+    // Nem HTTP-ből érkező akciók (WebSocket frame) endpoint címkéje az aktuális szálon
+    private static final ThreadLocal<String> ENDPOINT_OVERRIDE = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    // endpoint -> fázisonkénti timerek (Phase.ordinal() szerint), hogy ne kelljen minden hívásnál Id-t építeni
+    private final Map<String, Timer[]> phaseTimers = new ConcurrentHashMap<>();
+
+    public ActionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public enum Phase {
+        LOAD("load"),
+        DUPLICATE_CHECK("duplicate_check"),
+        ENGINE("engine"),
+        PERSIST("persist"),
+        RESPONSE_BUILD("response_build");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    /**
+     * Rögzíti a fázis idejét a startNanos óta, és visszaadja az aktuális időt
+     * (a következő fázis kezdőpontját).
+     */
+    public long record(String endpoint, Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        timersFor(endpoint)[phase.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void recordDuplicate(String endpoint) {
+        Counter.builder(DUPLICATE_COUNTER)
+            .tag("endpoint", endpoint)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Delta vagy teljes snapshot válasz ment ki (mode: delta / snapshot).
+     */
+    public void recordResponseMode(String endpoint, boolean delta) {
+        Counter.builder(RESPONSE_MODE_COUNTER)
+            .tag("endpoint", endpoint)
+            .tag("mode", delta ? "delta" : "snapshot")
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Optimista zárolási ütközés (outcome: retried / exhausted). Ütközési arány: ez / http.server.requests.
+     */
+    public void recordConflict(String endpoint, boolean exhausted) {
+        Counter.builder(CONFLICT_COUNTER)
+            .tag("endpoint", endpoint)
+            .tag("outcome", exhausted ? "exhausted" : "retried")
+            .register(registry)
+            .increment();
+    }
+
+    public void recordRuleViolation(String errorCode) {
+        Counter.builder(RULE_VIOLATION_COUNTER)
+            .tag("error_code", errorCode != null ? errorCode : "UNKNOWN")
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Az aktuális HTTP kérés mapping mintája (pl. "/api/hit"), ugyanaz, mint a http.server.requests "uri" címkéje;
+     * WebSocket akciónál a withEndpoint-tal beállított érték.
+     */
+    public String currentEndpoint() {
+        String override = ENDPOINT_OVERRIDE.get();
+        if (override != null) {
+            return override;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return UNKNOWN_ENDPOINT;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : UNKNOWN_ENDPOINT;
+    }
+
+    /**
+     * A body idejére az endpoint címke a megadott érték (pl. "/ws/hit"), HTTP kérés nélkül is.
+     */
+    public <T> T withEndpoint(String endpoint, Supplier<T> body) {
+        String previous = ENDPOINT_OVERRIDE.get();
+        ENDPOINT_OVERRIDE.set(endpoint);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                ENDPOINT_OVERRIDE.set(previous);
+            } else {
+                ENDPOINT_OVERRIDE.remove();
+            }
+        }
+    }
+
+    private Timer[] timersFor(String endpoint) {
+        return phaseTimers.computeIfAbsent(endpoint, e -> {
+            Phase[] phases = Phase.values();
+            Timer[] timers = new Timer[phases.length];
+            for (Phase phase : phases) {
+                timers[phase.ordinal()] = Timer.builder(PHASE_TIMER)
+                    .tag("endpoint", e)
+                    .tag("phase", phase.getTag())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            }
+            return timers;
+        });
+    }
+}
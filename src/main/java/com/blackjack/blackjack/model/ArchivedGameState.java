@@ -0,0 +1,48 @@
+package com.blackjack.blackjack.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Egy régóta inaktív játékos félretett játékállapota (jsonb) és cipője, a players táblán kívül.
+ * A sorokat a GameStateArchiver írja, és a játékos következő kérésekor a PlayerService visszatölti (majd törli).
+ */
+@Entity
+@Table(name = "archived_game_states", indexes = {
+    @Index(name = "idx_archived_game_states_archived_at", columnList = "archived_at")
+})
+@Getter
+@Builder
+@NoArgsConstructor // JPA miatt
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ArchivedGameState {
+    @Id
+    @Column(name = "client_id", nullable = false)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID clientId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "game_state", nullable = false, columnDefinition = "jsonb")
+    private String gameState;
+
+    // A shoes sor másolata (ha volt)
+    @Column(name = "shoe_id")
+    private Long shoeId;
+
+    @Column(name = "decks")
+    private Short decks;
+
+    @Column(name = "position")
+    private Short position;
+
+    @Column(name = "reserve")
+    private Short reserve;
+
+    @Column(name = "archived_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private OffsetDateTime archivedAt;
+}
@@ -4,10 +4,26 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public record Card(Suit suit, Rank rank) implements Serializable {
     private static final Suit MASKED_SUIT = Suit.fromSymbol(" ");
     private static final Rank MASKED_RANK = Rank.fromSymbol("✪");
+    private static final int RANK_COUNT = Rank.values().length;
+
+    /**
+     * Minden (szín, érték) párhoz egyetlen megosztott példány, a code() szerint indexelve.
+     * A PackedHand ebből a táblából állítja vissza a lapokat, a JSON beolvasás pedig
+     * a string alakból keres benne, így egyik sem allokál új Card-ot.
+     */
+    private static final Card[] BY_CODE = Arrays.stream(Suit.values())
+        .flatMap(suit -> Arrays.stream(Rank.values()).map(rank -> new Card(suit, rank)))
+        .toArray(Card[]::new);
+    private static final Map<String, Card> BY_STRING = Arrays.stream(BY_CODE)
+        .collect(Collectors.toUnmodifiableMap(Card::toString, Function.identity()));
 
     /**
      * @JsonCreator: Statikus gyári metódus, ami Jacksonnak megmondja,
@@ -15,6 +31,11 @@ public record Card(Suit suit, Rank rank) implements Serializable {
      */
     @JsonCreator
     public static Card of(String cardString) {
+        Card cached = (cardString == null) ? null : BY_STRING.get(cardString);
+        if (cached != null) {
+            return cached;
+        }
+
         if (cardString == null || cardString.length() < 2) {
             throw new IllegalArgumentException("Invalid card string format: " + cardString);
         }
@@ -30,7 +51,18 @@ public record Card(Suit suit, Rank rank) implements Serializable {
     }
 
     public static Card createMaskedCard() {
-        return new Card(MASKED_SUIT, MASKED_RANK);
+        return ofCode(MASKED_SUIT.ordinal() * RANK_COUNT + MASKED_RANK.ordinal());
+    }
+
+    /**
+     * A lap tömör, egy bájtba férő kódja (szín és érték sorszámából).
+     */
+    public int code() {
+        return suit.ordinal() * RANK_COUNT + rank.ordinal();
+    }
+
+    public static Card ofCode(int code) {
+        return BY_CODE[code];
     }
 
     public int getBaseValue() {
@@ -18,7 +18,7 @@ public record DealerHandUnmasked(
 ) implements Hand, Serializable {
 
     public DealerHandUnmasked {
-        hand = (hand == null) ? List.of() : List.copyOf(hand);
+        hand = PackedHand.copyOf(hand);
     }
 
     public static DealerHandUnmasked createEmptyHand() {
@@ -1,63 +1,187 @@
 package com.blackjack.blackjack.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.extern.jackson.Jacksonized;
 
 import java.io.Serializable;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
+import static com.blackjack.blackjack.common.GameConstants.CARDS_IN_DECK;
 import static com.blackjack.blackjack.common.GameConstants.NUM_DECKS;
 
+/**
+ * Immutable cipő (shoe): a teljes, megkevert lapsor egyetlen megosztott,
+ * módosíthatatlan listában él, a már kiosztott lapokat pedig a position kurzor jelzi.
+ * Laposztáskor csak a kurzor lép tovább, a lapok nem másolódnak.
+ * <p>
+ * Az új cipők egy seed-ből determinisztikusan keverődnek, ezért mentéskor elég a seed,
+ * a paklik száma és a pozíció: betöltéskor a lapsor ugyanabban a sorrendben újraépül.
+ * Seed nélküli (explicit lapokkal felépített, illetve régi formátumú) pakliknál
+ * továbbra is a maradék lapok kerülnek a JSON-ba.
+ * <p>
+ * A vágókártya (cut card) a reserve: ennyi lap marad a vágókártya mögött. Ha a cipő elérte
+ * (isPastCut), a következő kör elején új cipő jön; kör közben tovább osztunk belőle.
+ */
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder(toBuilder = true)
 @Jacksonized
-public record Deck(List<Card> deck) implements Serializable {
+public record Deck(Long seed, int decks, List<Card> deck, int position, int reserve) implements Serializable {
+    private static final SecureRandom SEED_SOURCE = new SecureRandom();
+    private static final List<Card> SINGLE_DECK = createSingleDeck();
+
+    public Deck {
+        if (seed != null) {
+            decks = (decks > 0) ? decks : NUM_DECKS;
+            if (deck == null) {
+                // Betöltés seed-ből: ugyanaz a keverés, mint létrehozáskor
+                deck = createShuffledDeckList(seed, decks);
+            }
+        }
+
+        // List.copyOf nem másol, ha a lista már immutable (pl. egy korábbi Deck-ből érkezik)
+        deck = (deck == null) ? List.of() : List.copyOf(deck);
+
+        if (position < 0 || position > deck.size()) {
+            throw new IllegalArgumentException("Invalid deck position: " + position);
+        }
+        reserve = Math.clamp(reserve, 0, deck.size());
+    }
+
+    public Deck(List<Card> deck) {
+        this(null, 0, deck, 0, 0);
+    }
 
     public static Deck createNewDeck() {
+        return createNewDeck(newSeed());
+    }
+
+    /**
+     * Determinisztikus cipő: azonos seed mindig azonos lapsorrendet ad (visszajátszáshoz is).
+     */
+    public static Deck createNewDeck(long seed) {
+        return createNewDeck(seed, NUM_DECKS);
+    }
+
+    /**
+     * Determinisztikus cipő a szabályprofil paklijainak számával.
+     */
+    public static Deck createNewDeck(long seed, int decks) {
         return Deck.builder()
-            .deck(createShuffledDeckList())
+            .seed(seed)
+            .decks(decks)
             .build();
     }
 
-    private static List<Card> createShuffledDeckList() {
-        List<Card> singleDeck = Arrays.stream(Suit.values())
+    public static long newSeed() {
+        return SEED_SOURCE.nextLong();
+    }
+
+    /**
+     * A vágókártya elhelyezése: a penetration a cipő kiosztható hányada (pl. 0.75), a maradék a tartalék.
+     */
+    public Deck withPenetration(double penetration) {
+        int total = deck.size();
+        int dealable = (int) Math.round(total * Math.clamp(penetration, 0.0, 1.0));
+        return new Deck(seed, decks, deck, position, total - dealable);
+    }
+
+    private static List<Card> createSingleDeck() {
+        return Arrays.stream(Suit.values())
             .filter(suit -> suit != Suit.MASKED_SUIT)
             .flatMap(suit -> Arrays.stream(Rank.values())
                 .filter(rank -> rank != Rank.MASKED_RANK)
                 .map(rank -> new Card(suit, rank)))
             .toList();
+    }
 
-        List<Card> fullDeck = new ArrayList<>();
+    private static List<Card> createShuffledDeckList(long seed, int decks) {
+        List<Card> fullDeck = new ArrayList<>(decks * CARDS_IN_DECK);
 
-        for (int i = 0; i < NUM_DECKS; i++) {
-            fullDeck.addAll(singleDeck);
+        for (int i = 0; i < decks; i++) {
+            fullDeck.addAll(SINGLE_DECK);
         }
 
-        Collections.shuffle(fullDeck);
-        return Collections.unmodifiableList(fullDeck);
+        Collections.shuffle(fullDeck, new SplittableRandom(seed));
+        return List.copyOf(fullDeck);
+    }
+
+    /**
+     * A még ki nem osztott lapok (másolás nélküli nézet a megosztott listára).
+     */
+    @Override
+    @JsonIgnore
+    public List<Card> deck() {
+        return deck.subList(position, deck.size());
+    }
+
+    /**
+     * Csak seed nélküli paklinál mentjük a lapokat, seed esetén a seed + position elég.
+     */
+    @JsonProperty("deck")
+    private List<Card> persistedCards() {
+        return (seed == null) ? deck() : null;
+    }
+
+    @Override
+    @JsonIgnore
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Seed nélküli paklinál a mentett lista már csak a maradékot tartalmazza, így ott a pozíció 0.
+     */
+    @JsonProperty("position")
+    private int persistedPosition() {
+        return (seed == null) ? 0 : position;
     }
 
     public DealResult dealCard() {
-        if (deck == null || deck.isEmpty()) {
+        if (position >= deck.size()) {
             throw new IllegalStateException("Deck is empty. Cannot deal card.");
         }
 
-        Card dealtCard = this.deck.getFirst();
+        Card dealtCard = deck.get(position);
 
-        List<Card> remainingCards = new ArrayList<>(this.deck.subList(1, this.deck.size()));
-
-        Deck newDeck = this.toBuilder()
-            .deck(Collections.unmodifiableList(remainingCards)) // Új Listát állítunk be
-            .build();
+        // Ugyanaz a lista, csak a kurzor lép egyet
+        Deck newDeck = new Deck(seed, decks, deck, position + 1, reserve);
 
         return new DealResult(dealtCard, newDeck);
     }
 
+    @JsonIgnore
     public int getDeckLength() {
-        return this.deck != null ? this.deck.size() : 0;
+        return deck.size() - position;
+    }
+
+    /**
+     * A vágókártya kijött (vagy a cipő kifogyott): a következő kör előtt új cipő kell.
+     * Vágókártya nélküli (reserve = 0) cipőnél csak az üres cipő számít.
+     */
+    @JsonIgnore
+    public boolean isPastCut() {
+        return getDeckLength() <= reserve;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Deck other)) return false;
+        return deck().equals(other.deck());
+    }
+
+    @Override
+    public int hashCode() {
+        return deck().hashCode();
     }
 }
@@ -1,5 +1,6 @@
 package com.blackjack.blackjack.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -49,16 +50,37 @@ public class GameState implements Serializable {
     int natural21;
     int winner;
 
-    @Builder.Default
-    Map<String, PlayerHand> players = Map.of();
+    // A split kezek (players + playersIndex) egy rendezett tárban; a JSON-ban továbbra is a két map szerepel
+    @JsonIgnore
+    SplitHands hands;
 
     @JsonProperty("split_req")
     int splitReq;
     int handCounter;
     boolean wasSplitInRound;
 
-    @Builder.Default
-    Map<String, Boolean> playersIndex = Map.of();
+    // --- Kör állapotgép ---
+    // A fázis és az engedélyezett akciók bitmaszkja (PlayerAction bitjei) átmenetenként egyszer számolódik;
+    // 0: még nem számolt (régebben mentett állapot), ilyenkor a RoundStateMachine az állapotból származtatja
+    RoundPhase roundPhase;
+    int allowedActions;
+
+    // --- Verziókezelés (delta válaszokhoz) ---
+    // Minden mentett akcióval eggyel nő; a view az utoljára kiküldött válasz nézete (GameStateView neve)
+    long version;
+    String view;
+
+    public SplitHands getHands() {
+        return this.hands != null ? this.hands : SplitHands.EMPTY;
+    }
+
+    public Map<String, PlayerHand> getPlayers() {
+        return getHands().players();
+    }
+
+    public Map<String, Boolean> getPlayersIndex() {
+        return getHands().playersIndex();
+    }
 
     public int getDeckLen() {
         return this.deck != null ? this.deck.getDeckLength() : 0;
@@ -71,4 +93,26 @@ public class GameState implements Serializable {
     public int calculateNewSplitReq(int count) {
         return this.splitReq + count;
     }
+
+    public static class GameStateBuilder {
+        /**
+         * A várakozó kezek cseréje (a JSON "players" mezője); az index marad.
+         */
+        public GameStateBuilder players(Map<String, PlayerHand> players) {
+            this.hands = currentHands().withPlayers(players);
+            return this;
+        }
+
+        /**
+         * Az index cseréje (a JSON "playersIndex" mezője); a várakozó kezek maradnak.
+         */
+        public GameStateBuilder playersIndex(Map<String, Boolean> playersIndex) {
+            this.hands = currentHands().withPlayersIndex(playersIndex);
+            return this;
+        }
+
+        private SplitHands currentHands() {
+            return this.hands != null ? this.hands : SplitHands.EMPTY;
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.blackjack.blackjack.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Egy feldolgozott kérés elmentett válasza (pontos bájtok), az idempotens visszajátszáshoz.
+ * A TTL-en túli sorokat az IdempotencyResponseStore takarítja.
+ */
+@Entity
+@Table(name = "idempotency_responses", indexes = {
+    @Index(name = "idx_idempotency_responses_created_at", columnList = "created_at")
+})
+@Getter
+@Builder
+@NoArgsConstructor // JPA miatt
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", nullable = false)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID idempotencyKey;
+
+    @Column(name = "client_id", nullable = false)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID clientId;
+
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    @Column(name = "body", nullable = false, columnDefinition = "bytea")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,158 @@
+package com.blackjack.blackjack.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Tömör, immutable kéz: a lapok egy bájttömbben, Card.code() alakban tárolódnak,
+ * mellettük a kemény összeg (ász = 1) és az ászok száma, amelyeket lapfelvételkor
+ * inkrementálisan frissítünk. Így a kéz értéke és a split lehetősége újraszámolás
+ * nélkül kiolvasható.
+ * <p>
+ * Kifelé sima List&lt;Card&gt;, ezért a JSON formátum (["♥A", "♠10"]) nem változik.
+ */
+public final class PackedHand extends AbstractList<Card> implements RandomAccess, Serializable {
+    private static final PackedHand EMPTY = new PackedHand(new byte[0], 0, 0);
+
+    private final byte[] codes;
+    private final int hardTotal;
+    private final int aceCount;
+
+    private PackedHand(byte[] codes, int hardTotal, int aceCount) {
+        this.codes = codes;
+        this.hardTotal = hardTotal;
+        this.aceCount = aceCount;
+    }
+
+    public static PackedHand empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Nem másol, ha a lista már PackedHand (pl. egy korábbi kézből érkezik).
+     */
+    public static PackedHand copyOf(List<Card> cards) {
+        if (cards instanceof PackedHand packed) {
+            return packed;
+        }
+        if (cards == null || cards.isEmpty()) {
+            return EMPTY;
+        }
+
+        byte[] codes = new byte[cards.size()];
+        int hardTotal = 0;
+        int aceCount = 0;
+
+        for (int i = 0; i < codes.length; i++) {
+            Card card = cards.get(i);
+            codes[i] = (byte) card.code();
+            hardTotal += hardValue(card.rank());
+            if (card.rank() == Rank.ACE) {
+                aceCount++;
+            }
+        }
+
+        return new PackedHand(codes, hardTotal, aceCount);
+    }
+
+    public static PackedHand of(Card... cards) {
+        return copyOf(Arrays.asList(cards));
+    }
+
+    /**
+     * Új kéz a lappal kiegészítve; az összeg és az ászok száma inkrementálisan frissül.
+     */
+    public PackedHand with(Card card) {
+        byte[] newCodes = Arrays.copyOf(codes, codes.length + 1);
+        newCodes[codes.length] = (byte) card.code();
+
+        return new PackedHand(
+            newCodes,
+            hardTotal + hardValue(card.rank()),
+            aceCount + (card.rank() == Rank.ACE ? 1 : 0)
+        );
+    }
+
+    /**
+     * Új kéz count lappal kiegészítve, egyetlen tömbmásolással. A lapok kódjai egy long-ba
+     * csomagolva érkeznek (legalsó bájt az első lap, legfeljebb 8 lap), így a hívó húzás
+     * közben puffer tömb nélkül gyűjtheti őket (pl. az osztó egy menetben húzott lapjai).
+     */
+    public PackedHand withPackedCodes(long packedCodes, int count) {
+        if (count == 0) {
+            return this;
+        }
+
+        byte[] newCodes = Arrays.copyOf(codes, codes.length + count);
+        int newHardTotal = hardTotal;
+        int newAceCount = aceCount;
+
+        for (int i = 0; i < count; i++) {
+            int code = (int) ((packedCodes >>> (Byte.SIZE * i)) & 0xFF);
+            Rank rank = Card.ofCode(code).rank();
+            newCodes[codes.length + i] = (byte) code;
+            newHardTotal += hardValue(rank);
+            if (rank == Rank.ACE) {
+                newAceCount++;
+            }
+        }
+
+        return new PackedHand(newCodes, newHardTotal, newAceCount);
+    }
+
+    /**
+     * Legjobb érték: egy ász 11-et ér, ha ezzel nem lépjük túl a 21-et.
+     */
+    public int bestTotal() {
+        return isSoft() ? hardTotal + 10 : hardTotal;
+    }
+
+    public int hardTotal() {
+        return hardTotal;
+    }
+
+    public int aceCount() {
+        return aceCount;
+    }
+
+    /**
+     * Soft kéz: van benne 11-nek számolt ász.
+     */
+    public boolean isSoft() {
+        return aceCount > 0 && hardTotal + 10 <= 21;
+    }
+
+    /**
+     * Két azonos értékű (vagy két 10-es értékű) lap.
+     */
+    public boolean isSplittablePair() {
+        if (codes.length != 2) {
+            return false;
+        }
+
+        Rank rank1 = get(0).rank();
+        Rank rank2 = get(1).rank();
+
+        return rank1 == rank2 || (rank1.getBaseValue() == 10 && rank2.getBaseValue() == 10);
+    }
+
+    @Override
+    public Card get(int index) {
+        return Card.ofCode(codes[index]);
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Kemény érték (ász = 1).
+     */
+    public static int hardValue(Rank rank) {
+        return (rank == Rank.ACE) ? 1 : rank.getBaseValue();
+    }
+}
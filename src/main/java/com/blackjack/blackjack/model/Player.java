@@ -1,9 +1,14 @@
 package com.blackjack.blackjack.model;
 
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -12,9 +17,13 @@ import org.hibernate.type.SqlTypes;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Entity
-@Table(name = "players")
+@Table(name = "players", indexes = {
+    // Az archiváló (GameStateArchiver) a legrégebben inaktív sorokat keresi
+    @Index(name = "idx_players_last_activity", columnList = "last_activity")
+})
 @Getter
 @Setter
 @Builder(toBuilder = true)
@@ -34,10 +43,17 @@ public class Player {
     @Column(name = "tokens", nullable = false)
     private int tokens;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "current_game_state", columnDefinition = "jsonb")
+    // A leképezés a getteren van (property access), így a Hibernate mentéskor is a getteren át olvas,
+    // és a még be nem töltött (lusta) állapot sem íródhat felül null-lal
+    @Transient
     private GameState currentGameState;
 
+    // A nyers jsonb-ből az első getCurrentGameState() híváskor állítja elő az állapotot (findLazyByClientId)
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Supplier<GameState> gameStateLoader;
+
     @UpdateTimestamp
     @Column(name = "last_activity", columnDefinition = "TIMESTAMP WITH TIME ZONE")
     private OffsetDateTime lastActivity;
@@ -45,4 +61,46 @@ public class Player {
     @Column(name = "idempotency_key", unique = true, nullable = false)
     @JdbcTypeCode(SqlTypes.UUID)
     private UUID idempotencyKey;
+
+    // A játékállapot az archived_game_states táblában van (GameStateArchiver), a következő kérés visszatölti
+    @Column(name = "archived", nullable = false, columnDefinition = "boolean default false")
+    private boolean archived;
+
+    // Optimista zárolás: minden mentés (JPA és natív applyAction) eggyel növeli
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    @Access(AccessType.PROPERTY)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "current_game_state", columnDefinition = "jsonb")
+    public GameState getCurrentGameState() {
+        Supplier<GameState> loader = gameStateLoader;
+        if (loader != null) {
+            currentGameState = loader.get();
+            gameStateLoader = null;
+        }
+        return currentGameState;
+    }
+
+    public void setCurrentGameState(GameState currentGameState) {
+        this.currentGameState = currentGameState;
+        this.gameStateLoader = null;
+    }
+
+    /**
+     * Be van-e már töltve a játékállapot (false: a jsonb még nincs deszerializálva).
+     */
+    public boolean isGameStateLoaded() {
+        return gameStateLoader == null;
+    }
+
+    public static class PlayerBuilder {
+        // Az explicit állapot felülírja a lusta betöltést (pl. toBuilder().currentGameState(null))
+        public PlayerBuilder currentGameState(GameState currentGameState) {
+            this.currentGameState = currentGameState;
+            this.gameStateLoader = null;
+            return this;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.blackjack.blackjack.model;
+
+/**
+ * A kliens akciói (végpontjai) az engedélyezett akciók bitmaszkjában.
+ * <p>
+ * A bit az enum sorszáma (1 &lt;&lt; ordinal), a kliens ez alapján tiltja a gombokat: új akció csak
+ * a lista végére kerülhet, a meglévők sorrendje nem változhat.
+ */
+public enum PlayerAction {
+    CREATE_DECK("create_deck"),
+    BET("bet"),
+    RETAKE_BET("retake_bet"),
+    START_GAME("start_game"),
+    HIT("hit"),
+    STAND("stand_and_rewards"),
+    DOUBLE("double_request"),
+    INSURANCE("ins_request"),
+    REWARDS("rewards"),
+    SPLIT("split_request"),
+    STASH_SPLIT_HAND("add_to_players_list_by_stand"),
+    NEXT_SPLIT_HAND("add_split_player_to_game"),
+    COLLECT_SPLIT_HANDS("add_player_from_players"),
+    SPLIT_HIT("split_hit"),
+    SPLIT_STAND("split_stand_and_rewards"),
+    SPLIT_DOUBLE("split_double_request");
+
+    private final String endpoint;
+    private final int bit;
+
+    PlayerAction(String endpoint) {
+        this.endpoint = endpoint;
+        this.bit = 1 << ordinal();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    public boolean isAllowed(int allowedActions) {
+        return (allowedActions & bit) != 0;
+    }
+}
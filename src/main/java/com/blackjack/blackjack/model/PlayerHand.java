@@ -14,7 +14,7 @@ public record PlayerHand(String id, List<Card> hand, boolean canSplit, boolean s
                          int bet, int sum,
                          int handState) implements Hand, Serializable {
     public PlayerHand {
-        hand = (hand == null) ? List.of() : List.copyOf(hand);
+        hand = PackedHand.copyOf(hand);
     }
 
     public static PlayerHand createEmptyHand() {
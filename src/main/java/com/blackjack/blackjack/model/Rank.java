@@ -1,6 +1,9 @@
 package com.blackjack.blackjack.model;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum Rank {
     KING(10, "K"),
@@ -21,6 +24,9 @@ public enum Rank {
     TWO(2, "2"),
     MASKED_RANK(0, "✪");
 
+    private static final Map<String, Rank> BY_SYMBOL = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(Rank::getSymbol, Function.identity()));
+
     private final int baseValue;
     private final String symbol;
 
@@ -29,11 +35,12 @@ public enum Rank {
         this.symbol = symbol;
     }
 
-    public static Rank fromSymbol(String symbol) { // <<< Ezt kell hozzáadni
-        return Arrays.stream(Rank.values())
-            .filter(rank -> rank.getSymbol().equals(symbol))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Invalid rank symbol: " + symbol));
+    public static Rank fromSymbol(String symbol) {
+        Rank rank = BY_SYMBOL.get(symbol);
+        if (rank == null) {
+            throw new IllegalArgumentException("Invalid rank symbol: " + symbol);
+        }
+        return rank;
     }
 
     public int getBaseValue() {
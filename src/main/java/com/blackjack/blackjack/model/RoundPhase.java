@@ -0,0 +1,13 @@
+package com.blackjack.blackjack.model;
+
+/**
+ * A kör fázisa a kliens szemszögéből (a RoundStateMachine számolja átmenetenként).
+ */
+public enum RoundPhase {
+    // Nincs aktív kör: tét, új pakli, új kör indítása
+    BETTING,
+    // Aktív kör, egyetlen kézzel
+    PLAYER_TURN,
+    // Aktív kör split után: a split végpontok dolgoznak
+    SPLIT_TURN
+}
@@ -0,0 +1,40 @@
+package com.blackjack.blackjack.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+/**
+ * A játékos aktuális cipője, a players sortól külön: seed (shoe_id), paklik száma, kurzor és vágókártya.
+ * Csak akkor íródik, ha lapot osztottunk vagy új cipő készült, így a lapot nem osztó akciók
+ * (bet, retake_bet, add_to_players_list_by_stand) nem írják újra. A GameState jsonb ilyenkor
+ * nem tartalmazza a paklit; betöltéskor innen épül vissza (PlayerActionRepository).
+ */
+@Entity
+@Table(name = "shoes")
+@Getter
+@Builder
+@NoArgsConstructor // JPA miatt
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Shoe {
+    @Id
+    @Column(name = "client_id", nullable = false)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID clientId;
+
+    @Column(name = "shoe_id", nullable = false)
+    private long shoeId;
+
+    @Column(name = "decks", nullable = false)
+    private short decks;
+
+    @Column(name = "position", nullable = false)
+    private short position;
+
+    // A vágókártya mögötti lapok száma (Deck.reserve)
+    @Column(name = "reserve", nullable = false, columnDefinition = "smallint default 0")
+    private short reserve;
+}
@@ -0,0 +1,373 @@
+package com.blackjack.blackjack.model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A split kezek tömör, rendezett tára: slotonként a kéz azonosítója, a várakozó kéz (ha van)
+ * és az, hogy a kezet már lezárták-e (stand). A slotok az azonosító szerint rendezettek, ami a
+ * P-%03d azonosítóknál a split sorrendje; a jelzők egy-egy int bitmaszkban vannak, így a
+ * következő aktív kéz egy numberOfTrailingZeros, a frissítés pedig egy néhány elemű tömbmásolat,
+ * amely a kezeket (PlayerHand) nem másolja, csak a referenciákat.
+ * <p>
+ * Kifelé két Map nézetet ad (players, playersIndex), ezért a kliensnek küldött és a mentett JSON
+ * alakja nem változik.
+ */
+public final class SplitHands implements Serializable {
+    public static final SplitHands EMPTY = new SplitHands(new String[0], new PlayerHand[0], 0, 0);
+
+    private final String[] ids;
+    // A várakozó kéz (players), vagy null, ha a slot csak az indexben szerepel (pl. az éppen aktív kéz)
+    private final PlayerHand[] hands;
+    // playersIndex: a benne szereplő slotok, és közülük a lezártak (true)
+    private final int indexed;
+    private final int stated;
+    // Származtatott maszkok a gyakori kérdésekhez
+    private final int waiting;
+    private final int unstatedWaiting;
+
+    private transient Map<String, PlayerHand> playersView;
+    private transient Map<String, Boolean> indexView;
+
+    private SplitHands(String[] ids, PlayerHand[] hands, int indexed, int stated) {
+        this.ids = ids;
+        this.hands = hands;
+        this.indexed = indexed;
+        this.stated = stated;
+
+        int waitingMask = 0;
+        int unstatedMask = 0;
+        for (int slot = 0; slot < hands.length; slot++) {
+            if (hands[slot] != null) {
+                waitingMask |= 1 << slot;
+                if (!hands[slot].stated()) {
+                    unstatedMask |= 1 << slot;
+                }
+            }
+        }
+        this.waiting = waitingMask;
+        this.unstatedWaiting = unstatedMask;
+    }
+
+    /**
+     * Felépítés a két Map alakból (JSON betöltés, tesztek); a null map üresnek számít.
+     */
+    public static SplitHands of(Map<String, PlayerHand> players, Map<String, Boolean> playersIndex) {
+        return EMPTY.withPlayers(players).withPlayersIndex(playersIndex);
+    }
+
+    /**
+     * A várakozó kezek cseréje; az index változatlan marad.
+     */
+    public SplitHands withPlayers(Map<String, PlayerHand> players) {
+        SplitHands result = this;
+        for (int slot = ids.length - 1; slot >= 0; slot--) {
+            if (hands[slot] != null) {
+                result = result.remove(ids[slot]);
+            }
+        }
+        if (players != null) {
+            for (Map.Entry<String, PlayerHand> entry : players.entrySet()) {
+                if (entry.getValue() != null) {
+                    result = result.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Az index cseréje; a várakozó kezek változatlanok maradnak.
+     */
+    public SplitHands withPlayersIndex(Map<String, Boolean> playersIndex) {
+        SplitHands result = this;
+        for (int slot = ids.length - 1; slot >= 0; slot--) {
+            if ((indexed & (1 << slot)) != 0) {
+                result = result.unmark(ids[slot]);
+            }
+        }
+        if (playersIndex != null) {
+            for (Map.Entry<String, Boolean> entry : playersIndex.entrySet()) {
+                result = result.mark(entry.getKey(), Boolean.TRUE.equals(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A kéz várakozóként (players) tárolása a saját azonosítója alatt.
+     */
+    public SplitHands put(PlayerHand hand) {
+        return put(hand.id(), hand);
+    }
+
+    /**
+     * A várakozó kéz kivétele; ha az indexben sem szerepel, a slot is megszűnik.
+     */
+    public SplitHands remove(String id) {
+        int slot = slotOf(id);
+        if (slot < 0 || hands[slot] == null) {
+            return this;
+        }
+        if ((indexed & (1 << slot)) == 0) {
+            return withoutSlot(slot);
+        }
+
+        PlayerHand[] newHands = hands.clone();
+        newHands[slot] = null;
+        return new SplitHands(ids, newHands, indexed, stated);
+    }
+
+    /**
+     * Az index bejegyzés beállítása (playersIndex.put(id, stated)).
+     */
+    public SplitHands mark(String id, boolean isStated) {
+        int slot = slotOf(id);
+        SplitHands target = this;
+        if (slot < 0) {
+            slot = -slot - 1;
+            target = withSlot(slot, id);
+        }
+
+        int bit = 1 << slot;
+        int newStated = isStated ? (target.stated | bit) : (target.stated & ~bit);
+        if ((target.indexed & bit) != 0 && newStated == target.stated) {
+            return target;
+        }
+        return new SplitHands(target.ids, target.hands, target.indexed | bit, newStated);
+    }
+
+    /**
+     * A legkisebb azonosítójú, még le nem zárt kéz az indexből.
+     */
+    public Optional<String> nextActiveId() {
+        int open = indexed & ~stated;
+        return open == 0 ? Optional.empty() : Optional.of(ids[Integer.numberOfTrailingZeros(open)]);
+    }
+
+    /**
+     * Van-e még le nem zárt (stated == false) várakozó kéz.
+     */
+    public boolean hasUnstatedWaiting() {
+        return unstatedWaiting != 0;
+    }
+
+    public boolean hasWaiting() {
+        return waiting != 0;
+    }
+
+    public int waitingCount() {
+        return Integer.bitCount(waiting);
+    }
+
+    public PlayerHand waiting(String id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : hands[slot];
+    }
+
+    /**
+     * Az első (legkisebb azonosítójú) várakozó kéz azonosítója.
+     */
+    public Optional<String> firstWaitingId() {
+        return waiting == 0 ? Optional.empty() : Optional.of(ids[Integer.numberOfTrailingZeros(waiting)]);
+    }
+
+    /**
+     * A várakozó kezek Map nézete (players), slot sorrendben; nem módosítható.
+     */
+    public Map<String, PlayerHand> players() {
+        Map<String, PlayerHand> view = playersView;
+        if (view == null) {
+            view = new SlotMap<>(waiting) {
+                @Override
+                PlayerHand value(int slot) {
+                    return hands[slot];
+                }
+            };
+            playersView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Az index Map nézete (playersIndex), slot sorrendben; nem módosítható.
+     */
+    public Map<String, Boolean> playersIndex() {
+        Map<String, Boolean> view = indexView;
+        if (view == null) {
+            view = new SlotMap<>(indexed) {
+                @Override
+                Boolean value(int slot) {
+                    return (stated & (1 << slot)) != 0;
+                }
+            };
+            indexView = view;
+        }
+        return view;
+    }
+
+    private SplitHands put(String id, PlayerHand hand) {
+        int slot = slotOf(id);
+        SplitHands target = this;
+        if (slot < 0) {
+            slot = -slot - 1;
+            target = withSlot(slot, id);
+        }
+
+        PlayerHand[] newHands = target.hands == hands ? hands.clone() : target.hands;
+        newHands[slot] = hand;
+        return new SplitHands(target.ids, newHands, target.indexed, target.stated);
+    }
+
+    private SplitHands unmark(String id) {
+        int slot = slotOf(id);
+        if (slot < 0 || (indexed & (1 << slot)) == 0) {
+            return this;
+        }
+        if (hands[slot] == null) {
+            return withoutSlot(slot);
+        }
+
+        int bit = 1 << slot;
+        return new SplitHands(ids, hands, indexed & ~bit, stated & ~bit);
+    }
+
+    private int slotOf(String id) {
+        return id == null ? -1 : Arrays.binarySearch(ids, id);
+    }
+
+    private SplitHands withSlot(int slot, String id) {
+        if (ids.length == Integer.SIZE) {
+            throw new IllegalStateException("Too many split hands: " + ids.length);
+        }
+
+        String[] newIds = new String[ids.length + 1];
+        PlayerHand[] newHands = new PlayerHand[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, slot);
+        System.arraycopy(ids, slot, newIds, slot + 1, ids.length - slot);
+        System.arraycopy(hands, 0, newHands, 0, slot);
+        System.arraycopy(hands, slot, newHands, slot + 1, hands.length - slot);
+        newIds[slot] = id;
+
+        return new SplitHands(newIds, newHands, insertBit(indexed, slot), insertBit(stated, slot));
+    }
+
+    private SplitHands withoutSlot(int slot) {
+        String[] newIds = new String[ids.length - 1];
+        PlayerHand[] newHands = new PlayerHand[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, slot);
+        System.arraycopy(ids, slot + 1, newIds, slot, ids.length - slot - 1);
+        System.arraycopy(hands, 0, newHands, 0, slot);
+        System.arraycopy(hands, slot + 1, newHands, slot, hands.length - slot - 1);
+
+        return new SplitHands(newIds, newHands, removeBit(indexed, slot), removeBit(stated, slot));
+    }
+
+    // A slot előtti bitek maradnak, a többi eggyel feljebb csúszik (az új slot bitje 0)
+    private static int insertBit(int mask, int slot) {
+        int low = mask & ((1 << slot) - 1);
+        return low | ((mask >>> slot) << (slot + 1));
+    }
+
+    private static int removeBit(int mask, int slot) {
+        int low = mask & ((1 << slot) - 1);
+        return low | ((mask >>> (slot + 1)) << slot);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof SplitHands other
+            && indexed == other.indexed
+            && stated == other.stated
+            && Arrays.equals(ids, other.ids)
+            && Arrays.equals(hands, other.hands));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(ids) + Arrays.hashCode(hands)) + 31 * indexed + stated;
+    }
+
+    @Override
+    public String toString() {
+        return "SplitHands(players=" + players() + ", playersIndex=" + playersIndex() + ")";
+    }
+
+    /**
+     * Egy bitmaszk által kijelölt slotok Map nézete; a get és a containsKey bináris keresés.
+     */
+    private abstract class SlotMap<V> extends AbstractMap<String, V> {
+        private final int mask;
+
+        SlotMap(int mask) {
+            this.mask = mask;
+        }
+
+        abstract V value(int slot);
+
+        private int present(Object key) {
+            int slot = key instanceof String id ? slotOf(id) : -1;
+            return (slot >= 0 && (mask & (1 << slot)) != 0) ? slot : -1;
+        }
+
+        @Override
+        public V get(Object key) {
+            int slot = present(key);
+            return slot < 0 ? null : value(slot);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return present(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mask == 0;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return Integer.bitCount(mask);
+                }
+
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new Iterator<>() {
+                        private int remaining = mask;
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Entry<String, V> next() {
+                            if (remaining == 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int slot = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new SimpleImmutableEntry<>(ids[slot], value(slot));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.blackjack.blackjack.model;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum Suit {
     HEARTS("♥"),
@@ -9,6 +12,9 @@ public enum Suit {
     SPADES("♠"),
     MASKED_SUIT(" ");
 
+    private static final Map<String, Suit> BY_SYMBOL = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(Suit::getSymbol, Function.identity()));
+
     private final String symbol;
 
     Suit(String symbol) {
@@ -16,10 +22,11 @@ public enum Suit {
     }
 
     public static Suit fromSymbol(String symbol) {
-        return Arrays.stream(Suit.values())
-            .filter(suit -> suit.getSymbol().equals(symbol))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Invalid suit symbol: " + symbol));
+        Suit suit = BY_SYMBOL.get(symbol);
+        if (suit == null) {
+            throw new IllegalArgumentException("Invalid suit symbol: " + symbol);
+        }
+        return suit;
     }
 
     public String getSymbol() {
@@ -0,0 +1,58 @@
+package com.blackjack.blackjack.repository;
+
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PlayerActionRepository {
+    /**
+     * Egyetlen UPDATE ... RETURNING utasítással menti az új játékállapotot,
+     * a token változást és az új idempotencia kulcsot, ha a sor verziója még a betöltéskori (optimista zárolás).
+     * A seed-es cipő a shoes táblába kerül, és csak akkor íródik, ha a tárolthoz képest változott.
+     *
+     * @return Az új token egyenleg, vagy üres, ha a kulcsot már feldolgozták (utolsó kulcs vagy idempotency_responses),
+     * a sort közben más módosította, vagy a változás után negatív lenne az egyenleg.
+     */
+    Optional<Integer> applyAction(UUID clientId, long expectedVersion, GameState newState, int tokenDelta,
+                                  UUID idempotencyKey);
+
+    /**
+     * A gyorsítótárban összevont játékállapot kiírása (token változás nélkül) ugyanazzal az optimista zárolással.
+     *
+     * @return true, ha a sor verziója még az elvárt volt és az írás megtörtént.
+     */
+    boolean flushGameState(UUID clientId, long expectedVersion, GameState state, UUID idempotencyKey);
+
+    /**
+     * A játékos betöltése a jsonb nyers szövegével: a GameState csak az első getCurrentGameState() híváskor
+     * deszerializálódik, így a duplikáció ellenőrzés és a tokenekre szorítkozó utak nem fizetik meg az árát.
+     */
+    Optional<Player> findLazyByClientId(UUID clientId);
+
+    /**
+     * A játékállapot törlése betöltés nélkül (UPDATE ... RETURNING).
+     *
+     * @param tokens         Az új token egyenleg, vagy null, ha marad a régi.
+     * @param idempotencyKey Az új idempotencia kulcs, vagy null, ha marad a régi.
+     * @return Az új token egyenleg, vagy üres, ha nincs ilyen játékos.
+     */
+    Optional<Integer> resetGameState(UUID clientId, Integer tokens, UUID idempotencyKey);
+
+    /**
+     * Egy köteg archiválása: a cutoff óta inaktív játékosok állapota (és cipője) az archived_game_states táblába kerül,
+     * a players sorban csak az archived jelző marad. A más tranzakció által zárolt sorokat kihagyja.
+     *
+     * @return Az archivált játékosok száma.
+     */
+    int archiveIdle(OffsetDateTime cutoff, int batchSize);
+
+    /**
+     * Az archivált állapot visszatöltése a players (és shoes) táblába, és az archív sor törlése.
+     *
+     * @return true, ha volt mit visszatölteni.
+     */
+    boolean restoreArchived(UUID clientId);
+}
@@ -0,0 +1,330 @@
+package com.blackjack.blackjack.repository;
+
+import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A PlayerRepository natív SQL-es kiegészítése (Spring Data fragment).
+ * A merge helyett egyetlen körben írja az állapotot, így nincs előzetes SELECT,
+ * és a token módosítás atomi (nem read-modify-write).
+ */
+class PlayerActionRepositoryImpl implements PlayerActionRepository {
+    // Ugyanaz a beállítás, amivel a Hibernate a jsonb oszlopot olvassa (JacksonJsonFormatMapper alapértelmezése).
+    // A Spring SNAKE_CASE ObjectMapper-e itt nem használható, mert más mezőneveket írna.
+    private static final ObjectMapper JSONB_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private static final String APPLY_ACTION_SQL = """
+        UPDATE players
+        SET current_game_state = CAST(:gameState AS jsonb),
+            tokens = tokens + :tokenDelta,
+            idempotency_key = :idempotencyKey,
+            last_activity = now(),
+            version = version + 1
+        WHERE client_id = :clientId
+          AND version = :expectedVersion
+          AND idempotency_key <> :idempotencyKey
+          AND NOT EXISTS (SELECT 1 FROM idempotency_responses r WHERE r.idempotency_key = :idempotencyKey)
+          AND tokens + :tokenDelta >= 0
+        RETURNING tokens
+        """;
+
+    // A write-behind gyorsítótár (PlayerStateCache) összevont állapotának kiírása: token változás nélkül,
+    // az idempotency_responses szűrő nélkül (a kulcs válasza addigra már tárolva lehet)
+    private static final String FLUSH_GAME_STATE_SQL = """
+        UPDATE players
+        SET current_game_state = CAST(:gameState AS jsonb),
+            idempotency_key = :idempotencyKey,
+            last_activity = now(),
+            version = version + 1
+        WHERE client_id = :clientId
+          AND version = :expectedVersion
+        RETURNING tokens
+        """;
+
+    private static final String APPLY_ACTION_WITH_SHOE_SQL = withShoe(APPLY_ACTION_SQL);
+    private static final String FLUSH_GAME_STATE_WITH_SHOE_SQL = withShoe(FLUSH_GAME_STATE_SQL);
+
+    private static final String FIND_LAZY_SQL = """
+        SELECT p.id, p.tokens, p.idempotency_key, p.version, CAST(p.current_game_state AS text),
+               s.shoe_id, s.decks, s.position, s.reserve, p.archived
+        FROM players p
+        LEFT JOIN shoes s ON s.client_id = p.client_id
+        WHERE p.client_id = :clientId
+        """;
+
+    // Az esetleges archív állapot és a külön tárolt cipő is törlődik, különben a következő betöltés visszahozná
+    private static final String RESET_GAME_STATE_SQL = """
+        WITH dropped AS (
+            DELETE FROM archived_game_states WHERE client_id = :clientId
+        ),
+        dropped_shoe AS (
+            DELETE FROM shoes WHERE client_id = :clientId
+        )
+        UPDATE players
+        SET current_game_state = NULL,%s
+            archived = false,
+            last_activity = now(),
+            version = version + 1
+        WHERE client_id = :clientId
+        RETURNING tokens
+        """;
+
+    // A verzió nő, így a régi állapottal futó kérés mentése ütközésként elbukik
+    private static final String ARCHIVE_IDLE_SQL = """
+        WITH idle AS (
+            SELECT client_id, current_game_state
+            FROM players
+            WHERE last_activity < :cutoff
+              AND current_game_state IS NOT NULL
+              AND NOT archived
+            ORDER BY last_activity
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+        ),
+        archived_rows AS (
+            INSERT INTO archived_game_states (client_id, game_state, shoe_id, decks, position, reserve, archived_at)
+            SELECT i.client_id, i.current_game_state, s.shoe_id, s.decks, s.position, s.reserve, now()
+            FROM idle i
+            LEFT JOIN shoes s ON s.client_id = i.client_id
+            ON CONFLICT (client_id) DO UPDATE
+            SET game_state = EXCLUDED.game_state, shoe_id = EXCLUDED.shoe_id, decks = EXCLUDED.decks,
+                position = EXCLUDED.position, reserve = EXCLUDED.reserve, archived_at = EXCLUDED.archived_at
+        ),
+        dropped_shoes AS (
+            DELETE FROM shoes s USING idle i WHERE s.client_id = i.client_id
+        )
+        UPDATE players p
+        SET current_game_state = NULL,
+            archived = true,
+            version = p.version + 1
+        FROM idle i
+        WHERE p.client_id = i.client_id
+        """;
+
+    private static final String RESTORE_ARCHIVED_SQL = """
+        WITH restored AS (
+            DELETE FROM archived_game_states WHERE client_id = :clientId
+            RETURNING client_id, game_state, shoe_id, decks, position, reserve
+        ),
+        shoe AS (
+            INSERT INTO shoes (client_id, shoe_id, decks, position, reserve)
+            SELECT client_id, shoe_id, decks, position, COALESCE(reserve, 0) FROM restored WHERE shoe_id IS NOT NULL
+            ON CONFLICT (client_id) DO UPDATE
+            SET shoe_id = EXCLUDED.shoe_id, decks = EXCLUDED.decks, position = EXCLUDED.position, reserve = EXCLUDED.reserve
+        )
+        UPDATE players p
+        SET current_game_state = r.game_state,
+            archived = false,
+            last_activity = now(),
+            version = p.version + 1
+        FROM restored r
+        WHERE p.client_id = r.client_id
+          AND p.archived
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Integer> applyAction(UUID clientId, long expectedVersion, GameState newState, int tokenDelta,
+                                         UUID idempotencyKey) {
+        return writeGameState(APPLY_ACTION_SQL, APPLY_ACTION_WITH_SHOE_SQL, clientId, expectedVersion, newState, idempotencyKey,
+            query -> query.setParameter("tokenDelta", tokenDelta));
+    }
+
+    @Override
+    @Transactional
+    public boolean flushGameState(UUID clientId, long expectedVersion, GameState state, UUID idempotencyKey) {
+        return writeGameState(FLUSH_GAME_STATE_SQL, FLUSH_GAME_STATE_WITH_SHOE_SQL, clientId, expectedVersion, state, idempotencyKey,
+            query -> { }).isPresent();
+    }
+
+    private Optional<Integer> writeGameState(String sql, String sqlWithShoe, UUID clientId, long expectedVersion,
+                                             GameState newState, UUID idempotencyKey, Consumer<Query> extraParameters) {
+        // Seed-es cipő a shoes táblába kerül, a jsonb-ből kimarad (a seed nélküli, explicit lapos pakli marad benne)
+        Deck deck = newState.getDeck();
+        boolean separateShoe = deck != null && deck.seed() != null;
+
+        Query query = entityManager.createNativeQuery(separateShoe ? sqlWithShoe : sql)
+            .setParameter("gameState", toJson(separateShoe ? newState.toBuilder().deck(null).build() : newState))
+            .setParameter("idempotencyKey", idempotencyKey)
+            .setParameter("clientId", clientId)
+            .setParameter("expectedVersion", expectedVersion);
+        extraParameters.accept(query);
+        if (separateShoe) {
+            query.setParameter("shoeId", deck.seed())
+                .setParameter("decks", deck.decks())
+                .setParameter("position", deck.position())
+                .setParameter("reserve", deck.reserve());
+        }
+        List<?> result = query.getResultList();
+
+        // A perzisztencia kontextusban lévő Player példányok már elavultak (mint @Modifying(clearAutomatically = true))
+        entityManager.clear();
+
+        if (result.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(((Number) result.getFirst()).intValue());
+    }
+
+    @Override
+    public Optional<Player> findLazyByClientId(UUID clientId) {
+        List<?> result = entityManager.createNativeQuery(FIND_LAZY_SQL)
+            .setParameter("clientId", clientId)
+            .getResultList();
+
+        if (result.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) result.getFirst();
+        String json = (String) row[4];
+        Deck shoe = (row[5] == null) ? null : Deck.builder()
+            .seed(((Number) row[5]).longValue())
+            .decks(((Number) row[6]).intValue())
+            .position(((Number) row[7]).intValue())
+            .reserve(row[8] == null ? 0 : ((Number) row[8]).intValue())
+            .build();
+
+        return Optional.of(Player.builder()
+            .id((UUID) row[0])
+            .clientId(clientId)
+            .tokens(((Number) row[1]).intValue())
+            .idempotencyKey((UUID) row[2])
+            .version(((Number) row[3]).longValue())
+            .archived(Boolean.TRUE.equals(row[9]))
+            .gameStateLoader(json == null ? null : memoize(() -> withShoe(fromJson(json), shoe)))
+            .build());
+    }
+
+    @Override
+    @Transactional
+    public Optional<Integer> resetGameState(UUID clientId, Integer tokens, UUID idempotencyKey) {
+        // Csak a megadott oszlopok íródnak; null paraméter kötése helyett a SET lista szűkül
+        String assignments = (tokens != null ? "\n    tokens = :tokens," : "")
+            + (idempotencyKey != null ? "\n    idempotency_key = :idempotencyKey," : "");
+
+        var query = entityManager.createNativeQuery(RESET_GAME_STATE_SQL.formatted(assignments))
+            .setParameter("clientId", clientId);
+        if (tokens != null) {
+            query.setParameter("tokens", tokens);
+        }
+        if (idempotencyKey != null) {
+            query.setParameter("idempotencyKey", idempotencyKey);
+        }
+        List<?> result = query.getResultList();
+
+        entityManager.clear();
+
+        if (result.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(((Number) result.getFirst()).intValue());
+    }
+
+    @Override
+    @Transactional
+    public int archiveIdle(OffsetDateTime cutoff, int batchSize) {
+        int archived = entityManager.createNativeQuery(ARCHIVE_IDLE_SQL)
+            .setParameter("cutoff", cutoff)
+            .setParameter("batchSize", batchSize)
+            .executeUpdate();
+
+        entityManager.clear();
+        return archived;
+    }
+
+    @Override
+    @Transactional
+    public boolean restoreArchived(UUID clientId) {
+        int restored = entityManager.createNativeQuery(RESTORE_ARCHIVED_SQL)
+            .setParameter("clientId", clientId)
+            .executeUpdate();
+
+        entityManager.clear();
+        return restored > 0;
+    }
+
+    /**
+     * Az UPDATE kiegészítése a cipő írásával, ami csak akkor történik meg, ha a tárolthoz képest változott
+     * (osztás vagy új cipő): változatlan cipőnél az INSERT egyetlen sort sem kap, így nincs ütközés, zárolás és WAL sem.
+     */
+    private static String withShoe(String updateSql) {
+        return """
+            WITH updated AS (
+            %s),
+            shoe AS (
+                INSERT INTO shoes (client_id, shoe_id, decks, position, reserve)
+                SELECT :clientId, :shoeId, :decks, :position, :reserve
+                FROM updated
+                WHERE NOT EXISTS (SELECT 1 FROM shoes s
+                                  WHERE s.client_id = :clientId AND s.shoe_id = :shoeId AND s.position = :position)
+                ON CONFLICT (client_id) DO UPDATE
+                SET shoe_id = EXCLUDED.shoe_id, decks = EXCLUDED.decks, position = EXCLUDED.position, reserve = EXCLUDED.reserve
+            )
+            SELECT tokens FROM updated
+            """.formatted(updateSql);
+    }
+
+    private String toJson(GameState state) {
+        try {
+            return JSONB_MAPPER.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize GameState", e);
+        }
+    }
+
+    /**
+     * A külön tárolt cipő visszaillesztése. A jsonb-ben lévő pakli (régi sor vagy JPA mentés) az elsődleges.
+     */
+    private static GameState withShoe(GameState state, Deck shoe) {
+        if (state.getDeck() != null || shoe == null) {
+            return state;
+        }
+        return state.toBuilder().deck(shoe).build();
+    }
+
+    private static GameState fromJson(String json) {
+        try {
+            return JSONB_MAPPER.readValue(json, GameState.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize GameState", e);
+        }
+    }
+
+    /**
+     * A toBuilder() másolatok ugyanazt a loadert kapják, így az állapot egyszer deszerializálódik.
+     */
+    private static Supplier<GameState> memoize(Supplier<GameState> loader) {
+        return new Supplier<>() {
+            private GameState value;
+            private boolean loaded;
+
+            // A gyorsítótárazott játékos (PlayerStateCache) több kérésnek is átadhatja: egyszer deszerializál
+            @Override
+            public synchronized GameState get() {
+                if (!loaded) {
+                    value = loader.get();
+                    loaded = true;
+                }
+                return value;
+            }
+        };
+    }
+}
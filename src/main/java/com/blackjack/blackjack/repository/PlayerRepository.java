@@ -6,6 +6,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface PlayerRepository extends JpaRepository<Player, UUID> {
+public interface PlayerRepository extends JpaRepository<Player, UUID>, PlayerActionRepository {
     Optional<Player> findByClientId(UUID clientId);
+
+    /**
+     * Csak a tokenek, az idempotencia kulcs és a verzió, a játékállapot betöltése nélkül.
+     */
+    Optional<PlayerSummary> findSummaryByClientId(UUID clientId);
 }
@@ -0,0 +1,16 @@
+package com.blackjack.blackjack.repository;
+
+import java.util.UUID;
+
+/**
+ * A játékos sora a játékállapot (jsonb) nélkül: a Spring Data csak ezeket az oszlopokat kérdezi le.
+ */
+public interface PlayerSummary {
+    UUID getClientId();
+
+    int getTokens();
+
+    UUID getIdempotencyKey();
+
+    long getVersion();
+}
@@ -0,0 +1,26 @@
+package com.blackjack.blackjack.rules;
+
+import lombok.Builder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Egy asztal szabályai, ahogy a konfigurációban állnak (app.rules.profiles.&lt;név&gt;.*).
+ * A hiányzó mezők a standard asztal értékeit kapják; futás közben a TableRules lefordított
+ * táblái dolgoznak belőle.
+ *
+ * @param decks            paklik száma a cipőben
+ * @param blackjackPayout  a blackjack kifizetése "nyeremény:tét" alakban (pl. 3:2, 6:5)
+ * @param dealerHitsSoft17 H17 (true) vagy S17 (false)
+ * @param doubleAfterSplit duplázás split után (split_double_request)
+ * @param resplitLimit     ennyi split lehet egy körben (0: nincs split)
+ */
+@Builder(toBuilder = true)
+public record RuleProfile(
+    @DefaultValue("2") int decks,
+    @DefaultValue("3:2") String blackjackPayout,
+    @DefaultValue("false") boolean dealerHitsSoft17,
+    @DefaultValue("true") boolean doubleAfterSplit,
+    @DefaultValue("4") int resplitLimit
+) {
+    public static final RuleProfile STANDARD = new RuleProfile(2, "3:2", false, true, 4);
+}
@@ -0,0 +1,17 @@
+package com.blackjack.blackjack.rules;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * A névvel ellátott szabályprofilok (app.rules.profiles.&lt;név&gt;.*) és az aktív profil neve
+ * (app.rules.profile). Piaconként más profil választható kódváltozás nélkül.
+ */
+@ConfigurationProperties(prefix = "app.rules")
+public record RulesProperties(
+    @DefaultValue(TableRules.STANDARD_NAME) String profile,
+    Map<String, RuleProfile> profiles
+) {
+}
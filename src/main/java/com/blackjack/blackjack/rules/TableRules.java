@@ -0,0 +1,151 @@
+package com.blackjack.blackjack.rules;
+
+import com.blackjack.blackjack.model.PlayerHand;
+import com.blackjack.blackjack.model.SplitHands;
+import com.blackjack.blackjack.model.WinnerState;
+
+import java.util.Arrays;
+
+import static com.blackjack.blackjack.common.GameConstants.CARDS_IN_DECK;
+
+/**
+ * Egy szabályprofil induláskor lefordítva: a kör elszámolása egy táblából olvasható ki, amelyet
+ * a WinnerState kódok indexelnek (a kör natural21 értéke, a winner és az osztó natural21 értéke),
+ * így kérésenként nincs feltétel lánc és szorzó.
+ * <p>
+ * A tábla a tét visszajáró többszörösét tárolja egész számlálóként, közös nevezővel
+ * (3:2 esetén 5/2, 2/2, 1/2), így a kifizetés egész aritmetikával, lefelé kerekítve számolódik.
+ * Immutable, a szálak közösen használják; Spring nélkül (szimuláció, tesztek) a STANDARD profil az alap.
+ */
+public final class TableRules {
+    // A STANDARD lefordítása előtt kell inicializálódnia
+    private static final int CODES = Arrays.stream(WinnerState.values()).mapToInt(WinnerState::getValue).max().orElseThrow() + 1;
+
+    public static final String STANDARD_NAME = "standard";
+    public static final TableRules STANDARD = compile(STANDARD_NAME, RuleProfile.STANDARD);
+
+    // A DealerProbabilityCalculator összetétel kulcsa legfeljebb 15 paklit kezel
+    public static final int MAX_DECKS = 15;
+
+    private final String name;
+    private final RuleProfile profile;
+    private final int[] settlementReturns;
+    private final int settlementDenominator;
+
+    private TableRules(String name, RuleProfile profile, int[] settlementReturns, int settlementDenominator) {
+        this.name = name;
+        this.profile = profile;
+        this.settlementReturns = settlementReturns;
+        this.settlementDenominator = settlementDenominator;
+    }
+
+    /**
+     * A profil ellenőrzése és a táblák felépítése; hibás profil esetén már induláskor hibát dob.
+     */
+    public static TableRules compile(String name, RuleProfile profile) {
+        if (profile.decks() < 1 || profile.decks() > MAX_DECKS) {
+            throw new IllegalArgumentException("Rule profile " + name + ": decks must be 1.." + MAX_DECKS + ", got " + profile.decks());
+        }
+        if (profile.resplitLimit() < 0) {
+            throw new IllegalArgumentException("Rule profile " + name + ": resplit limit must not be negative");
+        }
+
+        int[] payout = parsePayout(name, profile.blackjackPayout());
+        int denominator = payout[1];
+        int blackjack = payout[0] + payout[1];
+        int win = 2 * denominator;
+        int push = denominator;
+
+        int[] returns = new int[CODES * CODES * CODES];
+        for (int natural21 = 0; natural21 < CODES; natural21++) {
+            for (int winner = 0; winner < CODES; winner++) {
+                for (int dealerNatural21 = 0; dealerNatural21 < CODES; dealerNatural21++) {
+                    boolean dealerBlackjack = dealerNatural21 == WinnerState.BLACKJACK_DEALER_WON.getValue();
+                    int result = 0;
+
+                    if (natural21 == WinnerState.BLACKJACK_PLAYER_WON.getValue()) {
+                        result = blackjack;
+                    } else if (winner == WinnerState.PLAYER_WON.getValue() && !dealerBlackjack) {
+                        result = win;
+                    } else if ((winner == WinnerState.PUSH.getValue() && !dealerBlackjack)
+                        || dealerNatural21 == WinnerState.BLACKJACK_PUSH.getValue()) {
+                        result = push;
+                    }
+
+                    returns[index(natural21, winner, dealerNatural21)] = result;
+                }
+            }
+        }
+
+        return new TableRules(name, profile, returns, denominator);
+    }
+
+    /**
+     * A kör elszámolása: a tétből visszajáró összeg (0: vesztett, tét: push, 2x tét: nyert,
+     * a blackjack a profil szerint), lefelé kerekítve.
+     */
+    public int settle(int natural21, int winner, int dealerNatural21, int bet) {
+        if (natural21 < 0 || natural21 >= CODES || winner < 0 || winner >= CODES
+            || dealerNatural21 < 0 || dealerNatural21 >= CODES) {
+            return 0;
+        }
+        return (int) ((long) bet * settlementReturns[index(natural21, winner, dealerNatural21)] / settlementDenominator);
+    }
+
+    /**
+     * Splitelhető-e a kéz: azonos értékű pár, és a körben még nem érte el a profil split limitjét.
+     * A várakozó kezek száma a körben eddig végrehajtott splitek száma (az aktív kéz nincs köztük).
+     */
+    public boolean splitAllowed(PlayerHand hand, SplitHands hands) {
+        return hand != null && hand.canSplit() && hands.waitingCount() < profile.resplitLimit();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public RuleProfile profile() {
+        return profile;
+    }
+
+    public int decks() {
+        return profile.decks();
+    }
+
+    public int shoeLength() {
+        return profile.decks() * CARDS_IN_DECK;
+    }
+
+    public boolean dealerHitsSoft17() {
+        return profile.dealerHitsSoft17();
+    }
+
+    public boolean doubleAfterSplit() {
+        return profile.doubleAfterSplit();
+    }
+
+    private static int index(int natural21, int winner, int dealerNatural21) {
+        return (natural21 * CODES + winner) * CODES + dealerNatural21;
+    }
+
+    private static int[] parsePayout(String name, String payout) {
+        String[] parts = (payout == null) ? new String[0] : payout.trim().split(":");
+        try {
+            if (parts.length == 2) {
+                int win = Integer.parseInt(parts[0].trim());
+                int stake = Integer.parseInt(parts[1].trim());
+                if (win > 0 && stake > 0) {
+                    return new int[]{win, stake};
+                }
+            }
+        } catch (NumberFormatException e) {
+            // lent egységes hibaüzenettel
+        }
+        throw new IllegalArgumentException("Rule profile " + name + ": blackjack payout must look like 3:2, got " + payout);
+    }
+
+    @Override
+    public String toString() {
+        return "TableRules(" + name + ", " + profile + ")";
+    }
+}
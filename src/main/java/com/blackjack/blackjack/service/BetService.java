@@ -2,6 +2,7 @@ package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.dto.bet.GameStateBet;
 import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.rules.TableRules;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -10,11 +11,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import static com.blackjack.blackjack.common.GameConstants.INITIAL_DECK_LENGTH;
 import static com.blackjack.blackjack.common.GameConstants.MINIMUM_BET;
 
 @Service
 public class BetService {
+    private final TableRules tableRules;
+
+    public BetService(TableRules tableRules) {
+        this.tableRules = tableRules;
+    }
+
     public GameStateBet placeBet(GameState oldState, int betAmount) {
         validateBettingPeriod(oldState);
 
@@ -28,7 +34,7 @@ public class BetService {
         int newTotalBet = oldState.getBet() + betAmount;
 
         int currentDeckLen = oldState.getDeckLen();
-        int deckLenToReturn = (currentDeckLen == 0) ? INITIAL_DECK_LENGTH : currentDeckLen;
+        int deckLenToReturn = (currentDeckLen == 0) ? tableRules.shoeLength() : currentDeckLen;
 
         return GameStateBet.builder()
             .bet(newTotalBet)
@@ -49,7 +55,7 @@ public class BetService {
         int newTotalBet = oldState.getBet() - amountToReturn;
 
         int currentDeckLen = oldState.getDeckLen();
-        int deckLenToReturn = (currentDeckLen == 0) ? INITIAL_DECK_LENGTH : currentDeckLen;
+        int deckLenToReturn = (currentDeckLen == 0) ? tableRules.shoeLength() : currentDeckLen;
 
         GameStateBet updatedBetInfo = GameStateBet.builder()
             .bet(newTotalBet)
@@ -0,0 +1,99 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.DealerHandUnmasked;
+import com.blackjack.blackjack.model.HandState;
+import com.blackjack.blackjack.model.PackedHand;
+import com.blackjack.blackjack.model.Rank;
+import com.blackjack.blackjack.rules.TableRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Az osztó játéka a játékos lezárása után, egy menetben: a kemény összeg és az ász jelenléte
+ * lapról lapra frissül, a húzott lapok kódjai egy helyi long pufferbe kerülnek (8 lap / long),
+ * és a végén egyetlen DealerHandUnmasked épül fel (egy tömbmásolás, egy HandState számítás).
+ * <p>
+ * A lapforrás egy Supplier, így ugyanezt használja a stand végpontok útja (GameStateManager,
+ * a kör cipőjéből) és a Spring nélküli szimuláció is. A soft 17 szabály (H17 / S17) az aktív
+ * szabályprofilból jön (TableRules); a standard profil S17.
+ */
+@Service
+public class DealerPlayEngine {
+    public static final int DEALER_STANDS_ON = 17;
+
+    // Ennyi lapkód fér egy long pufferbe; ennél több húzás (sok kis lap) esetén a puffer ürül
+    private static final int CODES_PER_BUFFER = Long.BYTES;
+
+    private final HandStateUpdater handStateUpdater;
+    private final boolean hitSoft17;
+
+    @Autowired
+    public DealerPlayEngine(HandStateUpdater handStateUpdater, TableRules tableRules) {
+        this(handStateUpdater, tableRules.dealerHitsSoft17());
+    }
+
+    public DealerPlayEngine(HandStateUpdater handStateUpdater, boolean hitSoft17) {
+        this.handStateUpdater = handStateUpdater;
+        this.hitSoft17 = hitSoft17;
+    }
+
+    public boolean hitsSoft17() {
+        return hitSoft17;
+    }
+
+    /**
+     * Megáll-e az osztó a kemény összeg és az ász jelenléte alapján (17 felett mindig,
+     * 17-en akkor, ha a kéz kemény, vagy ha a szabály S17).
+     */
+    public static boolean stands(int hardTotal, boolean hasAce, boolean hitSoft17) {
+        boolean soft = hasAce && hardTotal + 10 <= 21;
+        int best = soft ? hardTotal + 10 : hardTotal;
+        return best > DEALER_STANDS_ON || (best == DEALER_STANDS_ON && !(soft && hitSoft17));
+    }
+
+    public boolean mustDraw(List<Card> hand) {
+        PackedHand packed = PackedHand.copyOf(hand);
+        return !stands(packed.hardTotal(), packed.aceCount() > 0, hitSoft17);
+    }
+
+    /**
+     * Az osztó kezének kijátszása; ha nem kell húznia, ugyanazt a példányt adja vissza.
+     */
+    public DealerHandUnmasked play(DealerHandUnmasked dealerHand, Supplier<Card> shoe) {
+        PackedHand finalHand = PackedHand.copyOf(dealerHand.hand());
+        int hardTotal = finalHand.hardTotal();
+        boolean hasAce = finalHand.aceCount() > 0;
+
+        if (stands(hardTotal, hasAce, hitSoft17)) {
+            return dealerHand;
+        }
+
+        long buffered = 0;
+        int count = 0;
+        do {
+            Card card = shoe.get();
+            if (count == CODES_PER_BUFFER) {
+                finalHand = finalHand.withPackedCodes(buffered, count);
+                buffered = 0;
+                count = 0;
+            }
+            buffered |= (long) card.code() << (Byte.SIZE * count++);
+            hardTotal += PackedHand.hardValue(card.rank());
+            hasAce |= card.rank() == Rank.ACE;
+        } while (!stands(hardTotal, hasAce, hitSoft17));
+
+        finalHand = finalHand.withPackedCodes(buffered, count);
+        int sum = finalHand.bestTotal();
+        HandState dealerHandState = handStateUpdater.updateHandState(sum, finalHand.size(), false);
+
+        return dealerHand.toBuilder()
+            .hand(finalHand)
+            .sum(sum)
+            .handState(dealerHandState.getValue())
+            .build();
+    }
+}
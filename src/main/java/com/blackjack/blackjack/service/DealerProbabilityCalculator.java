@@ -0,0 +1,198 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.Rank;
+import com.blackjack.blackjack.rules.TableRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Az osztó végső összegének valószínűségei egy adott lapösszetételből (shoe composition)
+ * és felfordított lapból, a motor szabályai szerint (17-en megáll; soft 17-en az aktív
+ * szabályprofil szerint, ugyanúgy, mint a DealerPlayEngine).
+ * <p>
+ * Az összetétel a játékos szemszögéből ismeretlen lapok száma értékenként
+ * (index: 0 = ász, 1..8 = 2..9, 9 = 10-es értékek), ebből az első húzás az osztó rejtett lapja.
+ * A rejtett lapot feltétel nélkül húzzuk: a motor osztói blackjacknél is aktívan hagyja a kört
+ * (a kliens felé takarva), így a blackjack külön kimenet (DEALER_BLACKJACK), nem sima 21.
+ * <p>
+ * Egy számításon belül az állapotot maga az összetétel azonosítja (a kezdőhöz képest
+ * hiányzó lapok az osztó húzásai), így a rekurzió multihalmazonként egyszer fut le.
+ * A kész eloszlásokat egy korlátos LRU cache tárolja összetétel + felfordított lap kulccsal.
+ */
+@Service
+public class DealerProbabilityCalculator {
+    public static final int RANKS = 10;
+    public static final int ACE = 0;
+    public static final int TEN = 9;
+
+    /**
+     * Az eredmény tömb: index = végső összeg (0..21), BUST = besokallás,
+     * DEALER_BLACKJACK = a rejtett lappal kész blackjack.
+     */
+    public static final int BUST = 22;
+    public static final int DEALER_BLACKJACK = 23;
+    public static final int OUTCOMES = 24;
+
+    private static final double[][] TERMINALS = createTerminals();
+
+    private final Map<DealerKey, double[]> cache;
+    private final boolean hitSoft17;
+
+    public DealerProbabilityCalculator(int cacheSize) {
+        this(cacheSize, false);
+    }
+
+    @Autowired
+    public DealerProbabilityCalculator(@Value("${app.ev.dealer-cache-size:10000}") int cacheSize, TableRules tableRules) {
+        this(cacheSize, tableRules.dealerHitsSoft17());
+    }
+
+    public DealerProbabilityCalculator(int cacheSize, boolean hitSoft17) {
+        this.hitSoft17 = hitSoft17;
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DealerKey, double[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static int rankIndex(Rank rank) {
+        if (rank == Rank.ACE) {
+            return ACE;
+        }
+        return rank.getBaseValue() - 1;
+    }
+
+    public static int rankIndex(Card card) {
+        return rankIndex(card.rank());
+    }
+
+    /**
+     * Kemény érték (ász = 1).
+     */
+    public static int hardValue(int rankIndex) {
+        return rankIndex + 1;
+    }
+
+    public static int bestTotal(int hardTotal, boolean hasAce) {
+        return (hasAce && hardTotal + 10 <= 21) ? hardTotal + 10 : hardTotal;
+    }
+
+    /**
+     * Az összetétel egyetlen long-ba csomagolva (ász..9: 6 bit, 10-esek: 8 bit), max. 15 pakli.
+     */
+    public static long pack(int[] counts) {
+        long packed = 0;
+        for (int i = 0; i < TEN; i++) {
+            if (counts[i] < 0 || counts[i] > 63) {
+                throw new IllegalArgumentException("Unsupported shoe composition for rank index " + i + ": " + counts[i]);
+            }
+            packed = (packed << 6) | counts[i];
+        }
+        if (counts[TEN] < 0 || counts[TEN] > 255) {
+            throw new IllegalArgumentException("Unsupported shoe composition for ten-value cards: " + counts[TEN]);
+        }
+        return (packed << 8) | counts[TEN];
+    }
+
+    /**
+     * Az osztó végső összegének eloszlása (csak olvasható, a cache-ben megosztott tömb).
+     */
+    public double[] finalTotals(int[] counts, int upCardIndex) {
+        DealerKey key = new DealerKey(pack(counts), upCardIndex);
+
+        synchronized (cache) {
+            double[] cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        int[] working = counts.clone();
+        double[] result = draw(working, hardValue(upCardIndex), upCardIndex == ACE, upCardIndex, true, new HashMap<>());
+
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private double[] draw(int[] counts, int hardTotal, boolean hasAce, int upCardIndex, boolean holeCard,
+                          Map<Long, double[]> memo) {
+        int best = bestTotal(hardTotal, hasAce);
+        if (DealerPlayEngine.stands(hardTotal, hasAce, hitSoft17)) {
+            return TERMINALS[Math.min(best, BUST)];
+        }
+
+        long key = pack(counts);
+        double[] known = memo.get(key);
+        if (known != null) {
+            return known;
+        }
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+
+        double[] result;
+        if (total == 0) {
+            // Üres pool: az osztó a jelenlegi összegén marad (a motor ilyenkor új cipőt nyitna)
+            result = TERMINALS[best];
+        } else {
+            result = new double[OUTCOMES];
+            for (int i = 0; i < RANKS; i++) {
+                int n = counts[i];
+                if (n == 0) {
+                    continue;
+                }
+
+                double p = (double) n / total;
+                double[] next;
+                if (holeCard && isBlackjack(upCardIndex, i)) {
+                    next = TERMINALS[DEALER_BLACKJACK];
+                } else {
+                    counts[i]--;
+                    next = draw(counts, hardTotal + hardValue(i), hasAce || i == ACE, upCardIndex, false, memo);
+                    counts[i]++;
+                }
+
+                for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+                    result[outcome] += p * next[outcome];
+                }
+            }
+        }
+
+        memo.put(key, result);
+        return result;
+    }
+
+    private static boolean isBlackjack(int upCardIndex, int holeCardIndex) {
+        return (upCardIndex == ACE && holeCardIndex == TEN) || (upCardIndex == TEN && holeCardIndex == ACE);
+    }
+
+    private static double[][] createTerminals() {
+        double[][] terminals = new double[OUTCOMES][];
+        for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+            terminals[outcome] = new double[OUTCOMES];
+            terminals[outcome][outcome] = 1.0;
+        }
+        return terminals;
+    }
+
+    private record DealerKey(long composition, int upCardIndex) {
+    }
+}
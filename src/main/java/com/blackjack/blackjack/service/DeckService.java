@@ -2,20 +2,50 @@ package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.model.DealResult;
 import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.rules.TableRules;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import static com.blackjack.blackjack.common.GameConstants.DEFAULT_PENETRATION;
+
 /**
  * Felelős a Deck objektumokkal való interakcióért,
  * különösen a laposztásért.
  * Nincs felelőssége a GameState mentéséért.
  * Az immutable Deck modellel dolgozik.
+ * Az új cipők az előre megkevert készletből (ShoePool) jönnek; készlet nélkül
+ * (szimuláció, benchmark) a kérés szálán keveredik.
+ * Minden új cipő a beállított penetration szerinti vágókártyát kapja.
  */
 @Service
 public class DeckService {
     private static final Logger logger = LoggerFactory.getLogger(DeckService.class);
 
+    private final ShoePool shoePool;
+    private final double penetration;
+    private final int decks;
+
+    public DeckService() {
+        this(TableRules.STANDARD);
+    }
+
+    /**
+     * Pool nélküli cipőgyártás a megadott szabályprofil paklijaival (szimuláció).
+     */
+    public DeckService(TableRules tableRules) {
+        this(null, DEFAULT_PENETRATION, tableRules);
+    }
+
+    @Autowired
+    public DeckService(ShoePool shoePool, @Value("${app.shoe.penetration:0.75}") double penetration, TableRules tableRules) {
+        this.shoePool = shoePool;
+        this.penetration = penetration;
+        this.decks = tableRules.decks();
+    }
+
     public DealResult dealCard(Deck deck) {
         if (deck == null) {
             logger.error("Deck is null.");
@@ -32,6 +62,14 @@ public class DeckService {
     }
 
     public Deck createNewDeck() {
-        return Deck.createNewDeck();
+        Deck shoe = (shoePool != null) ? shoePool.take() : Deck.createNewDeck(Deck.newSeed(), decks);
+        return shoe.withPenetration(penetration);
+    }
+
+    /**
+     * Egy korábbi cipő pontos újraépítése a mentett seed-ből (pl. vitás kör visszajátszásához).
+     */
+    public Deck createNewDeck(long seed) {
+        return Deck.createNewDeck(seed, decks).withPenetration(penetration);
     }
 }
@@ -0,0 +1,307 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.dto.hint.ExpectedValueHint;
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.blackjack.blackjack.service.DealerProbabilityCalculator.*;
+
+/**
+ * Összetétel-függő várható érték (EV) számítás az aktív kézre: stand, hit, double, split
+ * és biztosítás, a cipő még ismeretlen lapjaiból (maradék pakli + az osztó rejtett lapja).
+ * <p>
+ * Az osztói blackjack külön kimenet: a kör ekkor is aktív (takartan), de a játékos a teljes
+ * tétet elveszíti (duplázásnál a dupláját, splitnél mindkét kéz tétjét), kivéve, ha neki is
+ * natúr blackjackje van (push).
+ * <p>
+ * Vágások, hogy 8 paklinál is néhány ms alatt maradjon:
+ * - az osztó eloszlását csak a közvetlen következő lapig követjük pontosan: a második
+ * húzástól a játékos kezében ugyanazt az eloszlást használjuk, mint az első húzás után;
+ * - split esetén nincs újrasplit, és a két kéz azonos összetételből indul.
+ * Egy kérésen belül a játékos állapotait is összetétel szerint memoizáljuk.
+ */
+@Service
+public class ExpectedValueService {
+    private final DealerProbabilityCalculator dealerProbabilityCalculator;
+    private final TableRules tableRules;
+
+    public ExpectedValueService(DealerProbabilityCalculator dealerProbabilityCalculator) {
+        this(dealerProbabilityCalculator, TableRules.STANDARD);
+    }
+
+    @Autowired
+    public ExpectedValueService(DealerProbabilityCalculator dealerProbabilityCalculator, TableRules tableRules) {
+        this.dealerProbabilityCalculator = dealerProbabilityCalculator;
+        this.tableRules = tableRules;
+    }
+
+    public ExpectedValueHint calculate(GameState state) {
+        PlayerHand playerHand = state.getPlayer();
+        DealerHandMasked dealerMasked = state.getDealerMasked();
+        DealerHandUnmasked dealerUnmasked = state.getDealerUnmasked();
+
+        if (playerHand == null || dealerMasked == null || dealerUnmasked == null
+            || dealerMasked.hand().size() < 2 || dealerUnmasked.hand().isEmpty()) {
+            throw new IllegalStateException("No dealt hand to evaluate");
+        }
+
+        int[] counts = unknownCards(state.getDeck(), dealerUnmasked.hand().getFirst());
+        int upCard = rankIndex(dealerMasked.hand().get(1));
+        PackedHand cards = PackedHand.copyOf(playerHand.hand());
+
+        HandEvaluator evaluator = new HandEvaluator(upCard, counts);
+        int hard = cards.hardTotal();
+        boolean hasAce = cards.aceCount() > 0;
+
+        boolean natural = cards.size() == 2 && bestTotal(hard, hasAce) == 21 && !state.isWasSplitInRound();
+        double stand = natural
+            ? evaluator.standNatural(evaluator.dealerAt(counts), blackjackPayout())
+            : evaluator.stand(bestTotal(hard, hasAce), evaluator.dealerAt(counts));
+        double hit = evaluator.hit(hard, hasAce);
+
+        boolean canDouble = cards.size() == 2 && (!state.isWasSplitInRound() || tableRules.doubleAfterSplit());
+        boolean canSplit = tableRules.splitAllowed(playerHand, state.getHands());
+        boolean canInsure = dealerMasked.canInsure() && cards.size() == 2 && !state.isWasSplitInRound();
+
+        Double doubleDown = canDouble ? evaluator.doubleDown(hard, hasAce) : null;
+        Double split = canSplit ? evaluator.split(rankIndex(cards.getFirst())) : null;
+        Double insurance = canInsure ? insurance(counts) : null;
+
+        return ExpectedValueHint.builder()
+            .stand(stand)
+            .hit(hit)
+            .doubleDown(doubleDown)
+            .split(split)
+            .insurance(insurance)
+            .bestAction(bestAction(stand, hit, doubleDown, split))
+            .build();
+    }
+
+    /**
+     * A natúr blackjack nettó nyeresége egységnyi tétre, az aktív szabályprofil szerint.
+     */
+    private double blackjackPayout() {
+        int bet = 1000;
+        return (double) (tableRules.settle(WinnerState.BLACKJACK_PLAYER_WON.getValue(), WinnerState.NONE.getValue(),
+            WinnerState.NONE.getValue(), bet) - bet) / bet;
+    }
+
+    /**
+     * A játékos számára ismeretlen lapok értékenként: a ki nem osztott lapok és az osztó rejtett lapja.
+     */
+    private static int[] unknownCards(Deck deck, Card holeCard) {
+        int[] counts = new int[RANKS];
+        if (deck != null) {
+            for (Card card : deck.deck()) {
+                counts[rankIndex(card)]++;
+            }
+        }
+        counts[rankIndex(holeCard)]++;
+        return counts;
+    }
+
+    /**
+     * Biztosítás: osztói blackjacknél a tét visszajár, különben a fél tét elveszik.
+     */
+    private static double insurance(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        double pTen = total == 0 ? 0.0 : (double) counts[TEN] / total;
+        return pTen - (1.0 - pTen) * 0.5;
+    }
+
+    private static String bestAction(double stand, double hit, Double doubleDown, Double split) {
+        String best = "STAND";
+        double bestEv = stand;
+        if (hit > bestEv) {
+            best = "HIT";
+            bestEv = hit;
+        }
+        if (doubleDown != null && doubleDown > bestEv) {
+            best = "DOUBLE";
+            bestEv = doubleDown;
+        }
+        if (split != null && split > bestEv) {
+            best = "SPLIT";
+        }
+        return best;
+    }
+
+    /**
+     * Egy kérés számításai: a lapösszetétel (counts) a húzások közben helyben változik és visszaáll.
+     */
+    private final class HandEvaluator {
+        private final int upCard;
+        private final int[] counts;
+        private final Map<HitKey, Double> memo = new HashMap<>();
+
+        private HandEvaluator(int upCard, int[] counts) {
+            this.upCard = upCard;
+            this.counts = counts.clone();
+        }
+
+        double[] dealerAt(int[] composition) {
+            return dealerProbabilityCalculator.finalTotals(composition, upCard);
+        }
+
+        double stand(int playerTotal, double[] dealer) {
+            if (playerTotal > 21) {
+                return -1.0;
+            }
+            double ev = dealer[BUST] - dealer[DEALER_BLACKJACK];
+            for (int total = 0; total <= 21; total++) {
+                if (total < playerTotal) {
+                    ev += dealer[total];
+                } else if (total > playerTotal) {
+                    ev -= dealer[total];
+                }
+            }
+            return ev;
+        }
+
+        /**
+         * Natúr blackjack: osztói blackjack ellen push, minden más ellen a profil szerinti kifizetés.
+         */
+        double standNatural(double[] dealer, double payout) {
+            return (1.0 - dealer[DEALER_BLACKJACK]) * payout;
+        }
+
+        /**
+         * Egy lap húzása, utána optimális folytatás (stand vagy további hit).
+         */
+        double hit(int hard, boolean hasAce) {
+            return hitFrom(hard, hasAce, -1, null, -1);
+        }
+
+        double doubleDown(int hard, boolean hasAce) {
+            double ev = 0.0;
+            int total = total();
+            for (int i = 0; i < RANKS; i++) {
+                int n = counts[i];
+                if (n == 0) {
+                    continue;
+                }
+                counts[i]--;
+                ev += (double) n / total * stand(bestTotal(hard + hardValue(i), hasAce || i == ACE), dealerAt(counts));
+                counts[i]++;
+            }
+            return 2.0 * ev;
+        }
+
+        /**
+         * Split: két független kéz, mindkettő a pár egyik lapjából + egy új lapból indul,
+         * utána stand / hit / double közül a legjobb.
+         */
+        double split(int pairCard) {
+            int hard = hardValue(pairCard);
+            boolean hasAce = pairCard == ACE;
+            int total = total();
+            double ev = 0.0;
+
+            for (int i = 0; i < RANKS; i++) {
+                int n = counts[i];
+                if (n == 0) {
+                    continue;
+                }
+                counts[i]--;
+                int newHard = hard + hardValue(i);
+                boolean newAce = hasAce || i == ACE;
+                double[] dealer = dealerAt(counts);
+
+                double stand = stand(bestTotal(newHard, newAce), dealer);
+                double hit = hitFrom(newHard, newAce, i, dealer, i);
+                double doubled = 2.0 * drawAndStand(newHard, newAce, dealer);
+                ev += (double) n / total * Math.max(stand, Math.max(hit, doubled));
+                counts[i]++;
+            }
+            return 2.0 * ev;
+        }
+
+        private double drawAndStand(int hard, boolean hasAce, double[] dealer) {
+            double ev = 0.0;
+            int total = total();
+            for (int i = 0; i < RANKS; i++) {
+                int n = counts[i];
+                if (n != 0) {
+                    ev += (double) n / total * stand(bestTotal(hard + hardValue(i), hasAce || i == ACE), dealer);
+                }
+            }
+            return ev;
+        }
+
+        /**
+         * @param scenario     melyik ágban vagyunk (-1: eredeti kéz, 0..9: split kéz az adott második lappal),
+         *                     a memo kulcsához kell, mert a kéz kezdőállapota ágonként más
+         * @param dealer       a rögzített osztói eloszlás (null: az első húzás utáni pontos eloszlás)
+         * @param dealerSource melyik első húzás után számolt eloszlás van használatban (memo kulcs)
+         */
+        private double hitFrom(int hard, boolean hasAce, int scenario, double[] dealer, int dealerSource) {
+            int total = total();
+            if (total == 0) {
+                return stand(bestTotal(hard, hasAce), dealer != null ? dealer : dealerAt(counts));
+            }
+
+            double ev = 0.0;
+            for (int i = 0; i < RANKS; i++) {
+                int n = counts[i];
+                if (n == 0) {
+                    continue;
+                }
+                double p = (double) n / total;
+                int newHard = hard + hardValue(i);
+                boolean newAce = hasAce || i == ACE;
+                int best = bestTotal(newHard, newAce);
+
+                if (best > 21) {
+                    ev -= p;
+                    continue;
+                }
+
+                counts[i]--;
+                if (dealer == null) {
+                    ev += p * continuation(newHard, newAce, best, scenario, dealerAt(counts), i);
+                } else {
+                    ev += p * continuation(newHard, newAce, best, scenario, dealer, dealerSource);
+                }
+                counts[i]++;
+            }
+            return ev;
+        }
+
+        private double continuation(int hard, boolean hasAce, int best, int scenario, double[] dealer,
+                                    int dealerSource) {
+            double stand = stand(best, dealer);
+            if (best == 21) {
+                return stand;
+            }
+
+            HitKey key = new HitKey(pack(counts), scenario, dealerSource);
+            Double cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            double value = Math.max(stand, hitFrom(hard, hasAce, scenario, dealer, dealerSource));
+            memo.put(key, value);
+            return value;
+        }
+
+        private int total() {
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    private record HitKey(long composition, int scenario, int dealerSource) {
+    }
+}
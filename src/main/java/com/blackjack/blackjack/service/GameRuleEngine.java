@@ -8,9 +8,10 @@ import java.util.List;
 @Service
 public class GameRuleEngine {
     public int initNatural21State(GameState gameState) {
-        PlayerHand playerHand = gameState.getPlayer();
-        DealerHandUnmasked dealerHand = gameState.getDealerUnmasked();
+        return initNatural21State(gameState.getPlayer(), gameState.getDealerUnmasked());
+    }
 
+    public int initNatural21State(PlayerHand playerHand, DealerHandUnmasked dealerHand) {
         assert playerHand != null;
         int playerSum = playerHand.sum();
         assert dealerHand != null;
@@ -58,6 +59,10 @@ public class GameRuleEngine {
     }
 
     public boolean canSplit(List<Card> hand) {
+        if (hand instanceof PackedHand packed) {
+            return packed.isSplittablePair();
+        }
+
         if (hand == null || hand.size() != 2) {
             return false;
         }
@@ -1,6 +1,7 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -14,87 +15,75 @@ public class GameService {
     private final GameStateManager gameStateManager;
     private final HandValueCalculator handValueCalculator;
     private final HandStateUpdater handStateUpdater;
+    private final TableRules tableRules;
 
-    public GameService(GameRuleEngine gameRuleEngine, GameStateManager gameStateManager, HandValueCalculator handValueCalculator, HandStateUpdater handStateUpdater) {
+    public GameService(GameRuleEngine gameRuleEngine, GameStateManager gameStateManager, HandValueCalculator handValueCalculator, HandStateUpdater handStateUpdater, TableRules tableRules) {
         this.gameRuleEngine = gameRuleEngine;
         this.gameStateManager = gameStateManager;
         this.handValueCalculator = handValueCalculator;
         this.handStateUpdater = handStateUpdater;
+        this.tableRules = tableRules;
+    }
+
+    public TableRules tableRules() {
+        return tableRules;
     }
 
     // --- STANDARD ---
     public GameState initializeNewRound(GameState state) {
-        // 1. Kör állapotának nullázása (resetRoundState immutábilis)
-        GameState currentGameState = gameStateManager.resetRoundState(state)
-            .toBuilder()
-            .isRoundActive(true)
-            .build();
+        // 1. Kör állapotának nullázása (resetRoundState immutábilis); ha kijött a vágókártya, itt jön új cipő.
+        // Innentől minden változás egy munkaállapotba kerül, a GameState a végén egyszer épül fel.
+        GameState resetState = gameStateManager.reshuffleIfPastCut(gameStateManager.resetRoundState(state));
+        RoundContext round = RoundContext.of(resetState);
 
         // ----------------------------------------------------
         // 2. KÁRTYA OSZTÁSI LÁNC (Tisztán objektumokkal)
         // ----------------------------------------------------
-        DealResultWithState deal1 = gameStateManager.safeDealCard(currentGameState);
-        Card card1 = deal1.dealtCard();
-        currentGameState = deal1.newGameState();
-
-        DealResultWithState deal2 = gameStateManager.safeDealCard(currentGameState);
-        Card card2 = deal2.dealtCard();
-        currentGameState = deal2.newGameState();
-
-        DealResultWithState deal3 = gameStateManager.safeDealCard(currentGameState);
-        Card card3 = deal3.dealtCard();
-        currentGameState = deal3.newGameState();
-
-        DealResultWithState deal4 = gameStateManager.safeDealCard(currentGameState);
-        Card card4 = deal4.dealtCard();
-        currentGameState = deal4.newGameState();
+        Card card1 = gameStateManager.draw(round);
+        Card card2 = gameStateManager.draw(round);
+        Card card3 = gameStateManager.draw(round);
+        Card card4 = gameStateManager.draw(round);
 
         // ----------------------------------------------------
         // 3. ADATOK ELŐKÉSZÍTÉSE ÉS SZÁMÍTÁSOK
         // ----------------------------------------------------
-        LinkedList<Card> playerStartHand = new LinkedList<>(List.of(card1, card3));
+        PackedHand playerStartHand = PackedHand.of(card1, card3);
         int playerSum = handValueCalculator.calculateSum(playerStartHand);
-        HandState playerHandState = handStateUpdater.updateHandState(playerSum, playerStartHand.size(), currentGameState.isWasSplitInRound());
+        HandState playerHandState = handStateUpdater.updateHandState(playerSum, playerStartHand.size(), resetState.isWasSplitInRound());
         boolean isSplitPossible = gameRuleEngine.canSplit(playerStartHand);
 
-        int nextCount = currentGameState.calculateNextHandCounter();
+        int nextCount = resetState.calculateNextHandCounter();
         String handId = String.format("P-%03d", nextCount);
 
-        LinkedList<Card> dealerUnmaskedHand = new LinkedList<>(List.of(card2, card4));
+        PackedHand dealerUnmaskedHand = PackedHand.of(card2, card4);
         int dealerFullSum = handValueCalculator.calculateSum(dealerUnmaskedHand);
-        HandState dealerHandState = handStateUpdater.updateHandState(dealerFullSum, dealerUnmaskedHand.size(), currentGameState.isWasSplitInRound());
+        HandState dealerHandState = handStateUpdater.updateHandState(dealerFullSum, dealerUnmaskedHand.size(), resetState.isWasSplitInRound());
 
         // ----------------------------------------------------
-        // 4. IDEIGLENES OBJEKTUMOK ÉS BLACKJACK ELLENŐRZÉS
+        // 4. KEZEK ÉS BLACKJACK ELLENŐRZÉS
         // ----------------------------------------------------
-        assert currentGameState.getPlayer() != null;
-        PlayerHand tempPlayer = currentGameState.getPlayer().toBuilder()
+        assert resetState.getPlayer() != null;
+        PlayerHand newPlayer = resetState.getPlayer().toBuilder()
             .id(handId)
             .hand(playerStartHand)
             .sum(playerSum)
             .handState(playerHandState.getValue())
             .canSplit(isSplitPossible)
-            .bet(currentGameState.getBet())
+            .bet(resetState.getBet())
             .build();
 
-        assert currentGameState.getDealerUnmasked() != null;
-        DealerHandUnmasked tempDealerUnmasked = currentGameState.getDealerUnmasked().toBuilder()
+        assert resetState.getDealerUnmasked() != null;
+        DealerHandUnmasked.DealerHandUnmaskedBuilder dealerUnmaskedBuilder = resetState.getDealerUnmasked().toBuilder()
             .hand(dealerUnmaskedHand)
-            .sum(dealerFullSum)
-            .build();
-
-        // Átmeneti állapot a RuleEngine számára (hogy lássa mindkét kezet)
-        GameState stateForCalculation = currentGameState.toBuilder()
-            .player(tempPlayer)
-            .dealerUnmasked(tempDealerUnmasked)
-            .build();
+            .sum(dealerFullSum);
 
-        int initialOutcome = gameRuleEngine.initNatural21State(stateForCalculation);
+        // A RuleEngine közvetlenül a két kezet kapja, átmeneti GameState nélkül
+        int initialOutcome = gameRuleEngine.initNatural21State(newPlayer, dealerUnmaskedBuilder.build());
 
         // ----------------------------------------------------
         // 5. VÉGLEGES OBJEKTUMOK ÖSSZESZERELÉSE
         // ----------------------------------------------------
-        DealerHandUnmasked finalDealerUnmasked = tempDealerUnmasked.toBuilder()
+        DealerHandUnmasked finalDealerUnmasked = dealerUnmaskedBuilder
             .handState(dealerHandState.getValue())
             .natural21(initialOutcome)
             .build();
@@ -104,23 +93,23 @@ public class GameService {
             ? WinnerState.NONE.getValue()
             : initialOutcome;
 
-        assert currentGameState.getDealerMasked() != null;
-        DealerHandMasked updatedDealerMasked = currentGameState.getDealerMasked().toBuilder()
-            .hand(new LinkedList<>(List.of(Card.createMaskedCard(), card4)))
+        assert resetState.getDealerMasked() != null;
+        DealerHandMasked updatedDealerMasked = resetState.getDealerMasked().toBuilder()
+            .hand(List.of(Card.createMaskedCard(), card4))
             .canInsure(canInsure)
             .nat21(maskedStateForDealer)
             .build();
 
         // Visszatérünk a kész, új állapottal (MENTÉS NÉLKÜL)
-        return currentGameState.toBuilder()
-            .player(tempPlayer)
+        round.state()
+            .player(newPlayer)
             .dealerUnmasked(finalDealerUnmasked)
             .dealerMasked(updatedDealerMasked)
             .handCounter(nextCount)
             .natural21(initialOutcome)
             .isRoundActive(true)
-            .aces(card1.rank() == Rank.ACE && card3.rank() == Rank.ACE)
-            .build();
+            .aces(card1.rank() == Rank.ACE && card3.rank() == Rank.ACE);
+        return round.build();
     }
 
     public GameState playerHit(GameState currentState) {
@@ -128,27 +117,22 @@ public class GameService {
             return currentState;
         }
 
-        DealResultWithState result = gameStateManager.safeDealCard(currentState);
-        GameState deckUpdatedState = result.newGameState();
-        Card card = result.dealtCard();
+        RoundContext round = RoundContext.of(currentState);
+        Card card = gameStateManager.draw(round);
 
-        PlayerHand playerHand = deckUpdatedState.getPlayer();
+        PlayerHand playerHand = currentState.getPlayer();
         assert playerHand != null;
-        LinkedList<Card> newHandList = new LinkedList<>(playerHand.hand());
-        newHandList.add(card);
+        PackedHand newHandList = PackedHand.copyOf(playerHand.hand()).with(card);
 
         int newSum = handValueCalculator.calculateSum(newHandList);
-        HandState calculatedHandState = handStateUpdater.updateHandState(newSum, newHandList.size(), deckUpdatedState.isWasSplitInRound());
+        HandState calculatedHandState = handStateUpdater.updateHandState(newSum, newHandList.size(), currentState.isWasSplitInRound());
 
-        PlayerHand newPlayerHand = playerHand.toBuilder()
+        round.state().player(playerHand.toBuilder()
             .hand(newHandList)
             .sum(newSum)
             .handState(calculatedHandState.getValue())
-            .build();
-
-        return deckUpdatedState.toBuilder()
-            .player(newPlayerHand)
-            .build();
+            .build());
+        return round.build();
     }
 
     public GameState playerStand(GameState currentState) {
@@ -169,17 +153,17 @@ public class GameService {
         GameState stateAfterPlayerStand = currentState.toBuilder()
             .player(playerHandStated)
             .build();
-        logger.info("playerSum ({}).", playerSum);
+        logger.debug("playerSum ({}).", playerSum);
 
         GameState finalDealerState;
         if (playerSum <= 21) {
             finalDealerState = gameStateManager.processDealerDrawing(stateAfterPlayerStand);
         } else {
-            logger.info("Player BUSTED ({}). Dealer stays.", playerSum);
+            logger.debug("Player BUSTED ({}). Dealer stays.", playerSum);
             finalDealerState = stateAfterPlayerStand;
         }
         assert finalDealerState.getDealerUnmasked() != null;
-        logger.info("DEALERSUM    dealersum ({}).", finalDealerState.getDealerUnmasked().sum());
+        logger.debug("DEALERSUM    dealersum ({}).", finalDealerState.getDealerUnmasked().sum());
         int calculatedWinnerValue = gameRuleEngine.winnerStateUpdater(
             playerHandStated,
             finalDealerState.getDealerUnmasked()
@@ -197,26 +181,9 @@ public class GameService {
         assert playerHand != null;
         int bet = playerHand.bet();
 
-        int globalWinnerState = gameState.getWinner();
-        int initialNatural21 = gameState.getNatural21();
         assert dealerUnmasked != null;
-        int dealerUnmaskedNatural21 = dealerUnmasked.natural21();
-
-        double rewardAmount = 0.0;
-
-        if (initialNatural21 == WinnerState.BLACKJACK_PLAYER_WON.getValue()) {
-            rewardAmount = bet * 2.5;
-        } else if (globalWinnerState == WinnerState.PLAYER_WON.getValue() &&
-            dealerUnmaskedNatural21 != WinnerState.BLACKJACK_DEALER_WON.getValue()) {
-            rewardAmount = bet * 2.0;
-        } else if ((globalWinnerState == WinnerState.PUSH.getValue() &&
-            dealerUnmaskedNatural21 != WinnerState.BLACKJACK_DEALER_WON.getValue()) ||
-            dealerUnmaskedNatural21 == WinnerState.BLACKJACK_PUSH.getValue()) {
-
-            rewardAmount = bet * 1.0;
-        }
-
-        int finalReward = (int) Math.floor(rewardAmount);
+        // A kifizetés a szabályprofil lefordított táblájából (WinnerState kódok szerint indexelve)
+        int finalReward = tableRules.settle(gameState.getNatural21(), gameState.getWinner(), dealerUnmasked.natural21(), bet);
 
         PlayerHand rewardedPlayerHand = playerHand.toBuilder()
             .bet(0)
@@ -225,7 +192,7 @@ public class GameService {
         GameState rewardedGameState = gameState.toBuilder()
             .bet(0)
             .betList(Collections.emptyList())
-            .isRoundActive(!gameState.getPlayers().isEmpty())
+            .isRoundActive(gameState.getHands().hasWaiting())
             .player(rewardedPlayerHand)
             .build();
 
@@ -288,7 +255,7 @@ public class GameService {
     public GameState splitHand(GameState oldState) {
         PlayerHand oldPlayerHand = oldState.getPlayer();
 
-        if (oldPlayerHand == null || !oldPlayerHand.canSplit() || oldState.getPlayers().size() > 3) {
+        if (!tableRules.splitAllowed(oldPlayerHand, oldState.getHands())) {
             return oldState;
         }
 
@@ -313,7 +280,7 @@ public class GameService {
         PlayerHand playerHand = oldState.getPlayer();
 
         // Ellenőrizzük, hogy vannak-e még aktív kezek
-        boolean isActive = gameStateManager.areStatedFalseHands(oldState.getPlayers());
+        boolean isActive = gameStateManager.areStatedFalseHands(oldState.getHands());
         //logger.info(">>>> isActive: {}", isActive);
 
         if (isActive) {
@@ -325,17 +292,10 @@ public class GameService {
                 .stated(true)
                 .build();
 
-            // 2. Új Map-ek létrehozása a régiek alapján
-            Map<String, PlayerHand> newPlayersMap = new HashMap<>(oldState.getPlayers());
-            newPlayersMap.put(updatedPlayerHand.id(), updatedPlayerHand);
-
-            Map<String, Boolean> newPlayersIndexMap = new HashMap<>(oldState.getPlayersIndex());
-            newPlayersIndexMap.put(updatedPlayerHand.id(), true);
-
+            // 2. A kéz visszakerül a várakozók közé, az indexben lezártként
             return oldState.toBuilder()
                 .player(updatedPlayerHand)
-                .players(Collections.unmodifiableMap(newPlayersMap))
-                .playersIndex(Collections.unmodifiableMap(newPlayersIndexMap))
+                .hands(oldState.getHands().put(updatedPlayerHand).mark(updatedPlayerHand.id(), true))
                 .build();
 
         } else {
@@ -344,95 +304,70 @@ public class GameService {
     }
 
     public GameState addSplitPlayerToGame(GameState oldState) {
-        GameState currentGameState = oldState;
-
-        Map<String, Boolean> playersIndex = currentGameState.getPlayersIndex();
-        Optional<String> nextIdOptional = gameStateManager.findNextActivePlayerId(playersIndex);
+        SplitHands hands = oldState.getHands();
+        Optional<String> nextIdOptional = gameStateManager.findNextActivePlayerId(hands);
 
         if (nextIdOptional.isEmpty()) {
-            return currentGameState;
+            return oldState;
         }
 
         String nextHandId = nextIdOptional.get();
-        PlayerHand player = currentGameState.getPlayer();
-        PlayerHand splitPlayer = currentGameState.getSplitPlayer();
+        PlayerHand player = oldState.getPlayer();
+        PlayerHand splitPlayer = oldState.getSplitPlayer();
 
-        PlayerHand nextActiveHand = null;
+        RoundContext round = RoundContext.of(oldState);
+        PlayerHand playerToDealTo = player;
 
         if (splitPlayer != null && splitPlayer.id() != null && splitPlayer.id().equals(nextHandId)) {
-            nextActiveHand = splitPlayer;
+            playerToDealTo = splitPlayer;
         } else if (player != null && player.id().equals(nextHandId)) {
-            nextActiveHand = player;
-        } else if (currentGameState.getPlayers().containsKey(nextHandId)) {
-            Map<String, PlayerHand> oldPlayersMap = currentGameState.getPlayers();
-
-            Map<String, PlayerHand> newPlayersMap = new HashMap<>(oldPlayersMap);
-            PlayerHand nextHand = newPlayersMap.remove(nextHandId);
-
-            nextActiveHand = nextHand;
+            playerToDealTo = player;
+        } else if (hands.waiting(nextHandId) != null) {
+            PlayerHand nextHand = hands.waiting(nextHandId);
 
-            currentGameState = currentGameState.toBuilder()
-                .players(newPlayersMap)
-                .splitPlayer(nextHand.toBuilder().build())
-                .splitReq(currentGameState.calculateNewSplitReq(-1))
-                .build();
-        }
+            playerToDealTo = nextHand;
 
-        if (nextActiveHand != null) {
-            currentGameState = currentGameState.toBuilder()
-                .player(nextActiveHand)
-                .build();
+            round.state()
+                .hands(hands.remove(nextHandId))
+                .splitPlayer(nextHand)
+                .splitReq(oldState.calculateNewSplitReq(-1));
         }
 
-        PlayerHand playerToDealTo = currentGameState.getPlayer();
-
         assert playerToDealTo != null;
         if (playerToDealTo.hand().size() < 2) {
-            DealResultWithState result = gameStateManager.safeDealCard(currentGameState);
-            Card cardToAdd = result.dealtCard();
-
-            currentGameState = result.newGameState();
+            Card cardToAdd = gameStateManager.draw(round);
 
-            LinkedList<Card> newHandList = new LinkedList<>(playerToDealTo.hand());
-            newHandList.add(cardToAdd);
+            PackedHand newHandList = PackedHand.copyOf(playerToDealTo.hand()).with(cardToAdd);
 
             boolean canSplit = gameRuleEngine.canSplit(newHandList);
             int sum = handValueCalculator.calculateSum(newHandList);
-            HandState playerState = handStateUpdater.updateHandState(sum, newHandList.size(), currentGameState.isWasSplitInRound());
+            HandState playerState = handStateUpdater.updateHandState(sum, newHandList.size(), oldState.isWasSplitInRound());
 
-
-            PlayerHand finalPlayerHand = playerToDealTo.toBuilder()
+            playerToDealTo = playerToDealTo.toBuilder()
                 .hand(newHandList)
                 .sum(sum)
                 .handState(playerState.getValue())
                 .canSplit(canSplit)
                 .build();
-
-            currentGameState = currentGameState.toBuilder()
-                .player(finalPlayerHand)
-                .build();
         }
 
-        return currentGameState;
+        round.state().player(playerToDealTo);
+        return round.build();
     }
 
     public GameState addPlayerFromPlayers(GameState currentGameState) {
-        Map<String, PlayerHand> playersMap = currentGameState.getPlayers();
+        SplitHands hands = currentGameState.getHands();
+        Optional<String> firstId = hands.firstWaitingId();
 
-        if (playersMap == null || playersMap.isEmpty()) {
+        if (firstId.isEmpty()) {
             return currentGameState;
         }
 
-        Map.Entry<String, PlayerHand> firstEntry = playersMap.entrySet().iterator().next();
-        String firstId = firstEntry.getKey();
-        PlayerHand extractedHand = firstEntry.getValue();
+        PlayerHand extractedHand = hands.waiting(firstId.get());
         //logger.info(" A PLAYER addPlayerFromPlayers {}).", extractedHand);
-        Map<String, PlayerHand> newPlayersMap = new LinkedHashMap<>(playersMap);
-        newPlayersMap.remove(firstId);
-
         return currentGameState.toBuilder()
             .player(extractedHand)
-            .players(newPlayersMap)
+            .hands(hands.remove(firstId.get()))
             .build();
     }
 
@@ -442,7 +377,7 @@ public class GameService {
 
         return resetGameState.toBuilder()
             .bet(0)
-            .deck(Deck.createNewDeck())
+            .deck(Deck.createNewDeck(Deck.newSeed(), tableRules.decks()))
             .build();
     }
 
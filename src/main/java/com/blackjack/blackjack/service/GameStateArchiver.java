@@ -0,0 +1,79 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.repository.PlayerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Az elhagyott játékok állapotának archiválása: a last_activity alapján régóta inaktív játékosok
+ * jsonb állapota és cipője az archived_game_states táblába kerül, így a players tábla (és az indexei)
+ * csak az aktív játékosokat tartja. A játékos következő kérésekor a PlayerService visszatölti.
+ * <p>
+ * Kötegenként fut (egy köteg egy tranzakció), amíg van mit archiválni, legfeljebb maxBatches köteget futásonként.
+ */
+@Service
+@Slf4j
+public class GameStateArchiver {
+    public static final String ARCHIVED_COUNTER = "blackjack.archive.states";
+
+    private final PlayerRepository playerRepository;
+    private final Counter archivedCounter;
+    private final Duration idleAfter;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Clock clock;
+
+    @Autowired
+    public GameStateArchiver(PlayerRepository playerRepository, MeterRegistry registry,
+                             @Value("${app.archive.idle-after:24h}") Duration idleAfter,
+                             @Value("${app.archive.batch-size:500}") int batchSize,
+                             @Value("${app.archive.max-batches:20}") int maxBatches) {
+        this(playerRepository, registry, idleAfter, batchSize, maxBatches, Clock.systemUTC());
+    }
+
+    GameStateArchiver(PlayerRepository playerRepository, MeterRegistry registry, Duration idleAfter,
+                      int batchSize, int maxBatches, Clock clock) {
+        this.playerRepository = playerRepository;
+        this.archivedCounter = Counter.builder(ARCHIVED_COUNTER)
+            .description("Idle game states moved to the archive table")
+            .register(registry);
+        this.idleAfter = idleAfter;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.clock = clock;
+    }
+
+    /**
+     * @return Az ebben a futásban archivált állapotok száma.
+     */
+    @Scheduled(fixedDelayString = "${app.archive.interval:5m}", initialDelayString = "${app.archive.interval:5m}")
+    public int archiveIdleGameStates() {
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(idleAfter);
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int archived = playerRepository.archiveIdle(cutoff, batchSize);
+            total += archived;
+            archivedCounter.increment(archived);
+
+            // Részleges köteg: nincs több inaktív állapot (vagy a maradékot más tranzakció zárolja)
+            if (archived < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Inaktív játékállapotok archiválva: {}", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.dto.GameStateView;
+import com.blackjack.blackjack.model.GameState;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Delta válaszok (RFC 7386 JSON Merge Patch) a kliens által nyugtázott verzióhoz képest.
+ * <p>
+ * Az alap a kliensnek az előző válaszban ténylegesen elküldött nézet (a nyugtázott állapotból
+ * a benne tárolt nézettel újraépítve), így a patch alkalmazása után a kliensnél pontosan az új
+ * végpont DTO-ja áll elő: a változatlan kezek és számlálók kimaradnak, a megszűnt mezők null-t kapnak,
+ * a players map-ben csak a módosult kéz szerepel. Minden más esetben teljes snapshot megy.
+ */
+@Service
+public class GameStateDeltaService {
+    private final ObjectMapper objectMapper;
+
+    public GameStateDeltaService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param acknowledged a módosítás előtti (a kliens által nyugtázott) állapot
+     * @param ackVersion   a kliens által küldött verzió (null: a kliens nem kér deltát)
+     * @return a patch, vagy üres, ha teljes snapshot-ot kell küldeni
+     */
+    public Optional<JsonNode> delta(GameState acknowledged, GameState updated, GameStateView view, Long ackVersion) {
+        if (ackVersion == null || acknowledged == null || ackVersion != acknowledged.getVersion()) {
+            return Optional.empty();
+        }
+
+        GameStateView previousView = GameStateView.fromName(acknowledged.getView());
+        if (previousView == null) {
+            return Optional.empty();
+        }
+
+        JsonNode source = objectMapper.valueToTree(previousView.build(acknowledged));
+        JsonNode target = objectMapper.valueToTree(view.build(updated));
+        return Optional.of(diff(source, target));
+    }
+
+    /**
+     * Merge patch, amely a source-ot target-té alakítja. Objektumokon rekurzív, minden más (tömb, érték) egészben cserélődik.
+     */
+    static JsonNode diff(JsonNode source, JsonNode target) {
+        if (!source.isObject() || !target.isObject()) {
+            return target;
+        }
+
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+
+        Iterator<String> removed = source.fieldNames();
+        while (removed.hasNext()) {
+            String name = removed.next();
+            if (!target.has(name)) {
+                patch.putNull(name);
+            }
+        }
+
+        for (Map.Entry<String, JsonNode> field : target.properties()) {
+            JsonNode previous = source.get(field.getKey());
+            JsonNode next = field.getValue();
+
+            if (previous == null || previous.isNull()) {
+                if (!next.isNull()) {
+                    patch.set(field.getKey(), next);
+                }
+            } else if (next.isNull()) {
+                patch.putNull(field.getKey());
+            } else if (!Objects.equals(previous, next)) {
+                patch.set(field.getKey(), diff(previous, next));
+            }
+        }
+        return patch;
+    }
+}
@@ -16,13 +16,15 @@ public class GameStateManager {
     private final HandValueCalculator handValueCalculator;
     private final HandStateUpdater handStateUpdater;
     private final DeckService deckService;
+    private final DealerPlayEngine dealerPlayEngine;
 
-    public GameStateManager(GameRuleEngine gameRuleEngine, PlayerHandFactory playerHandFactory, HandValueCalculator handValueCalculator, HandStateUpdater handStateUpdater, DeckService deckService) {
+    public GameStateManager(GameRuleEngine gameRuleEngine, PlayerHandFactory playerHandFactory, HandValueCalculator handValueCalculator, HandStateUpdater handStateUpdater, DeckService deckService, DealerPlayEngine dealerPlayEngine) {
         this.gameRuleEngine = gameRuleEngine;
         this.playerHandFactory = playerHandFactory;
         this.handValueCalculator = handValueCalculator;
         this.handStateUpdater = handStateUpdater;
         this.deckService = deckService;
+        this.dealerPlayEngine = dealerPlayEngine;
     }
 
     public GameState resetRoundState(GameState oldState) {
@@ -45,7 +47,7 @@ public class GameStateManager {
             .wasSplitInRound(false)
             .splitReq(0)
             .isRoundActive(false)
-            .players(new HashMap<>())
+            .hands(SplitHands.EMPTY)
             .build();
     }
 
@@ -55,91 +57,67 @@ public class GameStateManager {
         return state.toBuilder().deck(newDeck).build();
     }
 
-    public GameService.DealResultWithState safeDealCard(GameState state) {
-        GameState workingState = (state.getDeck() == null || state.getDeckLen() == 0)
-            ? createNewDeck(state)
-            : state;
-
-        try {
-            DealResult result = deckService.dealCard(workingState.getDeck());
-
-            GameState newState = workingState.toBuilder()
-                .deck(result.newDeck())
-                .build();
-
-            return new GameService.DealResultWithState(result.dealtCard(), newState);
-
-        } catch (IllegalStateException e) {
-            logger.warn("!!! DECK EXHAUSTED: Reshuffling automatically.");
+    /**
+     * Kör eleji cipőcsere: ha nincs cipő, vagy kijött a vágókártya, új cipő jön. Kör közben nem keverünk.
+     */
+    public GameState reshuffleIfPastCut(GameState state) {
+        Deck deck = state.getDeck();
+        if (deck != null && !deck.isPastCut()) {
+            return state;
+        }
 
-            GameState reshuffledState = createNewDeck(workingState);
-            DealResult result = deckService.dealCard(reshuffledState.getDeck());
+        logger.info("Cut card reached ({} cards left): reshuffling before the round", deck != null ? deck.getDeckLength() : 0);
+        return createNewDeck(state);
+    }
 
-            GameState finalState = reshuffledState.toBuilder()
-                .deck(result.newDeck())
-                .build();
+    public GameService.DealResultWithState safeDealCard(GameState state) {
+        RoundContext round = RoundContext.of(state);
+        Card card = draw(round);
+        return new GameService.DealResultWithState(card, round.build());
+    }
 
-            return new GameService.DealResultWithState(result.dealtCard(), finalState);
+    /**
+     * Egy lap osztása a munkaállapot cipőjéből; az új GameState csak az akció végén épül fel.
+     */
+    Card draw(RoundContext round) {
+        // Végső tartalék: a vágókártya mögötti lapok egy kört bőven fedeznek, de egy szélsőséges
+        // (sok split, sok kis lap) kör kimerítheti a cipőt; ilyenkor kivétel helyett új cipő jön
+        Deck deck = round.deck();
+        if (deck == null || deck.getDeckLength() == 0) {
+            deck = deckService.createNewDeck();
+            logger.info("+++++++++++ createNewDeck {}", deck);
         }
+
+        DealResult result = deckService.dealCard(deck);
+        round.deck(result.newDeck());
+        return result.dealtCard();
     }
 
     public GameState processDealerDrawing(GameState currentState) {
-        while (true) {
-            assert currentState.getDealerUnmasked() != null;
-            if (!(handValueCalculator.calculateSum(currentState.getDealerUnmasked().hand()) < 17)) break;
-
-            GameService.DealResultWithState dealResult = safeDealCard(currentState);
-
-            Card newCard = dealResult.dealtCard();
-            GameState deckUpdatedState = dealResult.newGameState();
-
-            DealerHandUnmasked oldDealerHand = deckUpdatedState.getDealerUnmasked();
-
-            assert oldDealerHand != null;
-            LinkedList<Card> newDealerHandList = new LinkedList<>(oldDealerHand.hand());
-            newDealerHandList.add(newCard);
-
-            int newDealerSum = handValueCalculator.calculateSum(newDealerHandList);
-            HandState newDealerHandState = handStateUpdater.updateHandState(newDealerSum, newDealerHandList.size(), false);
-
-            DealerHandUnmasked newDealerHand = oldDealerHand.toBuilder()
-                .hand(newDealerHandList)
-                .sum(newDealerSum)
-                .handState(newDealerHandState.getValue())
-                .build();
-
-            currentState = deckUpdatedState.toBuilder()
-                .dealerUnmasked(newDealerHand)
-                .build();
-
-            if (newDealerSum > 21) {
-                break;
-            }
+        DealerHandUnmasked dealerHand = currentState.getDealerUnmasked();
+        assert dealerHand != null;
+        if (!dealerPlayEngine.mustDraw(dealerHand.hand())) {
+            return currentState;
         }
-        return currentState;
+
+        RoundContext round = RoundContext.of(currentState);
+        round.state().dealerUnmasked(dealerPlayEngine.play(dealerHand, () -> draw(round)));
+        return round.build();
     }
 
     public GameState dealSplitCard(GameState state, boolean isFirst, Card cardToSplit) {
-        GameState.GameStateBuilder newStateBuilder = state.toBuilder();
+        RoundContext round = RoundContext.of(state);
+        SplitHands hands = state.getHands();
         PlayerHand updatedHand;
         String id;
 
         if (isFirst) {
-            GameState workingState = (state.getDeck() == null || state.getDeckLen() == 0)
-                ? createNewDeck(state)
-                : state;
-
-            newStateBuilder = workingState.toBuilder();
-
-            assert state.getDeck() != null;
-            DealResult result = deckService.dealCard(workingState.getDeck());
-            newStateBuilder.deck(result.newDeck());
+            Card dealtCard = draw(round);
 
             PlayerHand p = state.getPlayer();
             assert p != null;
             id = p.id();
-            List<Card> newHandCards = new ArrayList<>(p.hand());
-            newHandCards.add(result.dealtCard());
+            PackedHand newHandCards = PackedHand.copyOf(p.hand()).with(dealtCard);
 
             int sum = handValueCalculator.calculateSum(newHandCards);
             HandState hState = handStateUpdater.updateHandState(sum, newHandCards.size(), true);
@@ -148,14 +126,14 @@ public class GameStateManager {
                 && newHandCards.getFirst().rank() != Rank.ACE;
 
             updatedHand = p.toBuilder()
-                .hand(Collections.unmodifiableList(newHandCards))
+                .hand(newHandCards)
                 .sum(sum)
                 .handState(hState.getValue())
                 .canSplit(canSplitAgain)
                 .stated(false)
                 .build();
 
-            newStateBuilder.player(updatedHand);
+            round.state().player(updatedHand);
         } else {
             int nextCount = state.calculateNextHandCounter();
             id = String.format("P-%03d", nextCount);
@@ -168,39 +146,19 @@ public class GameStateManager {
                 .bet(state.getPlayer().bet())
                 .build();
 
-            newStateBuilder.handCounter(nextCount);
-
-            Map<String, PlayerHand> playersMap = new HashMap<>(state.getPlayers());
-            playersMap.put(id, updatedHand);
-
-            newStateBuilder.players(Collections.unmodifiableMap(playersMap));
+            round.state().handCounter(nextCount);
+            hands = hands.put(updatedHand);
         }
 
-        Map<String, Boolean> playersIndex = new LinkedHashMap<>(state.getPlayersIndex());
-        playersIndex.put(id, false);
-        newStateBuilder.playersIndex(Collections.unmodifiableMap(playersIndex));
-        //logger.info("+++++++++++BBBBBB dealSplitCard playersIndex {}", playersIndex);
-        return newStateBuilder.build();
+        round.state().hands(hands.mark(id, false));
+        return round.build();
     }
 
-    public Optional<String> findNextActivePlayerId(Map<String, Boolean> playersIndex) {
-        //logger.info(" XXXXXXXX VVVVV playersIndex {}).", playersIndex);
-        if (playersIndex == null || playersIndex.isEmpty()) {
-            return Optional.empty();
-        }
-
-        return playersIndex.entrySet().stream()
-            .filter(entry -> !entry.getValue())
-            .map(Map.Entry::getKey)
-            .sorted()
-            .findFirst();
+    public Optional<String> findNextActivePlayerId(SplitHands hands) {
+        return hands == null ? Optional.empty() : hands.nextActiveId();
     }
 
-    public boolean areStatedFalseHands(Map<String, PlayerHand> playersMap) {
-        if (playersMap == null || playersMap.isEmpty()) {
-            return false;
-        }
-        return playersMap.values().stream()
-            .anyMatch(hand -> !hand.stated());
+    public boolean areStatedFalseHands(SplitHands hands) {
+        return hands != null && hands.hasUnstatedWaiting();
     }
 }
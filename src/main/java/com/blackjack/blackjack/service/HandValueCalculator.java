@@ -1,6 +1,7 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.PackedHand;
 import com.blackjack.blackjack.model.Rank;
 import org.springframework.stereotype.Service;
 
@@ -13,6 +14,11 @@ public class HandValueCalculator {
             return 0;
         }
 
+        // A modell kezei PackedHand-ek: az összeg már inkrementálisan számolva van
+        if (hand instanceof PackedHand packed) {
+            return packed.bestTotal();
+        }
+
         int currentSum = 0;
         int aceCount = 0;
 
@@ -0,0 +1,215 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.IdempotencyRecord;
+import com.blackjack.blackjack.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A sikeres akciók szerializált válaszai kliensenként (az utolsó N kérés), TTL-lel.
+ * <p>
+ * A visszajátszás a mentett bájtokat adja vissza változatlanul, így egy régebbi kérés újraküldése
+ * sem fut le újra, és a /bet ismétlése is ugyanazt a választ kapja. A memóriabeli tár az első,
+ * betöltés nélküli ellenőrzés; a tartós tábla (idempotency_responses) más példányok és újraindítás
+ * esetére van, és a játékos mentése (applyAction) is kizárja a benne szereplő kulcsokat.
+ * <p>
+ * A tartós írás szinkron, a válasz visszaadása előtt, de az applyAction után külön tranzakcióban:
+ * a válasz törzse az UPDATE által visszaadott új egyenleget tartalmazza, így ugyanabba az utasításba
+ * nem kerülhet. A kettő közötti leállásnál (vagy sikertelen írásnál) a tartós másolat hiányzik;
+ * ekkor az ugyanazzal a kulccsal érkező ismétlést a játékos sorában az applyAction által atomi módon
+ * írt utolsó kulcs szűri ki (duplikátum válasz az aktuális állapotból, nem a mentett bájtok), a
+ * korábbi kulcsokat pedig a memóriabeli tár, amíg a példány fut.
+ */
+@Service
+@Slf4j
+public class IdempotencyResponseStore {
+    public static final String REPLAY_COUNTER = "blackjack.idempotency.replays";
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+    private final int perClient;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<UUID, ClientResponses> responses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyResponseStore(IdempotencyRecordRepository repository, ObjectMapper objectMapper, MeterRegistry registry,
+                                    @Value("${app.idempotency.per-client:16}") int perClient,
+                                    @Value("${app.idempotency.ttl:10m}") Duration ttl) {
+        this(repository, objectMapper, registry, perClient, ttl, Clock.systemUTC());
+    }
+
+    IdempotencyResponseStore(IdempotencyRecordRepository repository, ObjectMapper objectMapper, MeterRegistry registry,
+                             int perClient, Duration ttl, Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.perClient = Math.max(1, perClient);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    private record StoredResponse(int status, byte[] body, long storedAtMillis) {
+    }
+
+    /**
+     * Kliensenként korlátos, beszúrási sorrendű tár: a legrégebbi kulcs esik ki.
+     */
+    private final class ClientResponses extends LinkedHashMap<UUID, StoredResponse> {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, StoredResponse> eldest) {
+            return size() > perClient;
+        }
+    }
+
+    /**
+     * Memóriabeli visszajátszás, adatbázis nélkül.
+     */
+    public Optional<ResponseEntity<byte[]>> replay(UUID clientId, UUID idempotencyKey) {
+        if (clientId == null || idempotencyKey == null) {
+            return Optional.empty();
+        }
+
+        ClientResponses client = responses.get(clientId);
+        if (client == null) {
+            return Optional.empty();
+        }
+
+        StoredResponse stored;
+        synchronized (client) {
+            stored = client.get(idempotencyKey);
+        }
+        if (stored == null || isExpired(stored.storedAtMillis())) {
+            return Optional.empty();
+        }
+
+        countReplay("memory");
+        return Optional.of(toResponse(stored.status(), stored.body()));
+    }
+
+    /**
+     * Visszajátszás a tartós táblából (ha a memóriában nincs meg, pl. másik példány vagy újraindítás után).
+     */
+    public Optional<ResponseEntity<byte[]>> replayDurable(UUID clientId, UUID idempotencyKey) {
+        Optional<ResponseEntity<byte[]>> cached = replay(clientId, idempotencyKey);
+        if (cached.isPresent() || clientId == null || idempotencyKey == null) {
+            return cached;
+        }
+
+        return repository.findByIdempotencyKeyAndClientId(idempotencyKey, clientId)
+            .filter(record -> !isExpired(record.getCreatedAt().toInstant().toEpochMilli()))
+            .map(record -> {
+                remember(clientId, idempotencyKey, new StoredResponse(record.getStatus(), record.getBody(),
+                    record.getCreatedAt().toInstant().toEpochMilli()));
+                countReplay("database");
+                return toResponse(record.getStatus(), record.getBody());
+            });
+    }
+
+    /**
+     * A sikeres válasz szerializálása, eltárolása és visszaadása: az első válasz is ezeket a bájtokat kapja.
+     */
+    public ResponseEntity<byte[]> store(UUID clientId, UUID idempotencyKey, Object body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+
+        int status = 200;
+        if (clientId != null && idempotencyKey != null) {
+            IdempotencyRecord record = IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .clientId(clientId)
+                .status(status)
+                .body(bytes)
+                .createdAt(OffsetDateTime.now(clock))
+                .build();
+            persist(record);
+            remember(clientId, idempotencyKey, new StoredResponse(status, bytes, clock.millis()));
+        }
+
+        return toResponse(status, bytes);
+    }
+
+    /**
+     * A lejárt bejegyzések törlése a memóriából és a táblából.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:1m}")
+    public void purgeExpired() {
+        responses.forEach((clientId, client) -> {
+            synchronized (client) {
+                client.values().removeIf(stored -> isExpired(stored.storedAtMillis()));
+            }
+        });
+        responses.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return entry.getValue().isEmpty();
+            }
+        });
+
+        int deleted = repository.deleteOlderThan(OffsetDateTime.now(clock).minus(ttl));
+        if (deleted > 0) {
+            log.debug("Lejárt idempotencia válaszok törölve: {}", deleted);
+        }
+    }
+
+    int cachedClients() {
+        return responses.size();
+    }
+
+    private void remember(UUID clientId, UUID idempotencyKey, StoredResponse stored) {
+        ClientResponses client = responses.computeIfAbsent(clientId, id -> new ClientResponses());
+        synchronized (client) {
+            client.put(idempotencyKey, stored);
+        }
+    }
+
+    private void persist(IdempotencyRecord record) {
+        try {
+            repository.save(record);
+        } catch (RuntimeException e) {
+            // Az akció már mentve van, a válasz nem bukhat el: a játékos utolsó kulcsa és a memóriabeli példány
+            // továbbra is véd, csak a tartós másolat hiányzik
+            log.warn("Idempotencia válasz mentése sikertelen ({}): {}", record.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private boolean isExpired(long storedAtMillis) {
+        return clock.millis() - storedAtMillis > ttl.toMillis();
+    }
+
+    private void countReplay(String source) {
+        Counter.builder(REPLAY_COUNTER)
+            .tag("source", source)
+            .register(registry)
+            .increment();
+    }
+
+    private static ResponseEntity<byte[]> toResponse(int status, byte[] body) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+}
@@ -1,11 +1,14 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
 import com.blackjack.blackjack.repository.PlayerRepository;
+import com.blackjack.blackjack.repository.PlayerSummary;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
@@ -13,9 +16,11 @@ import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
 @Service
 public class PlayerService {
     private final PlayerRepository playerRepository;
+    private final PlayerStateCache playerStateCache;
 
-    public PlayerService(PlayerRepository playerRepository) {
+    public PlayerService(PlayerRepository playerRepository, PlayerStateCache playerStateCache) {
         this.playerRepository = playerRepository;
+        this.playerStateCache = playerStateCache;
     }
 
     /**
@@ -40,6 +45,7 @@ public class PlayerService {
             .build();
 
         // Elmentjük az új, frissített objektumot.
+        playerStateCache.invalidate(updatedPlayer.getClientId());
         return playerRepository.save(updatedPlayer);
     }
 
@@ -59,6 +65,7 @@ public class PlayerService {
             .tokens(newTokens)
             .build();
 
+        playerStateCache.invalidate(updatedPlayer.getClientId());
         return playerRepository.save(updatedPlayer);
     }
 
@@ -76,6 +83,7 @@ public class PlayerService {
             .tokens(initialTokens)
             .build();
 
+        playerStateCache.invalidate(updatedPlayer.getClientId());
         return playerRepository.save(updatedPlayer);
     }
 
@@ -95,21 +103,91 @@ public class PlayerService {
             });
     }
 
+    /**
+     * A játékos betöltése; a játékállapot (jsonb) csak az első getCurrentGameState() híváskor deszerializálódik.
+     * Archivált állapot (GameStateArchiver) esetén előbb visszatölti, így a hívó ebből semmit nem lát.
+     * A gyorsítótárazott játékos (PlayerStateCache) adatbázis kör nélkül jön.
+     */
     public Player getAndValidatePlayer(UUID clientId) {
-        if (clientId == null) {
-            throw new org.springframework.web.server.ResponseStatusException(
-                org.springframework.http.HttpStatus.FORBIDDEN, "Missing Client ID");
+        requireClientId(clientId);
+        Optional<Player> cached = playerStateCache.get(clientId);
+        if (cached.isPresent()) {
+            return cached.get();
         }
-        return playerRepository.findByClientId(clientId)
-            .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
-                org.springframework.http.HttpStatus.NOT_FOUND, "Player not found"));
+
+        Player player = playerRepository.findLazyByClientId(clientId)
+            .orElseThrow(PlayerService::playerNotFound);
+
+        if (player.isArchived()) {
+            playerRepository.restoreArchived(clientId);
+            player = playerRepository.findLazyByClientId(clientId)
+                .orElseThrow(PlayerService::playerNotFound);
+        }
+        playerStateCache.put(player);
+        return player;
+    }
+
+    /**
+     * A játékos létezésének ellenőrzése a játékállapot lekérdezése nélkül.
+     */
+    public PlayerSummary getPlayerSummary(UUID clientId) {
+        requireClientId(clientId);
+        return playerRepository.findSummaryByClientId(clientId)
+            .orElseThrow(PlayerService::playerNotFound);
+    }
+
+    /**
+     * Új játék: kezdő tokenek, törölt állapot és az új idempotencia kulcs, betöltés nélkül.
+     *
+     * @return Az új token egyenleg.
+     */
+    @Transactional
+    public int restartPlayer(UUID clientId, UUID idempotencyKey) {
+        requireClientId(clientId);
+        playerStateCache.invalidate(clientId);
+        return playerRepository.resetGameState(clientId, INITIAL_TOKENS, idempotencyKey)
+            .orElseThrow(PlayerService::playerNotFound);
     }
 
     @Transactional
     public Player savePlayer(Player player) {
+        playerStateCache.invalidate(player.getClientId());
         return playerRepository.save(player);
     }
 
+    /**
+     * Egy játékakció mentése egyetlen adatbázis körben: új állapot, token változás és idempotencia kulcs.
+     * * @param clientId A játékos kliens azonosítója.
+     *
+     * @param expectedVersion A betöltött Player verziója; ha közben változott, nem ment.
+     * @param newState       Az akció utáni játékállapot.
+     * @param tokenDelta     A token változás (negatív levonásnál).
+     * @param idempotencyKey A kérés idempotencia kulcsa.
+     * @return Az új token egyenleg, vagy üres, ha a kérést már feldolgozták, ütközés történt vagy nincs elég token.
+     * A gyorsítótáron (PlayerStateCache) keresztül ír: write-behind módban a token változás nélküli lépés
+     * adatbázis kör nélkül is sikeres lehet.
+     */
+    public Optional<Integer> applyAction(UUID clientId, long expectedVersion, GameState newState, int tokenDelta,
+                                         UUID idempotencyKey) {
+        if (idempotencyKey == null) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                org.springframework.http.HttpStatus.BAD_REQUEST, "Missing Idempotency Key");
+        }
+        return playerStateCache.apply(clientId, expectedVersion, newState, tokenDelta, idempotencyKey);
+    }
+
+    private static void requireClientId(UUID clientId) {
+        if (clientId == null) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                org.springframework.http.HttpStatus.FORBIDDEN, "Missing Client ID");
+        }
+    }
+
+    private static org.springframework.web.server.ResponseStatusException playerNotFound() {
+        return new org.springframework.web.server.ResponseStatusException(
+            org.springframework.http.HttpStatus.NOT_FOUND, "Player not found");
+    }
+
     public boolean isDuplicateRequest(Player player, UUID incomingKey) {
         return player.getIdempotencyKey() != null &&
             player.getIdempotencyKey().equals(incomingKey);
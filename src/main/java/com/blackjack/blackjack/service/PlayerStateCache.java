@@ -0,0 +1,485 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.repository.PlayerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A játékosok (tokenek, idempotencia kulcs, verzió, GameState) memóriabeli példánya a PlayerRepository előtt.
+ * <p>
+ * Egy klienst általában egy példány szolgál ki a teljes munkamenetben, így az akciónkénti betöltés
+ * a gyorsítótárból jön. A token változás mindig szinkron íródik (applyAction). Write-behind módban
+ * a token változás nélküli, aktív körön belüli lépések (hit, split könyvelés, add_to_players_list_by_stand)
+ * csak a memóriában módosulnak, és háttérben (flush-interval), a következő token változással vagy a kör
+ * végén íródnak ki egyetlen UPDATE-tel. Strict módban minden akció azonnal íródik, mint eddig.
+ * <p>
+ * Ütköző írásnál (más példány vagy közvetlen reset írta a sort) a bejegyzés eldobódik, a következő kérés
+ * az adatbázisból tölt. Write-behind módban ilyenkor, illetve leállás nélküli összeomlásnál
+ * a ki nem írt lépések elvesznek: a játékos a legutóbb kiírt állapotból folytatja.
+ */
+@Service
+@Slf4j
+public class PlayerStateCache {
+    public static final String LOOKUP_COUNTER = "blackjack.player.cache";
+    public static final String WRITE_COUNTER = "blackjack.player.cache.writes";
+    public static final String FLUSH_COUNTER = "blackjack.player.cache.flushes";
+    public static final String EVICTION_COUNTER = "blackjack.player.cache.evictions";
+    public static final String FLUSH_LAG_TIMER = "blackjack.player.cache.flush.lag";
+    public static final String SIZE_GAUGE = "blackjack.player.cache.size";
+    public static final String DIRTY_GAUGE = "blackjack.player.cache.dirty";
+
+    public enum Durability {
+        STRICT, WRITE_BEHIND
+    }
+
+    private final PlayerRepository playerRepository;
+    private final MeterRegistry registry;
+    private final Durability durability;
+    private final int maxSize;
+    private final Duration idleAfter;
+    private final Clock clock;
+    private final Timer flushLag;
+
+    // Hozzáférési sorrendű: az első elem a legrégebben használt. Minden művelet a map monitora alatt fut
+    // (rövid, I/O nélküli szakaszok); a bejegyzés lockja és a map monitora közül mindig a bejegyzésé jön előbb,
+    // a map monitora alól csak tryLock-kal.
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public PlayerStateCache(PlayerRepository playerRepository, MeterRegistry registry,
+                            @Value("${app.player-cache.durability:strict}") String durability,
+                            @Value("${app.player-cache.max-size:10000}") int maxSize,
+                            @Value("${app.player-cache.idle-after:10m}") Duration idleAfter) {
+        this(playerRepository, registry, durability(durability), maxSize, idleAfter, Clock.systemUTC());
+    }
+
+    PlayerStateCache(PlayerRepository playerRepository, MeterRegistry registry, Durability durability,
+                     int maxSize, Duration idleAfter, Clock clock) {
+        this.playerRepository = playerRepository;
+        this.registry = registry;
+        this.durability = durability;
+        this.maxSize = Math.max(0, maxSize);
+        this.idleAfter = idleAfter;
+        this.clock = clock;
+        this.flushLag = Timer.builder(FLUSH_LAG_TIMER)
+            .description("Az első ki nem írt lépés és a kiírás között eltelt idő")
+            .publishPercentileHistogram()
+            .register(registry);
+
+        Gauge.builder(SIZE_GAUGE, this, PlayerStateCache::size)
+            .description("Gyorsítótárazott játékosok száma")
+            .register(registry);
+        Gauge.builder(DIRTY_GAUGE, this, PlayerStateCache::dirtyEntries)
+            .description("Ki nem írt állapotú játékosok száma")
+            .register(registry);
+    }
+
+    static Durability durability(String name) {
+        return switch (name) {
+            case "strict" -> Durability.STRICT;
+            case "write-behind" -> Durability.WRITE_BEHIND;
+            default -> throw new IllegalArgumentException("Unknown player cache durability: " + name);
+        };
+    }
+
+    /**
+     * A gyorsítótárazott állapot egy bejegyzése. Minden mező a lock alatt írható; ReentrantLock,
+     * mert a lock alatt adatbázis írás is futhat, és a virtuális szál így nem foglal platform szálat.
+     * A dirtySince és a lastAccess lock nélkül is olvasható (gauge, kiszorítási jelölt előszűrése).
+     */
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final UUID id;
+        private final UUID clientId;
+        private int tokens;
+        private UUID idempotencyKey;
+        private long version;
+        private GameState state;
+        // A betöltött játékos lusta állapota: a jsonb csak az első olvasáskor deszerializálódik (null: betöltve)
+        private Supplier<GameState> stateLoader;
+        // A legrégebbi ki nem írt lépés ideje (ms), vagy -1, ha az adatbázis naprakész
+        private volatile long dirtySince = -1;
+        private volatile long lastAccess;
+        private boolean removed;
+
+        private Entry(Player player, long now) {
+            this.id = player.getId();
+            this.clientId = player.getClientId();
+            this.tokens = player.getTokens();
+            this.idempotencyKey = player.getIdempotencyKey();
+            this.version = player.getVersion();
+            if (player.isGameStateLoaded()) {
+                this.state = player.getCurrentGameState();
+            } else {
+                // A játékos saját (memoizált) gettere: a hívó és a bejegyzés ugyanazt a példányt kapja
+                this.stateLoader = player::getCurrentGameState;
+            }
+            this.lastAccess = now;
+        }
+
+        private void setState(GameState newState) {
+            state = newState;
+            stateLoader = null;
+        }
+
+        private boolean isDirty() {
+            return dirtySince >= 0;
+        }
+
+        private Player toPlayer() {
+            Player.PlayerBuilder builder = Player.builder()
+                .id(id)
+                .clientId(clientId)
+                .tokens(tokens)
+                .idempotencyKey(idempotencyKey)
+                .version(version);
+            return (stateLoader != null)
+                ? builder.gameStateLoader(stateLoader).build()
+                : builder.currentGameState(state).build();
+        }
+    }
+
+    /**
+     * A gyorsítótárazott játékos (új példány, a hívó szabadon átépítheti).
+     */
+    public Optional<Player> get(UUID clientId) {
+        Entry entry = lookup(clientId);
+        if (entry != null) {
+            entry.lock.lock();
+            try {
+                if (!entry.removed) {
+                    entry.lastAccess = clock.millis();
+                    countLookup("hit");
+                    return Optional.of(entry.toPlayer());
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        countLookup("miss");
+        return Optional.empty();
+    }
+
+    /**
+     * Az adatbázisból betöltött játékos felvétele (a játékállapot betöltése nélkül). Tele gyorsítótárnál
+     * a legrégebben használt tiszta bejegyzés helyére kerül; ha csak ki nem írt bejegyzések vannak, a
+     * legrégebbi kiírása után. Sikertelen kiírásnál nem kerül be (a kérés így is kiszolgálható).
+     */
+    public void put(Player player) {
+        UUID clientId = player.getClientId();
+        if (clientId == null || player.isArchived() || maxSize == 0) {
+            return;
+        }
+
+        Entry dirtyEldest;
+        synchronized (entries) {
+            if (entries.containsKey(clientId)) {
+                return;
+            }
+            if (entries.size() < maxSize || evictEldestClean()) {
+                entries.put(clientId, new Entry(player, clock.millis()));
+                return;
+            }
+            dirtyEldest = entries.values().iterator().next();
+        }
+
+        // A kiírás adatbázis kör, ezért a map monitorán kívül fut; közben más is helyet foglalhatott
+        if (flushAndRemove(dirtyEldest)) {
+            synchronized (entries) {
+                if (entries.size() < maxSize) {
+                    entries.putIfAbsent(clientId, new Entry(player, clock.millis()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Egy akció mentése: write-behind módban a token változás nélküli, aktív körön belüli lépés
+     * a memóriában marad, minden más (és strict módban minden) azonnal íródik.
+     *
+     * @return Az új token egyenleg, vagy üres, ha az írás nem történt meg (mint PlayerRepository.applyAction).
+     */
+    public Optional<Integer> apply(UUID clientId, long expectedVersion, GameState newState, int tokenDelta,
+                                   UUID idempotencyKey) {
+        Entry entry = lookup(clientId);
+        if (entry == null) {
+            countWrite("through");
+            return playerRepository.applyAction(clientId, expectedVersion, newState, tokenDelta, idempotencyKey);
+        }
+
+        entry.lock.lock();
+        try {
+            if (entry.removed) {
+                countWrite("through");
+                return playerRepository.applyAction(clientId, expectedVersion, newState, tokenDelta, idempotencyKey);
+            }
+
+            long now = clock.millis();
+            entry.lastAccess = now;
+
+            if (canCoalesce(entry, expectedVersion, newState, tokenDelta, idempotencyKey)) {
+                if (!entry.isDirty()) {
+                    entry.dirtySince = now;
+                }
+                entry.setState(newState);
+                entry.idempotencyKey = idempotencyKey;
+                countWrite("coalesced");
+                return Optional.of(entry.tokens);
+            }
+
+            // A kiírt állapot a memóriában összevont lépéseket is tartalmazza (azokra épül)
+            countWrite("through");
+            Optional<Integer> tokens = playerRepository.applyAction(clientId, expectedVersion, newState, tokenDelta, idempotencyKey);
+            if (tokens.isEmpty()) {
+                // Ütközés, duplikátum vagy szabálysértés: a hívó friss betöltése már az adatbázisból jön
+                remove(entry, entry.isDirty() ? "discarded" : null);
+                return tokens;
+            }
+
+            if (entry.isDirty()) {
+                flushLag.record(now - entry.dirtySince, TimeUnit.MILLISECONDS);
+                countFlush("write_through");
+            }
+            entry.tokens = tokens.get();
+            entry.idempotencyKey = idempotencyKey;
+            entry.version = expectedVersion + 1;
+            entry.setState(newState);
+            entry.dirtySince = -1;
+            return tokens;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * A játékos eldobása (közvetlen adatbázis írás előtt, pl. reset): a ki nem írt lépések elvesznek.
+     */
+    public void invalidate(UUID clientId) {
+        if (clientId == null) {
+            return;
+        }
+        Entry entry = lookup(clientId);
+        if (entry == null) {
+            return;
+        }
+        entry.lock.lock();
+        try {
+            if (!entry.removed) {
+                remove(entry, null);
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * A ki nem írt állapotok kiírása és a tétlen bejegyzések eltávolítása (kiírás után).
+     */
+    @Scheduled(fixedDelayString = "${app.player-cache.flush-interval:1s}")
+    public void flushAndEvict() {
+        long idleCutoff = clock.millis() - idleAfter.toMillis();
+        for (Entry entry : snapshot()) {
+            entry.lock.lock();
+            try {
+                if (entry.removed) {
+                    continue;
+                }
+                if (entry.isDirty()) {
+                    flush(entry);
+                }
+                if (!entry.removed && entry.lastAccess < idleCutoff) {
+                    remove(entry, null);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Leállításkor minden ki nem írt állapot kiíródik.
+     */
+    @PreDestroy
+    public void flushAll() {
+        for (Entry entry : snapshot()) {
+            entry.lock.lock();
+            try {
+                if (!entry.removed && entry.isDirty()) {
+                    flush(entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Keresés, ami egyben a hozzáférési sorrend végére is teszi a bejegyzést.
+     */
+    private Entry lookup(UUID clientId) {
+        synchronized (entries) {
+            return entries.get(clientId);
+        }
+    }
+
+    private List<Entry> snapshot() {
+        synchronized (entries) {
+            return List.copyOf(entries.values());
+        }
+    }
+
+    private boolean canCoalesce(Entry entry, long expectedVersion, GameState newState, int tokenDelta, UUID idempotencyKey) {
+        return durability == Durability.WRITE_BEHIND
+            && tokenDelta == 0
+            && newState.isRoundActive()
+            && expectedVersion == entry.version
+            && idempotencyKey != null
+            && !idempotencyKey.equals(entry.idempotencyKey);
+    }
+
+    private void flush(Entry entry) {
+        try {
+            if (playerRepository.flushGameState(entry.clientId, entry.version, entry.state, entry.idempotencyKey)) {
+                flushLag.record(clock.millis() - entry.dirtySince, TimeUnit.MILLISECONDS);
+                entry.version++;
+                entry.dirtySince = -1;
+                countFlush("ok");
+            } else {
+                log.warn("Gyorsítótárazott állapot kiírása ütközés miatt elmaradt: {}", entry.clientId);
+                remove(entry, "conflict");
+            }
+        } catch (RuntimeException e) {
+            // A bejegyzés megmarad, a következő kör újrapróbálja
+            log.warn("Gyorsítótárazott állapot kiírása sikertelen ({}): {}", entry.clientId, e.getMessage());
+            countFlush("error");
+        }
+    }
+
+    /**
+     * A legrégebben használt tiszta bejegyzés kiesése (a map monitora alatt). A sor elején csak a ki nem írt
+     * és az éppen használt (zárolt) bejegyzések maradnak ki, így ez általában az első elem.
+     *
+     * @return true, ha felszabadult egy hely
+     */
+    private boolean evictEldestClean() {
+        Iterator<Entry> eldestFirst = entries.values().iterator();
+        while (eldestFirst.hasNext()) {
+            Entry entry = eldestFirst.next();
+            if (entry.isDirty() || !entry.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (entry.isDirty()) {
+                    continue;
+                }
+                entry.removed = true;
+                eldestFirst.remove();
+                countEviction();
+                return true;
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ki nem írt bejegyzés kiírása és eltávolítása. Sikertelen kiírásnál a bejegyzés marad, mert a ki nem
+     * írt lépései másutt nincsenek meg.
+     *
+     * @return true, ha a bejegyzés már nincs a gyorsítótárban
+     */
+    private boolean flushAndRemove(Entry entry) {
+        entry.lock.lock();
+        try {
+            if (!entry.removed && entry.isDirty()) {
+                flush(entry);
+            }
+            if (!entry.removed) {
+                if (entry.isDirty()) {
+                    return false;
+                }
+                remove(entry, null);
+                countEviction();
+            }
+            return true;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private void remove(Entry entry, String flushResult) {
+        entry.removed = true;
+        synchronized (entries) {
+            entries.remove(entry.clientId, entry);
+        }
+        if (flushResult != null) {
+            countFlush(flushResult);
+        }
+    }
+
+    private int dirtyEntries() {
+        int dirty = 0;
+        for (Entry entry : snapshot()) {
+            if (entry.dirtySince >= 0) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    private void countLookup(String result) {
+        Counter.builder(LOOKUP_COUNTER)
+            .tag("result", result)
+            .register(registry)
+            .increment();
+    }
+
+    private void countWrite(String mode) {
+        Counter.builder(WRITE_COUNTER)
+            .tag("mode", mode)
+            .register(registry)
+            .increment();
+    }
+
+    private void countEviction() {
+        Counter.builder(EVICTION_COUNTER)
+            .register(registry)
+            .increment();
+    }
+
+    private void countFlush(String result) {
+        Counter.builder(FLUSH_COUNTER)
+            .tag("result", result)
+            .register(registry)
+            .increment();
+    }
+}
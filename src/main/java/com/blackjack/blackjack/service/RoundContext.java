@@ -0,0 +1,40 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.model.GameState;
+
+/**
+ * Egy akció munkaállapota: a változások egyetlen GameState builderben gyűlnek, a cipő (amiből
+ * közben osztunk) külön mezőben, és az akció végén egyszer épül fel az új, immutábilis GameState.
+ * <p>
+ * Csak egy kérésen belül, egy szálon él; kifelé (controller, mentés) mindig a kész GameState megy.
+ */
+final class RoundContext {
+    private final GameState.GameStateBuilder state;
+    private Deck deck;
+
+    private RoundContext(GameState base) {
+        this.state = base.toBuilder();
+        this.deck = base.getDeck();
+    }
+
+    static RoundContext of(GameState base) {
+        return new RoundContext(base);
+    }
+
+    Deck deck() {
+        return deck;
+    }
+
+    void deck(Deck deck) {
+        this.deck = deck;
+    }
+
+    GameState.GameStateBuilder state() {
+        return state;
+    }
+
+    GameState build() {
+        return state.deck(deck).build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
+import org.springframework.stereotype.Service;
+
+import static com.blackjack.blackjack.model.PlayerAction.*;
+
+/**
+ * A kör állapotgépe: minden mentett átmenet után egyszer kiszámolja a fázist és az engedélyezett
+ * akciók bitmaszkját, és a GameState-be írja. A következő kérés ezt a maszkot ellenőrzi a motor
+ * és a mentés előtt, így a szabálytalan akció egy bitvizsgálattal, jsonb írás nélkül bukik el.
+ * <p>
+ * A maszk csak a kliens által is látható adatokból számolódik (az osztó takart blackjackje nem
+ * szivároghat ki a tiltott gombokon keresztül). A zseton fedezetet az akciók továbbra is maguk
+ * ellenőrzik, mert az egyenleg a mentett állapoton kívül változik.
+ */
+@Service
+public class RoundStateMachine {
+    private static final int BETTING_ACTIONS = CREATE_DECK.getBit() | BET.getBit();
+
+    private final TableRules tableRules;
+
+    public RoundStateMachine(TableRules tableRules) {
+        this.tableRules = tableRules;
+    }
+
+    /**
+     * Az átmenet eredménye a kiszámolt fázissal és maszkkal. A biztosítás csak közvetlenül
+     * az osztás után köthető, minden más akció után kikerül a maszkból.
+     */
+    public GameState advance(GameState state, PlayerAction taken) {
+        int allowed = computeAllowedActions(state);
+        if (taken != START_GAME) {
+            allowed &= ~INSURANCE.getBit();
+        }
+
+        return state.toBuilder()
+            .roundPhase(phase(state))
+            .allowedActions(allowed)
+            .build();
+    }
+
+    /**
+     * Szabálytalan akció esetén GameRuleException (400), mielőtt bármi lefutna vagy mentődne.
+     */
+    public void require(GameState state, PlayerAction action) {
+        if (!action.isAllowed(allowedActions(state))) {
+            throw new GameRuleException(action.name() + "_NOT_ALLOWED");
+        }
+    }
+
+    public int allowedActions(GameState state) {
+        return (state.getAllowedActions() != 0) ? state.getAllowedActions() : computeAllowedActions(state);
+    }
+
+    public RoundPhase phase(GameState state) {
+        if (!state.isRoundActive()) {
+            return RoundPhase.BETTING;
+        }
+        return state.isWasSplitInRound() ? RoundPhase.SPLIT_TURN : RoundPhase.PLAYER_TURN;
+    }
+
+    int computeAllowedActions(GameState state) {
+        PlayerHand hand = state.getPlayer();
+
+        return switch (phase(state)) {
+            case BETTING -> bettingActions(state);
+            case PLAYER_TURN -> (hand == null) ? 0 : playerTurnActions(state, hand);
+            case SPLIT_TURN -> (hand == null) ? 0 : splitTurnActions(state, hand);
+        };
+    }
+
+    private int bettingActions(GameState state) {
+        int allowed = BETTING_ACTIONS;
+        if (state.getBetList() != null && !state.getBetList().isEmpty()) {
+            allowed |= RETAKE_BET.getBit();
+        }
+        if (state.getBet() > 0) {
+            allowed |= START_GAME.getBit();
+        }
+        return allowed;
+    }
+
+    private int playerTurnActions(GameState state, PlayerHand hand) {
+        int cards = cardCount(hand);
+        DealerHandMasked dealer = state.getDealerMasked();
+
+        // A stand a besokallt kezet is elszámolja
+        int allowed = STAND.getBit();
+        if (isOpen(hand)) {
+            allowed |= HIT.getBit();
+        }
+        if (!hand.stated() && cards == 2) {
+            allowed |= DOUBLE.getBit();
+        }
+        if (dealer != null && dealer.canInsure() && cards == 2) {
+            allowed |= INSURANCE.getBit();
+        }
+        // A takart osztói blackjack a maszkolt nat21-ben NONE, így nem derül ki
+        if (dealer != null && dealer.nat21() != WinnerState.NONE.getValue()) {
+            allowed |= REWARDS.getBit();
+        }
+        if (tableRules.splitAllowed(hand, state.getHands())) {
+            allowed |= SPLIT.getBit();
+        }
+        return allowed;
+    }
+
+    private int splitTurnActions(GameState state, PlayerHand hand) {
+        SplitHands hands = state.getHands();
+
+        int allowed = SPLIT_STAND.getBit();
+        if (isOpen(hand)) {
+            allowed |= SPLIT_HIT.getBit();
+        }
+        if (!hand.stated() && cardCount(hand) == 2 && tableRules.doubleAfterSplit()) {
+            allowed |= SPLIT_DOUBLE.getBit();
+        }
+        if (tableRules.splitAllowed(hand, hands)) {
+            allowed |= SPLIT.getBit();
+        }
+        if (hands.hasUnstatedWaiting()) {
+            allowed |= STASH_SPLIT_HAND.getBit();
+        }
+        if (hands.nextActiveId().isPresent()) {
+            allowed |= NEXT_SPLIT_HAND.getBit();
+        }
+        if (hands.hasWaiting()) {
+            allowed |= COLLECT_SPLIT_HANDS.getBit();
+        }
+        return allowed;
+    }
+
+    private static boolean isOpen(PlayerHand hand) {
+        return !hand.stated() && hand.sum() < 21;
+    }
+
+    private static int cardCount(PlayerHand hand) {
+        return (hand.hand() != null) ? hand.hand().size() : 0;
+    }
+}
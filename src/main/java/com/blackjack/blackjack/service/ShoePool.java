@@ -0,0 +1,130 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.rules.TableRules;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Előre megkevert cipők korlátos készlete, amelyet egy háttérszál tölt fel, így az új cipő
+ * (create_deck, illetve a kifogyott cipő cseréje osztás közben) nem a kérés szálán keveredik.
+ * <p>
+ * A cipő lapsorrendje továbbra is a seed-ből következik (Deck.createNewDeck(seed)), hogy mentés után
+ * visszaépíthető legyen; a konfigurálható RNG a seed-eket adja:
+ * secure (SecureRandom, alapértelmezett), strong (SecureRandom.getInstanceStrong()) vagy fast (ThreadLocalRandom).
+ */
+@Component
+@Slf4j
+public class ShoePool {
+    public static final String POOL_COUNTER = "blackjack.shoe.pool";
+    public static final String POOL_SIZE_GAUGE = "blackjack.shoe.pool.size";
+
+    private final BlockingQueue<Deck> shoes;
+    private final LongSupplier seedSource;
+    private final int decks;
+    private final Counter hits;
+    private final Counter misses;
+    private final Thread filler;
+
+    @Autowired
+    public ShoePool(MeterRegistry registry,
+                    @Value("${app.shoe-pool.capacity:8}") int capacity,
+                    @Value("${app.shoe-pool.rng:secure}") String rng,
+                    TableRules tableRules) {
+        this(registry, capacity, seedSource(rng), tableRules.decks(), true);
+    }
+
+    ShoePool(MeterRegistry registry, int capacity, LongSupplier seedSource, int decks, boolean startFiller) {
+        this.shoes = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.seedSource = seedSource;
+        this.decks = decks;
+        this.hits = Counter.builder(POOL_COUNTER).tag("result", "hit")
+            .description("New shoes taken from the pre-shuffled pool")
+            .register(registry);
+        this.misses = Counter.builder(POOL_COUNTER).tag("result", "miss")
+            .description("New shoes shuffled on the request thread (pool empty)")
+            .register(registry);
+        Gauge.builder(POOL_SIZE_GAUGE, shoes, BlockingQueue::size)
+            .description("Pre-shuffled shoes ready in the pool")
+            .register(registry);
+
+        this.filler = startFiller
+            ? Thread.ofPlatform().name("shoe-pool-filler").daemon().priority(Thread.MIN_PRIORITY).start(this::fill)
+            : null;
+    }
+
+    /**
+     * Egy kész cipő a készletből, vagy szinkron keverés, ha a készlet éppen üres.
+     */
+    public Deck take() {
+        Deck shoe = shoes.poll();
+        if (shoe != null) {
+            hits.increment();
+            return shoe;
+        }
+
+        misses.increment();
+        return Deck.createNewDeck(seedSource.getAsLong(), decks);
+    }
+
+    /**
+     * Egy cipő hozzáadása, ha van hely (a háttérszál és a tesztek használják).
+     */
+    boolean refillOne() {
+        if (shoes.remainingCapacity() == 0) {
+            return false;
+        }
+        return shoes.offer(Deck.createNewDeck(seedSource.getAsLong(), decks));
+    }
+
+    int size() {
+        return shoes.size();
+    }
+
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // put blokkol, amíg a készlet tele van: nincs pörgés
+                shoes.put(Deck.createNewDeck(seedSource.getAsLong(), decks));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (filler != null) {
+            filler.interrupt();
+        }
+    }
+
+    static LongSupplier seedSource(String rng) {
+        return switch (rng.toLowerCase()) {
+            case "secure" -> new SecureRandom()::nextLong;
+            case "strong" -> {
+                try {
+                    yield SecureRandom.getInstanceStrong()::nextLong;
+                } catch (NoSuchAlgorithmException e) {
+                    log.warn("Erős SecureRandom nem elérhető, alapértelmezett SecureRandom: {}", e.getMessage());
+                    yield new SecureRandom()::nextLong;
+                }
+            }
+            case "fast" -> () -> ThreadLocalRandom.current().nextLong();
+            default -> throw new IllegalArgumentException("Unknown shoe pool RNG: " + rng);
+        };
+    }
+}
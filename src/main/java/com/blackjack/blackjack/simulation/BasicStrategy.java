@@ -0,0 +1,84 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.model.PackedHand;
+import com.blackjack.blackjack.model.Rank;
+
+/**
+ * Többpaklis alapstratégia (S17, double split után megengedett), biztosítás nélkül.
+ * Az osztó lapjának értéke 2..11 (ász = 11).
+ */
+public class BasicStrategy implements PlayerStrategy {
+
+    @Override
+    public Decision decide(DecisionContext context) {
+        PackedHand cards = PackedHand.copyOf(context.hand().hand());
+        int dealer = context.dealerUpCard().getBaseValue();
+
+        if (context.canSplit() && shouldSplit(cards.get(0).rank(), dealer)) {
+            return Decision.SPLIT;
+        }
+
+        Decision decision = cards.isSoft()
+            ? softDecision(cards.bestTotal(), dealer)
+            : hardDecision(cards.bestTotal(), dealer);
+
+        if (decision == Decision.DOUBLE && !context.canDouble()) {
+            // Kettőnél több lapnál a double helyett: soft 18 áll, minden más húz
+            return (cards.isSoft() && cards.bestTotal() == 18) ? Decision.STAND : Decision.HIT;
+        }
+        return decision;
+    }
+
+    private boolean shouldSplit(Rank rank, int dealer) {
+        return switch (rank) {
+            case ACE, EIGHT -> true;
+            case NINE -> dealer != 7 && dealer < 10;
+            case SEVEN, THREE, TWO -> dealer <= 7;
+            case SIX -> dealer <= 6;
+            case FOUR -> dealer == 5 || dealer == 6;
+            default -> false; // 10-es értékek és az 5-ös pár: nem splitelünk
+        };
+    }
+
+    private Decision softDecision(int total, int dealer) {
+        if (total >= 19) {
+            return Decision.STAND;
+        }
+        if (total == 18) {
+            if (dealer >= 3 && dealer <= 6) return Decision.DOUBLE;
+            return dealer <= 8 ? Decision.STAND : Decision.HIT;
+        }
+        if (total == 17) {
+            return (dealer >= 3 && dealer <= 6) ? Decision.DOUBLE : Decision.HIT;
+        }
+        if (total >= 15) {
+            return (dealer >= 4 && dealer <= 6) ? Decision.DOUBLE : Decision.HIT;
+        }
+        if (total >= 13) {
+            return (dealer == 5 || dealer == 6) ? Decision.DOUBLE : Decision.HIT;
+        }
+        return Decision.HIT; // A-A, amikor már nem splitelhető
+    }
+
+    private Decision hardDecision(int total, int dealer) {
+        if (total >= 17) {
+            return Decision.STAND;
+        }
+        if (total >= 13) {
+            return dealer <= 6 ? Decision.STAND : Decision.HIT;
+        }
+        if (total == 12) {
+            return (dealer >= 4 && dealer <= 6) ? Decision.STAND : Decision.HIT;
+        }
+        if (total == 11) {
+            return dealer <= 10 ? Decision.DOUBLE : Decision.HIT;
+        }
+        if (total == 10) {
+            return dealer <= 9 ? Decision.DOUBLE : Decision.HIT;
+        }
+        if (total == 9) {
+            return (dealer >= 3 && dealer <= 6) ? Decision.DOUBLE : Decision.HIT;
+        }
+        return Decision.HIT;
+    }
+}
@@ -0,0 +1,11 @@
+package com.blackjack.blackjack.simulation;
+
+/**
+ * A stratégia döntése egy kéz adott pillanatában (a megfelelő REST végpontok megfelelői).
+ */
+public enum Decision {
+    HIT,
+    STAND,
+    DOUBLE,
+    SPLIT
+}
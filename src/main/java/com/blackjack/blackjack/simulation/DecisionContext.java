@@ -0,0 +1,12 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.PlayerHand;
+
+/**
+ * Amit a stratégia egy döntésnél lát: az aktív kéz, az osztó felfordított lapja
+ * és hogy a motor szerint a double / split éppen megengedett-e.
+ */
+public record DecisionContext(PlayerHand hand, Card dealerUpCard, boolean canDouble, boolean canSplit,
+                              boolean splitHand) {
+}
@@ -0,0 +1,96 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.factory.DefaultPlayerHandFactory;
+import com.blackjack.blackjack.rules.TableRules;
+import com.blackjack.blackjack.service.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Párhuzamos Monte Carlo szimulátor: a köröket fork/join feladatokra bontja, minden
+ * levél saját RoundSimulator-t (saját cipő, saját RNG) kap. Az RNG-k egyetlen seed-ből
+ * SplittableRandom.split()-tel származnak, így azonos seed és körszám azonos eredményt ad.
+ * <p>
+ * A motor szolgáltatásai állapotmentesek, ezért a szálak közösen használják őket.
+ */
+public class MonteCarloSimulator {
+    // Ennyi körnél kisebb feladatot már nem bontunk tovább
+    static final long LEAF_ROUNDS = 50_000;
+
+    private final GameService gameService;
+    private final GameStateManager gameStateManager;
+    private final GameRuleEngine gameRuleEngine;
+    private final PlayerStrategy strategy;
+    private final int bet;
+
+    public MonteCarloSimulator(GameService gameService, GameStateManager gameStateManager, GameRuleEngine gameRuleEngine,
+                               PlayerStrategy strategy, int bet) {
+        this.gameService = gameService;
+        this.gameStateManager = gameStateManager;
+        this.gameRuleEngine = gameRuleEngine;
+        this.strategy = strategy;
+        this.bet = bet;
+    }
+
+    /**
+     * Spring nélkül összerakott motor, a megadott stratégiával (standard szabályprofil).
+     */
+    public static MonteCarloSimulator withDefaultEngine(PlayerStrategy strategy, int bet) {
+        return withDefaultEngine(strategy, bet, TableRules.STANDARD);
+    }
+
+    /**
+     * Spring nélkül összerakott motor, a megadott stratégiával és szabályprofillal.
+     */
+    public static MonteCarloSimulator withDefaultEngine(PlayerStrategy strategy, int bet, TableRules tableRules) {
+        HandValueCalculator handValueCalculator = new HandValueCalculator();
+        HandStateUpdater handStateUpdater = new HandStateUpdater();
+        GameRuleEngine gameRuleEngine = new GameRuleEngine();
+        GameStateManager gameStateManager = new GameStateManager(
+            gameRuleEngine, new DefaultPlayerHandFactory(), handValueCalculator, handStateUpdater,
+            new DeckService(tableRules), new DealerPlayEngine(handStateUpdater, tableRules));
+        GameService gameService = new GameService(gameRuleEngine, gameStateManager, handValueCalculator, handStateUpdater, tableRules);
+
+        return new MonteCarloSimulator(gameService, gameStateManager, gameRuleEngine, strategy, bet);
+    }
+
+    public SimulationResult run(long rounds, long seed, int parallelism) {
+        long start = System.nanoTime();
+
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            SimulationResult result = pool.invoke(new SimulationTask(rounds, new SplittableRandom(seed)));
+            return result.withElapsedNanos(System.nanoTime() - start);
+        }
+    }
+
+    public RoundSimulator newRoundSimulator(SplittableRandom random) {
+        return new RoundSimulator(gameService, gameStateManager, gameRuleEngine, strategy, random, bet);
+    }
+
+    private final class SimulationTask extends RecursiveTask<SimulationResult> {
+        private final long rounds;
+        private final SplittableRandom random;
+
+        private SimulationTask(long rounds, SplittableRandom random) {
+            this.rounds = rounds;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (rounds <= LEAF_ROUNDS) {
+                return newRoundSimulator(random).run(rounds);
+            }
+
+            long half = rounds / 2;
+            SimulationTask left = new SimulationTask(half, random.split());
+            SimulationTask right = new SimulationTask(rounds - half, random);
+
+            left.fork();
+            SimulationResult rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+}
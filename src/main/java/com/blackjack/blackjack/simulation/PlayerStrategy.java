@@ -0,0 +1,23 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.PlayerHand;
+
+/**
+ * Cserélhető játékos stratégia a szimulátorhoz. A szimulátor több szálon, közösen
+ * használja, ezért az implementációknak állapotmentesnek kell lenniük.
+ */
+public interface PlayerStrategy {
+
+    /**
+     * Csak megengedett döntést adhat vissza (DOUBLE csak canDouble, SPLIT csak canSplit esetén).
+     */
+    Decision decide(DecisionContext context);
+
+    /**
+     * Ász az osztónál: kér-e a játékos biztosítást.
+     */
+    default boolean takeInsurance(PlayerHand hand, Card dealerUpCard) {
+        return false;
+    }
+}
@@ -0,0 +1,196 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
+import com.blackjack.blackjack.service.GameRuleEngine;
+import com.blackjack.blackjack.service.GameService;
+import com.blackjack.blackjack.service.GameStateManager;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Egyetlen szál szimulátora: a valódi motoron (GameService / GameStateManager /
+ * GameRuleEngine) játszik le köröket REST és adatbázis nélkül, saját cipővel és RNG-vel.
+ * <p>
+ * A token változások ugyanazok, mint a GameController végpontjainál (tét levonása,
+ * double, split, biztosítás, nyeremény), így a kapott ház előny a jelenlegi szabályokat méri.
+ * A split kezek lezárása a frontend sorrendjét követi: add_to_players_list_by_stand →
+ * add_split_player_to_game, az utolsó kéznél split_stand_and_rewards, majd a félretett
+ * kezeket egyenként add_player_from_players + rewards számolja el; ez utóbbiaknál a
+ * nyertest a winnerStateUpdater adja az osztó végleges kezével szemben.
+ * <p>
+ * Nem szálbiztos: minden szál (fork/join levél) saját példányt használ.
+ */
+public class RoundSimulator {
+    // Ennél kevesebb lapnál a kör előtt új cipő jön, hogy kör közben ne fogyjon ki
+    private static final int RESHUFFLE_THRESHOLD = 52;
+
+    private final GameService gameService;
+    private final GameStateManager gameStateManager;
+    private final GameRuleEngine gameRuleEngine;
+    private final PlayerStrategy strategy;
+    private final SplittableRandom random;
+    private final int bet;
+
+    private GameState state;
+    private long net;
+
+    public RoundSimulator(GameService gameService, GameStateManager gameStateManager, GameRuleEngine gameRuleEngine,
+                          PlayerStrategy strategy, SplittableRandom random, int bet) {
+        this(gameService, gameStateManager, gameRuleEngine, strategy, random, bet,
+            Deck.createNewDeck(random.nextLong(), gameService.tableRules().decks()));
+    }
+
+    /**
+     * Adott kezdő cipővel (pl. előre összerakott lapsorral a tesztekben).
+     */
+    RoundSimulator(GameService gameService, GameStateManager gameStateManager, GameRuleEngine gameRuleEngine,
+                   PlayerStrategy strategy, SplittableRandom random, int bet, Deck initialDeck) {
+        this.gameService = gameService;
+        this.gameStateManager = gameStateManager;
+        this.gameRuleEngine = gameRuleEngine;
+        this.strategy = strategy;
+        this.random = random;
+        this.bet = bet;
+        this.state = GameState.builder()
+            .deck(initialDeck)
+            .build();
+    }
+
+    /**
+     * Lejátssza a megadott számú kört, és összesíti az eredményt (tét egységben).
+     */
+    public SimulationResult run(long rounds) {
+        double netUnits = 0.0;
+        double sumSquares = 0.0;
+
+        for (long i = 0; i < rounds; i++) {
+            double result = (double) playRound() / bet;
+            netUnits += result;
+            sumSquares += result * result;
+        }
+
+        return new SimulationResult(rounds, netUnits, sumSquares, 0);
+    }
+
+    /**
+     * Egy teljes kör a tét megtételétől az elszámolásig; a játékos nettó token változása.
+     */
+    public long playRound() {
+        net = -bet;
+        state = gameService.initializeNewRound(prepareBet(state));
+
+        DealerHandMasked dealerMasked = state.getDealerMasked();
+        Card upCard = dealerMasked.hand().get(1);
+
+        if (dealerMasked.canInsure() && strategy.takeInsurance(state.getPlayer(), upCard)) {
+            apply(gameService.insuranceRequest(state));
+            if (!state.isRoundActive()) {
+                return net;
+            }
+        }
+
+        // Csak a kliens által látott natúr számít: a takart osztói blackjack (nat21 = NONE) mellett
+        // a játékos tovább játszik, és a stand elszámolása viszi el a (duplázott, splitelt) tétet
+        if (state.getDealerMasked().nat21() != WinnerState.NONE.getValue()) {
+            apply(gameService.calculateRewards(state));
+            return net;
+        }
+
+        while (true) {
+            playActiveHand(upCard);
+
+            if (!state.isWasSplitInRound()) {
+                apply(gameService.calculateRewards(gameService.playerStand(state)));
+                return net;
+            }
+
+            if (gameStateManager.areStatedFalseHands(state.getHands())) {
+                nextSplitHand();
+            } else {
+                settleSplitRound();
+                return net;
+            }
+        }
+    }
+
+    private GameState prepareBet(GameState current) {
+        GameState.GameStateBuilder builder = current.toBuilder()
+            .bet(bet)
+            .betList(List.of(bet))
+            .isRoundActive(false);
+
+        if (current.getDeckLen() < RESHUFFLE_THRESHOLD) {
+            builder.deck(Deck.createNewDeck(random.nextLong(), gameService.tableRules().decks()));
+        }
+        return builder.build();
+    }
+
+    private void playActiveHand(Card upCard) {
+        while (true) {
+            PlayerHand hand = state.getPlayer();
+            if (hand.sum() >= 21) {
+                return;
+            }
+
+            boolean splitRound = state.isWasSplitInRound();
+            TableRules rules = gameService.tableRules();
+            boolean canDouble = hand.hand().size() == 2 && (!splitRound || rules.doubleAfterSplit());
+            boolean canSplit = rules.splitAllowed(hand, state.getHands());
+
+            Decision decision = strategy.decide(new DecisionContext(hand, upCard, canDouble, canSplit, splitRound));
+
+            switch (decision) {
+                case STAND -> {
+                    return;
+                }
+                case HIT -> state = gameService.playerHit(state);
+                case DOUBLE -> {
+                    requireAllowed(canDouble, decision);
+                    // double_request: a teljes tét, split_double_request: a kéz tétje
+                    int extra = splitRound ? hand.bet() : state.getBet();
+                    net -= extra;
+                    state = gameService.applyDoubleBet(gameService.playerHit(state), extra);
+                    return;
+                }
+                case SPLIT -> {
+                    requireAllowed(canSplit, decision);
+                    net -= state.getBet();
+                    state = gameService.splitHand(state);
+                }
+            }
+        }
+    }
+
+    private void nextSplitHand() {
+        String finishedId = state.getPlayer().id();
+
+        state = gameService.addSplitPlayerToGame(gameService.addToPlayersListByStand(state));
+
+        if (finishedId.equals(state.getPlayer().id())) {
+            throw new IllegalStateException("Split round did not advance past hand " + finishedId);
+        }
+    }
+
+    private void settleSplitRound() {
+        apply(gameService.calculateRewards(gameService.playerStand(state)));
+
+        while (state.getHands().hasWaiting()) {
+            state = gameService.addPlayerFromPlayers(state);
+            int winner = gameRuleEngine.winnerStateUpdater(state.getPlayer(), state.getDealerUnmasked());
+            apply(gameService.calculateRewards(state.toBuilder().winner(winner).build()));
+        }
+    }
+
+    private void apply(GameService.TransactionResult result) {
+        net += result.transactionResult();
+        state = result.gameState();
+    }
+
+    private static void requireAllowed(boolean allowed, Decision decision) {
+        if (!allowed) {
+            throw new IllegalStateException("Strategy returned a disallowed decision: " + decision);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.blackjack.blackjack.simulation;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.blackjack.blackjack.rules.RuleProfile;
+import com.blackjack.blackjack.rules.TableRules;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parancssori belépési pont (Spring és adatbázis nélkül):
+ * <pre>
+ * ./mvnw -q compile exec:java -Dexec.mainClass=com.blackjack.blackjack.simulation.SimulationMain -Dexec.args="100000000 42"
+ * </pre>
+ * Argumentumok: körök száma, seed, párhuzamosság, osztói szabály (alapértelmezés: 10 000 000, véletlen,
+ * magok száma, s17; h17 esetén a standard profil az osztó soft 17 húzásával).
+ */
+public final class SimulationMain {
+    private static final int BET = 10;
+
+    private SimulationMain() {
+    }
+
+    public static void main(String[] args) {
+        // A motor kör szintű INFO/DEBUG logjai több százmillió körnél a futásidőt mérnék
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        boolean dealerHitsSoft17 = args.length > 3 && args[3].equalsIgnoreCase("h17");
+        TableRules rules = dealerHitsSoft17
+            ? TableRules.compile("standard-h17", RuleProfile.STANDARD.toBuilder().dealerHitsSoft17(true).build())
+            : TableRules.STANDARD;
+
+        MonteCarloSimulator simulator = MonteCarloSimulator.withDefaultEngine(new BasicStrategy(), BET, rules);
+        SimulationResult result = simulator.run(rounds, seed, parallelism);
+
+        System.out.printf("Rounds:         %,d (seed %d, %d threads, %s)%n", result.rounds(), seed, parallelism,
+            dealerHitsSoft17 ? "H17" : "S17");
+        System.out.printf("House edge:     %.4f%% (+/- %.4f%%, 95%%)%n", result.houseEdge() * 100, result.standardError() * 196);
+        System.out.printf("Variance:       %.4f (std dev %.4f) per round, in base bets%n", result.variance(), Math.sqrt(result.variance()));
+        System.out.printf("Throughput:     %,.0f rounds/s (%.1f s)%n", result.roundsPerSecond(), result.elapsedNanos() / 1e9);
+    }
+}
@@ -0,0 +1,60 @@
+package com.blackjack.blackjack.simulation;
+
+/**
+ * Szimulációs eredmény, tét-egységben (a kör nettó eredménye / alaptét).
+ * A részeredmények merge-dzsel összevonhatók (fork/join levelek).
+ *
+ * @param rounds       lejátszott körök száma
+ * @param netUnits     a körök nettó eredményének összege (játékos szemszögből)
+ * @param sumSquares   a körönkénti nettó eredmények négyzetösszege
+ * @param elapsedNanos falióra idő (csak a teljes futásnál értelmes)
+ */
+public record SimulationResult(long rounds, double netUnits, double sumSquares, long elapsedNanos) {
+
+    public static SimulationResult empty() {
+        return new SimulationResult(0, 0.0, 0.0, 0);
+    }
+
+    public SimulationResult merge(SimulationResult other) {
+        return new SimulationResult(
+            rounds + other.rounds,
+            netUnits + other.netUnits,
+            sumSquares + other.sumSquares,
+            Math.max(elapsedNanos, other.elapsedNanos)
+        );
+    }
+
+    public SimulationResult withElapsedNanos(long nanos) {
+        return new SimulationResult(rounds, netUnits, sumSquares, nanos);
+    }
+
+    /**
+     * Átlagos nettó eredmény körönként (alaptét egységben).
+     */
+    public double mean() {
+        return rounds == 0 ? 0.0 : netUnits / rounds;
+    }
+
+    /**
+     * A ház előnye: a játékos átlagos veszteségének ellentettje, az alaptét arányában.
+     */
+    public double houseEdge() {
+        return -mean();
+    }
+
+    public double variance() {
+        if (rounds == 0) {
+            return 0.0;
+        }
+        double mean = mean();
+        return sumSquares / rounds - mean * mean;
+    }
+
+    public double standardError() {
+        return rounds == 0 ? 0.0 : Math.sqrt(variance() / rounds);
+    }
+
+    public double roundsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rounds * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,174 @@
+package com.blackjack.blackjack.websocket;
+
+import com.blackjack.blackjack.controller.BetController;
+import com.blackjack.blackjack.controller.GameController;
+import com.blackjack.blackjack.dto.ActionRequest;
+import com.blackjack.blackjack.dto.bet.BetRequest;
+import com.blackjack.blackjack.dto.error.ErrorResponse;
+import com.blackjack.blackjack.dto.socket.GameFrame;
+import com.blackjack.blackjack.dto.socket.GameFrameReply;
+import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.exception.GlobalExceptionHandler;
+import com.blackjack.blackjack.metrics.ActionMetrics;
+import com.blackjack.blackjack.service.PlayerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static java.util.Map.entry;
+
+/**
+ * Tartós játékcsatorna (/ws/game?clientId=...): ugyanazok az akciók, mint a REST végpontokon, kompakt frame-ekben.
+ * <p>
+ * A kliens azonosítása a kapcsolat felépítésekor egyszer történik meg, utána a clientId a kapcsolathoz kötött,
+ * a frame-ek csak az akciót és az idempotencia kulcsot hordozzák. Az akciók a controllereken keresztül futnak,
+ * így a sávok (ClientLanes), az isDuplicateRequest alapú duplikáció szűrés, az atomi mentés és a delta válasz
+ * pontosan ugyanaz, mint HTTP-n. A játékos állapotát akciónként továbbra is betöltjük, mert közben
+ * HTTP kérés is módosíthatja, és az idempotencia kulcs is ott tárolódik.
+ */
+@Component
+@Slf4j
+public class GameSocketHandler extends TextWebSocketHandler {
+    public static final String CLIENT_ID_ATTRIBUTE = "clientId";
+    public static final String SESSIONS_GAUGE = "blackjack.ws.sessions";
+
+    private final PlayerService playerService;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ActionMetrics actionMetrics;
+    private final ObjectMapper objectMapper;
+    private final Map<String, BiFunction<UUID, GameFrame, ResponseEntity<?>>> actions;
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    public GameSocketHandler(GameController gameController, BetController betController, PlayerService playerService,
+                             GlobalExceptionHandler exceptionHandler, ActionMetrics actionMetrics,
+                             ObjectMapper objectMapper, MeterRegistry registry) {
+        this.playerService = playerService;
+        this.exceptionHandler = exceptionHandler;
+        this.actionMetrics = actionMetrics;
+        this.objectMapper = objectMapper;
+
+        // Az akciónevek a REST végpontok nevei
+        this.actions = Map.ofEntries(
+            entry("create_deck", action(gameController::createDeck)),
+            entry("start_game", action(gameController::initializeNewRound)),
+            entry("hit", action(gameController::playerHit)),
+            entry("stand_and_rewards", action(gameController::standAndRewards)),
+            entry("double_request", action(gameController::doubleRequest)),
+            entry("ins_request", action(gameController::insuranceRequest)),
+            entry("rewards", action(gameController::rewards)),
+            entry("split_request", action(gameController::splitRequest)),
+            entry("add_to_players_list_by_stand", action(gameController::addToPlayersByStand)),
+            entry("add_split_player_to_game", action(gameController::addSplitPlayerToGame)),
+            entry("add_player_from_players", action(gameController::addPlayerFromPlayers)),
+            entry("split_hit", action(gameController::splitHit)),
+            entry("split_stand_and_rewards", action(gameController::splitStandAndRewards)),
+            entry("split_double_request", action(gameController::splitDoubleRequest)),
+            entry("bet", bet(betController::placeBet)),
+            entry("retake_bet", bet(betController::retakeBet))
+        );
+
+        Gauge.builder(SESSIONS_GAUGE, openSessions, AtomicInteger::get)
+            .description("Open WebSocket game connections")
+            .register(registry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        UUID clientId;
+        try {
+            String rawId = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst(CLIENT_ID_ATTRIBUTE);
+            clientId = UUID.fromString(rawId);
+            playerService.getPlayerSummary(clientId);
+        } catch (RuntimeException e) {
+            log.warn("WebSocket kapcsolat elutasítva: {}", e.getMessage());
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("INVALID_CLIENT"));
+            return;
+        }
+
+        session.getAttributes().put(CLIENT_ID_ATTRIBUTE, clientId);
+        openSessions.incrementAndGet();
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().remove(CLIENT_ID_ATTRIBUTE) != null) {
+            openSessions.decrementAndGet();
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        UUID clientId = (UUID) session.getAttributes().get(CLIENT_ID_ATTRIBUTE);
+        if (clientId == null) {
+            return;
+        }
+
+        GameFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), GameFrame.class);
+        } catch (JsonProcessingException e) {
+            send(session, new GameFrameReply(null, 400, new ErrorResponse("INVALID_FRAME")));
+            return;
+        }
+
+        BiFunction<UUID, GameFrame, ResponseEntity<?>> endpoint = frame.action() != null ? actions.get(frame.action()) : null;
+        ResponseEntity<?> response = (endpoint == null)
+            ? ResponseEntity.badRequest().body(new ErrorResponse("UNKNOWN_ACTION"))
+            : actionMetrics.withEndpoint("/ws/" + frame.action(), () -> execute(endpoint, clientId, frame));
+
+        // A mentett (visszajátszható) válaszok már szerializált JSON bájtok
+        Object body = response.getBody() instanceof byte[] bytes ? objectMapper.readTree(bytes) : response.getBody();
+        send(session, new GameFrameReply(frame.idempotencyKey(), response.getStatusCode().value(), body));
+    }
+
+    /**
+     * A hibák ugyanazt a státuszt és ErrorResponse-t adják, mint a REST végpontokon (GlobalExceptionHandler).
+     */
+    private ResponseEntity<?> execute(BiFunction<UUID, GameFrame, ResponseEntity<?>> endpoint, UUID clientId, GameFrame frame) {
+        try {
+            return endpoint.apply(clientId, frame);
+        } catch (GameRuleException e) {
+            return exceptionHandler.handleGameRuleException(e);
+        } catch (ResponseStatusException e) {
+            return exceptionHandler.handleResponseStatusException(e);
+        } catch (Exception e) {
+            return exceptionHandler.handleGlobalException(e);
+        }
+    }
+
+    private void send(WebSocketSession session, GameFrameReply reply) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(reply)));
+    }
+
+    private static BiFunction<UUID, GameFrame, ResponseEntity<?>> action(Function<ActionRequest, ResponseEntity<?>> endpoint) {
+        return (clientId, frame) -> {
+            ActionRequest request = new ActionRequest();
+            request.setClientId(clientId);
+            request.setIdempotencyKey(frame.idempotencyKey());
+            request.setAckVersion(frame.ackVersion());
+            return endpoint.apply(request);
+        };
+    }
+
+    private static BiFunction<UUID, GameFrame, ResponseEntity<?>> bet(Function<BetRequest, ResponseEntity<?>> endpoint) {
+        return (clientId, frame) -> endpoint.apply(
+            new BetRequest(clientId, frame.bet() != null ? frame.bet() : 0, frame.idempotencyKey()));
+    }
+}
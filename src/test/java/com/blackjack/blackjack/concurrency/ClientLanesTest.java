@@ -0,0 +1,111 @@
+package com.blackjack.blackjack.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientLanesTest {
+    private SimpleMeterRegistry registry;
+    private ClientLanes clientLanes;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clientLanes = new ClientLanes(registry, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Ugyanannak a játékosnak a kérései nem futhatnak egyszerre")
+    void sameClientActionsShouldBeSerialized() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(executor.submit(() -> clientLanes.run(clientId, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return running.decrementAndGet();
+                })));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(1, maxRunning.get(), "Két kérés egyszerre futott ugyanabban a sávban!");
+        assertEquals(0, clientLanes.activeLanes(), "A kiürült sávnak el kell tűnnie!");
+        assertEquals(50, registry.get(ClientLanes.WAIT_TIMER).timer().count());
+    }
+
+    @Test
+    @DisplayName("Különböző játékosok kérései nem várnak egymásra")
+    void differentClientsShouldRunInParallel() throws Exception {
+        CountDownLatch bothInside = new CountDownLatch(2);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Mindkét akció csak akkor végez, ha a másik is bent van: sorosítás esetén lejárna a várakozás
+            Future<Boolean> first = executor.submit(() -> clientLanes.run(UUID.randomUUID(), () -> arriveAndAwait(bothInside)));
+            Future<Boolean> second = executor.submit(() -> clientLanes.run(UUID.randomUUID(), () -> arriveAndAwait(bothInside)));
+
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertTrue(second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Ha a sáv nem szabadul fel időben, a kérés 429-cel elutasításra kerül")
+    void shouldRejectWhenLaneStaysBusy() throws Exception {
+        ClientLanes shortLanes = new ClientLanes(new SimpleMeterRegistry(), Duration.ofMillis(50));
+        UUID clientId = UUID.randomUUID();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Boolean> holder = executor.submit(() -> shortLanes.run(clientId, () -> {
+                holding.countDown();
+                return awaitQuietly(release);
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> shortLanes.run(clientId, () -> "nem futhat"));
+            assertEquals(429, ex.getStatusCode().value());
+
+            release.countDown();
+            assertTrue(holder.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, shortLanes.activeLanes());
+    }
+
+    private static boolean arriveAndAwait(CountDownLatch latch) {
+        latch.countDown();
+        return awaitQuietly(latch);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.blackjack.blackjack.controller;
 
+import com.blackjack.blackjack.config.RulesConfig;
 import com.blackjack.blackjack.dto.bet.BetRequest;
 import com.blackjack.blackjack.dto.bet.GameStateBet;
 import com.blackjack.blackjack.model.Deck;
 import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.repository.IdempotencyRecordRepository;
 import com.blackjack.blackjack.service.BetService;
+import com.blackjack.blackjack.service.IdempotencyResponseStore;
 import com.blackjack.blackjack.service.PlayerService;
+import com.blackjack.blackjack.service.RoundStateMachine;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,21 +18,30 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BetController.class)
+@Import({TestMetricsConfig.class, IdempotencyResponseStore.class, RulesConfig.class, RoundStateMachine.class})
 @AutoConfigureMockMvc(addFilters = false) // Kikapcsoljuk a biztonsági szűrőket a tiszta logika teszteléséhez
 public class BetControllerTest {
 
@@ -38,6 +51,8 @@ public class BetControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
     @MockitoBean
     private PlayerService playerService;
 
@@ -78,8 +93,7 @@ public class BetControllerTest {
         when(playerService.isDuplicateRequest(any(), any())).thenReturn(false);
         when(betService.placeBet(any(), anyInt())).thenReturn(betDto);
 
-        Player savedPlayer = mockPlayer.toBuilder().tokens(900).build();
-        when(playerService.deductBet(any(), anyInt())).thenReturn(savedPlayer);
+        when(playerService.applyAction(eq(clientId), anyLong(), any(), eq(-100), eq(idempotencyKey))).thenReturn(Optional.of(900));
 
         mockMvc.perform(post("/api/bet")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -115,13 +129,15 @@ public class BetControllerTest {
         BetRequest request = new BetRequest(clientId, 0, idempotencyKey);
         GameStateBet emptyBetDto = new GameStateBet(0, List.of(), 52);
         BetService.RetakeResult retakeResult = new BetService.RetakeResult(emptyBetDto, 50);
+        Player playerWithBet = mockPlayer.toBuilder()
+            .currentGameState(mockGameState.toBuilder().bet(50).betList(List.of(50)).build())
+            .build();
 
-        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(playerWithBet);
         when(playerService.isDuplicateRequest(any(), any())).thenReturn(false);
         when(betService.retakeBet(any())).thenReturn(retakeResult);
 
-        Player savedPlayer = mockPlayer.toBuilder().tokens(1050).build();
-        when(playerService.updateTokens(any(), anyInt())).thenReturn(savedPlayer);
+        when(playerService.applyAction(eq(clientId), anyLong(), any(), eq(50), eq(idempotencyKey))).thenReturn(Optional.of(1050));
 
         mockMvc.perform(post("/api/retake_bet")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -131,4 +147,67 @@ public class BetControllerTest {
             .andExpect(jsonPath("$.current_tokens").value(1050))
             .andExpect(jsonPath("$.game_state.bet").value(0));
     }
+
+    @Test
+    @DisplayName("Ismételt fogadás: a mentett válasz bájtra pontosan visszajön, újrafuttatás és betöltés nélkül")
+    void placeBet_ReplayReturnsStoredBytes() throws Exception {
+        BetRequest request = new BetRequest(clientId, 100, idempotencyKey);
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
+        when(betService.placeBet(any(), anyInt())).thenReturn(new GameStateBet(100, List.of(100), 52));
+        when(playerService.applyAction(eq(clientId), anyLong(), any(), eq(-100), eq(idempotencyKey))).thenReturn(Optional.of(900));
+
+        String first = mockMvc.perform(post("/api/bet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        String replay = mockMvc.perform(post("/api/bet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, replay);
+        verify(betService, times(1)).placeBet(any(), anyInt());
+        verify(playerService, times(1)).getAndValidatePlayer(clientId);
+    }
+
+    @Test
+    @DisplayName("Aktív körben a tét nem módosítható: a maszk még a szolgáltatás és a mentés előtt elutasítja")
+    void placeBet_RejectedDuringRound() throws Exception {
+        BetRequest request = new BetRequest(clientId, 100, idempotencyKey);
+        Player playerInRound = mockPlayer.toBuilder()
+            .currentGameState(mockGameState.toBuilder().isRoundActive(true).build())
+            .build();
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(playerInRound);
+
+        mockMvc.perform(post("/api/bet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error_code").value("BET_NOT_ALLOWED"));
+
+        verify(betService, never()).placeBet(any(), anyInt());
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Tét nélkül nincs mit visszavenni: RETAKE_BET_NOT_ALLOWED")
+    void retakeBet_RejectedWithoutBet() throws Exception {
+        BetRequest request = new BetRequest(clientId, 0, idempotencyKey);
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
+
+        mockMvc.perform(post("/api/retake_bet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error_code").value("RETAKE_BET_NOT_ALLOWED"));
+
+        verify(betService, never()).retakeBet(any());
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
 }
@@ -1,34 +1,54 @@
 package com.blackjack.blackjack.controller;
 
+import com.blackjack.blackjack.config.RulesConfig;
 import com.blackjack.blackjack.dto.ActionRequest;
+import com.blackjack.blackjack.dto.BatchActionRequest;
+import com.blackjack.blackjack.metrics.ActionMetrics;
 import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.DealerHandMasked;
 import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.IdempotencyRecord;
 import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.model.PlayerAction;
 import com.blackjack.blackjack.model.PlayerHand;
+import com.blackjack.blackjack.model.RoundPhase;
+import com.blackjack.blackjack.model.SplitHands;
+import com.blackjack.blackjack.repository.IdempotencyRecordRepository;
 import com.blackjack.blackjack.service.GameService;
+import com.blackjack.blackjack.service.GameStateDeltaService;
 import com.blackjack.blackjack.service.GameStateManager;
+import com.blackjack.blackjack.service.IdempotencyResponseStore;
 import com.blackjack.blackjack.service.PlayerService;
+import com.blackjack.blackjack.service.RoundStateMachine;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(GameController.class)
+@Import({TestMetricsConfig.class, GameStateDeltaService.class, IdempotencyResponseStore.class, RulesConfig.class, RoundStateMachine.class})
 @AutoConfigureMockMvc(addFilters = false) // Security kikapcsolása a logikai teszthez
 public class GameControllerTest {
 
@@ -38,6 +58,11 @@ public class GameControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
     @MockitoBean
     private GameService gameService;
     @MockitoBean
@@ -58,6 +83,7 @@ public class GameControllerTest {
         mockGameState = GameState.builder()
             .bet(100)
             .isRoundActive(true)
+            .player(PlayerHand.builder().id("P-001").hand(List.of(Card.of("♥5"), Card.of("♠6"))).sum(11).bet(100).build())
             .build();
 
         mockPlayer = Player.builder()
@@ -78,6 +104,7 @@ public class GameControllerTest {
 
         when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
         when(playerService.isDuplicateRequest(any(Player.class), eq(idempotencyKey))).thenReturn(true);
+        double duplicatesBefore = meterRegistry.counter(ActionMetrics.DUPLICATE_COUNTER, "endpoint", "/api/hit").count();
 
         mockMvc.perform(post("/api/hit")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -88,12 +115,14 @@ public class GameControllerTest {
 
         // Ellenőrizzük, hogy a játék logika (hit) NEM futott le
         verifyNoInteractions(gameService);
+        // A duplikált kérés számlálója az endpoint címkével nő
+        assertEquals(duplicatesBefore + 1, meterRegistry.counter(ActionMetrics.DUPLICATE_COUNTER, "endpoint", "/api/hit").count());
         // Ellenőrizzük, hogy mentés sem történt, mert csak visszaadtuk a régit
-        verify(playerService, never()).savePlayer(any());
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
     }
 
     @Test
-    @DisplayName("handleAction: Sima mentés - Ha tokenChange null, a savePlayer hívódik meg")
+    @DisplayName("handleAction: Sima mentés - Ha tokenChange null, 0 token változással ment")
     void handleAction_SimpleSave() throws Exception {
         ActionRequest req = new ActionRequest();
         req.setClientId(clientId);
@@ -102,20 +131,40 @@ public class GameControllerTest {
         when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
         when(playerService.isDuplicateRequest(any(), any())).thenReturn(false);
         when(gameService.playerHit(any())).thenReturn(mockGameState);
-        when(playerService.savePlayer(any())).thenReturn(mockPlayer);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(1000));
+        long responseBuildsBefore = meterRegistry.timer(ActionMetrics.PHASE_TIMER, "endpoint", "/api/hit", "phase", "response_build").count();
 
         mockMvc.perform(post("/api/hit")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.current_tokens").value(1000));
 
-        // Mivel a HIT nem változtat tokent, a sima savePlayer-nek kell futnia
-        verify(playerService).savePlayer(any());
+        // Minden fázis idejét rögzítjük az endpoint címkével
+        for (ActionMetrics.Phase phase : ActionMetrics.Phase.values()) {
+            assertTrue(meterRegistry.get(ActionMetrics.PHASE_TIMER)
+                .tag("endpoint", "/api/hit")
+                .tag("phase", phase.getTag())
+                .timer().count() > 0);
+        }
+        assertEquals(responseBuildsBefore + 1, meterRegistry.timer(ActionMetrics.PHASE_TIMER, "endpoint", "/api/hit", "phase", "response_build").count());
+
+        // Mivel a HIT nem változtat tokent, 0 token változással kell menteni
+        // A mentett állapot verziója eggyel nő, és megjegyzi a kiküldött nézetet
+        // A fázis és az engedélyezett akciók maszkja az átmenetkor számolódik
+        GameState expectedSaved = mockGameState.toBuilder()
+            .version(1)
+            .view("START")
+            .roundPhase(RoundPhase.PLAYER_TURN)
+            .allowedActions(PlayerAction.HIT.getBit() | PlayerAction.STAND.getBit() | PlayerAction.DOUBLE.getBit())
+            .build();
+        verify(playerService).applyAction(eq(clientId), anyLong(), eq(expectedSaved), eq(0), eq(idempotencyKey));
+        verify(playerService, never()).savePlayer(any());
         verify(playerService, never()).updateTokens(any(), anyInt());
     }
 
     @Test
-    @DisplayName("handleAction: Atomi mentés - Ha van tokenChange, az updateTokens hívódik meg")
+    @DisplayName("handleAction: Atomi mentés - Ha van tokenChange, az applyAction a változással hívódik meg")
     void handleAction_TokenUpdate() throws Exception {
         ActionRequest req = new ActionRequest();
         req.setClientId(clientId);
@@ -140,15 +189,17 @@ public class GameControllerTest {
         when(playerService.getAndValidatePlayer(clientId)).thenReturn(playerWithHand);
         when(gameService.playerHit(any())).thenReturn(stateWithHand);
         when(gameService.applyDoubleBet(any(), anyInt())).thenReturn(stateWithHand);
-        when(playerService.updateTokens(any(), anyInt())).thenReturn(playerWithHand);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(900));
 
         mockMvc.perform(post("/api/double_request")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.current_tokens").value(900));
 
-        // Ellenőrizzük az updateTokens hívást a negatív bet-tel (-100)
-        verify(playerService).updateTokens(any(), eq(-100));
+        // Ellenőrizzük az applyAction hívást a negatív bet-tel (-100), egyetlen betöltéssel
+        verify(playerService).applyAction(eq(clientId), anyLong(), any(), eq(-100), eq(idempotencyKey));
+        verify(playerService, times(1)).getAndValidatePlayer(clientId);
         verify(playerService, never()).savePlayer(any());
     }
 
@@ -177,14 +228,366 @@ public class GameControllerTest {
             .build();
 
         when(playerService.getAndValidatePlayer(clientId)).thenReturn(poorPlayer);
+        double violationsBefore = meterRegistry.counter(ActionMetrics.RULE_VIOLATION_COUNTER, "error_code", "NOT_ENOUGH_TOKENS").count();
 
         mockMvc.perform(post("/api/double_request")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
             .andExpect(status().isBadRequest()); // GameRuleException -> 400
 
+        assertEquals(violationsBefore + 1, meterRegistry.counter(ActionMetrics.RULE_VIOLATION_COUNTER, "error_code", "NOT_ENOUGH_TOKENS").count());
+
         // Ellenőrizzük, hogy a hiba miatt semmilyen mentés nem történt
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("handleAction: Párhuzamos duplikátum - Ha a mentés nem módosít sort, a mentett állapotot adjuk vissza")
+    void handleAction_ConcurrentDuplicate() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        Player alreadyProcessed = mockPlayer.toBuilder()
+            .tokens(800)
+            .idempotencyKey(idempotencyKey)
+            .build();
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer, alreadyProcessed);
+        when(playerService.isDuplicateRequest(mockPlayer, idempotencyKey)).thenReturn(false);
+        when(playerService.isDuplicateRequest(alreadyProcessed, idempotencyKey)).thenReturn(true);
+        when(gameService.playerHit(any())).thenReturn(mockGameState);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.current_tokens").value(800));
+    }
+
+    // --- KÖR ÁLLAPOTGÉP ---
+
+    @Test
+    @DisplayName("Állapotgép: a tiltott akció a motor és a mentés előtt 400-zal bukik el")
+    void disallowedActionRejectedBeforeEngineAndPersist() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        // Nem pár: nincs split; a tárolt maszkban nincs biztosítás (már nem az osztás utáni első döntés)
+        GameState stored = mockGameState.toBuilder()
+            .roundPhase(RoundPhase.PLAYER_TURN)
+            .allowedActions(PlayerAction.HIT.getBit() | PlayerAction.STAND.getBit())
+            .build();
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer.toBuilder().currentGameState(stored).build());
+        double violationsBefore = meterRegistry.counter(ActionMetrics.RULE_VIOLATION_COUNTER, "error_code", "SPLIT_NOT_ALLOWED").count();
+
+        mockMvc.perform(post("/api/split_request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error_code").value("SPLIT_NOT_ALLOWED"));
+
+        mockMvc.perform(post("/api/double_request")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error_code").value("DOUBLE_NOT_ALLOWED"));
+
+        assertEquals(violationsBefore + 1, meterRegistry.counter(ActionMetrics.RULE_VIOLATION_COUNTER, "error_code", "SPLIT_NOT_ALLOWED").count());
+        verifyNoInteractions(gameService);
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Állapotgép: a válasz a fázist és az új maszkot is visszaadja, a biztosítás csak az osztás után köthető")
+    void responseCarriesPhaseAndAllowedActions() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        GameState dealt = mockGameState.toBuilder()
+            .isRoundActive(false)
+            .dealerMasked(DealerHandMasked.builder().hand(List.of(Card.createMaskedCard(), Card.of("♣A"))).canInsure(true).build())
+            .build();
+        GameState started = dealt.toBuilder().isRoundActive(true).build();
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer.toBuilder().currentGameState(dealt).build());
+        when(gameService.initializeNewRound(any())).thenReturn(started);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(1000));
+
+        int expected = PlayerAction.HIT.getBit() | PlayerAction.STAND.getBit() | PlayerAction.DOUBLE.getBit() | PlayerAction.INSURANCE.getBit();
+        mockMvc.perform(post("/api/start_game")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.round_phase").value("PLAYER_TURN"))
+            .andExpect(jsonPath("$.allowed_actions").value(expected));
+
+        // Egy lap húzása után a biztosítás kikerül a maszkból
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer.toBuilder()
+            .currentGameState(started.toBuilder().allowedActions(expected).build()).build());
+        when(gameService.playerHit(any())).thenReturn(started);
+        req.setIdempotencyKey(UUID.randomUUID());
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.allowed_actions").value(expected & ~PlayerAction.INSURANCE.getBit()));
+    }
+
+    // --- DELTA VÁLASZ TESZTEK ---
+
+    private GameState versionedHitState(long version) {
+        return mockGameState.toBuilder()
+            .version(version)
+            .view("START")
+            .player(PlayerHand.builder().id("P-001").hand(List.of(Card.of("♥5"), Card.of("♠6"))).sum(11).bet(100).build())
+            .build();
+    }
+
+    @Test
+    @DisplayName("Delta: nyugtázott verziónál csak a változás megy ki (merge patch)")
+    void hit_AcknowledgedVersion_ReturnsDelta() throws Exception {
+        GameState acknowledged = versionedHitState(3);
+        GameState afterHit = acknowledged.toBuilder()
+            .player(acknowledged.getPlayer().toBuilder()
+                .hand(List.of(Card.of("♥5"), Card.of("♠6"), Card.of("♦9")))
+                .sum(20)
+                .build())
+            .build();
+
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+        req.setAckVersion(3L);
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer.toBuilder().currentGameState(acknowledged).build());
+        when(gameService.playerHit(any())).thenReturn(afterHit);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(1000));
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(4))
+            .andExpect(jsonPath("$.base_version").value(3))
+            .andExpect(jsonPath("$.game_state").isEmpty())
+            .andExpect(jsonPath("$.game_state_delta.player.hand.length()").value(3))
+            .andExpect(jsonPath("$.game_state_delta.player.sum").value(20))
+            .andExpect(jsonPath("$.game_state_delta.player.id").doesNotExist())
+            .andExpect(jsonPath("$.game_state_delta.bet").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Delta: elavult nyugtázott verziónál teljes snapshot a tartalék")
+    void hit_StaleVersion_ReturnsFullSnapshot() throws Exception {
+        GameState acknowledged = versionedHitState(5);
+
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+        req.setAckVersion(3L);
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer.toBuilder().currentGameState(acknowledged).build());
+        when(gameService.playerHit(any())).thenReturn(acknowledged);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(1000));
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(6))
+            .andExpect(jsonPath("$.base_version").doesNotExist())
+            .andExpect(jsonPath("$.game_state_delta").doesNotExist())
+            .andExpect(jsonPath("$.game_state.bet").value(100));
+    }
+
+    // --- KÖTEGELT AKCIÓK ---
+
+    private BatchActionRequest batch(String... actions) {
+        BatchActionRequest req = new BatchActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+        req.setActions(List.of(actions));
+        return req;
+    }
+
+    private Player playerWithPair() {
+        return mockPlayer.toBuilder()
+            .currentGameState(mockGameState.toBuilder()
+                .player(PlayerHand.builder().id("P-001").hand(List.of(Card.of("♥8"), Card.of("♠8"))).canSplit(true).sum(16).bet(100).build())
+                .build())
+            .build();
+    }
+
+    private GameState splitState() {
+        PlayerHand second = PlayerHand.builder().id("P-002").hand(List.of(Card.of("♠8"))).sum(8).bet(100).build();
+        return mockGameState.toBuilder()
+            .wasSplitInRound(true)
+            .player(PlayerHand.builder().id("P-001").hand(List.of(Card.of("♥8"), Card.of("♦3"))).sum(11).bet(100).build())
+            .hands(SplitHands.EMPTY.mark("P-001", false).put(second).mark("P-002", false))
+            .build();
+    }
+
+    @Test
+    @DisplayName("actions: a lépések sorrendben futnak, egyetlen mentés a nettó token változással")
+    void batchActions_SingleSaveWithNetDelta() throws Exception {
+        GameState split = splitState();
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(playerWithPair());
+        when(gameService.splitHand(any())).thenReturn(split);
+        when(gameService.playerHit(any())).thenReturn(split);
+        when(gameService.addToPlayersListByStand(any())).thenReturn(split);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.of(900));
+
+        mockMvc.perform(post("/api/actions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch("split_request", "split_hit", "add_to_players_list_by_stand"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.game_state_hint").value("HAND_SAVED"))
+            .andExpect(jsonPath("$.current_tokens").value(900));
+
+        var inOrder = inOrder(gameService);
+        inOrder.verify(gameService).splitHand(any());
+        inOrder.verify(gameService).playerHit(any());
+        inOrder.verify(gameService).addToPlayersListByStand(any());
+
+        // Egyetlen betöltés és egyetlen mentés, a split tétjével (-100)
+        verify(playerService, times(1)).getAndValidatePlayer(clientId);
+        verify(playerService, times(1)).applyAction(eq(clientId), anyLong(), any(), eq(-100), eq(idempotencyKey));
+    }
+
+    @Test
+    @DisplayName("actions: ha a futó egyenleg negatívba menne, semmi sem mentődik")
+    void batchActions_InsufficientTokensMidBatch() throws Exception {
+        Player poorPlayer = playerWithPair().toBuilder().tokens(50).build();
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(poorPlayer);
+        when(gameService.splitHand(any())).thenReturn(splitState());
+        when(gameService.playerStand(any())).thenReturn(mockGameState);
+        when(gameService.calculateRewards(any())).thenReturn(new GameService.TransactionResult(mockGameState, 400));
+
+        mockMvc.perform(post("/api/actions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch("split_request", "split_stand_and_rewards"))))
+            .andExpect(status().isBadRequest());
+
+        verify(gameService, never()).playerStand(any());
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("actions: ismeretlen akció esetén 400, betöltés nélkül")
+    void batchActions_UnknownAction() throws Exception {
+        mockMvc.perform(post("/api/actions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch("hit", "surrender"))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error_code").value("UNKNOWN_ACTION"));
+
+        verifyNoInteractions(gameService);
+        verify(playerService, never()).getAndValidatePlayer(any());
+    }
+
+    // --- OPTIMISTA ZÁROLÁS ---
+
+    @Test
+    @DisplayName("Ütközés: a lépés a friss állapoton újra fut, a mentés az új verzióval történik")
+    void handleAction_ConflictRetriesWithLatestVersion() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        Player stale = mockPlayer.toBuilder().version(7).build();
+        Player latest = mockPlayer.toBuilder().version(8).build();
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(stale, latest);
+        when(gameService.playerHit(any())).thenReturn(mockGameState);
+        when(playerService.applyAction(any(), eq(7L), any(), anyInt(), any())).thenReturn(Optional.empty());
+        when(playerService.applyAction(any(), eq(8L), any(), anyInt(), any())).thenReturn(Optional.of(1000));
+        double conflictsBefore = meterRegistry.counter(ActionMetrics.CONFLICT_COUNTER, "endpoint", "/api/hit", "outcome", "retried").count();
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.current_tokens").value(1000));
+
+        verify(gameService, times(2)).playerHit(any());
+        assertEquals(conflictsBefore + 1, meterRegistry.counter(ActionMetrics.CONFLICT_COUNTER, "endpoint", "/api/hit", "outcome", "retried").count());
+    }
+
+    @Test
+    @DisplayName("Ütközés: a próbálkozások elfogytával 409")
+    void handleAction_ConflictExhausted() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(
+            mockPlayer.toBuilder().version(1).build(),
+            mockPlayer.toBuilder().version(2).build(),
+            mockPlayer.toBuilder().version(3).build(),
+            mockPlayer.toBuilder().version(4).build());
+        when(gameService.playerHit(any())).thenReturn(mockGameState);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.error_code").value("CONCURRENT_MODIFICATION"));
+
+        verify(gameService, times(3)).playerHit(any());
+    }
+
+    // --- IDEMPOTENCIA VÁLASZ TÁR ---
+
+    @Test
+    @DisplayName("Régebbi kulcs ismétlése egy újabb kérés után: a tartós tárból visszajátszva, újrafuttatás nélkül")
+    void handleAction_OlderKeyReplayedFromDurableStore() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        byte[] storedBody = "{\"status\":\"SUCCESS\",\"current_tokens\":950}".getBytes();
+        // A játékos utolsó kulcsa már egy újabb kérésé, az UPDATE a tárolt kulcs miatt nem módosít sort
+        when(playerService.getAndValidatePlayer(clientId)).thenReturn(mockPlayer);
+        when(gameService.playerHit(any())).thenReturn(mockGameState);
+        when(playerService.applyAction(any(), anyLong(), any(), anyInt(), any())).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.findByIdempotencyKeyAndClientId(idempotencyKey, clientId))
+            .thenReturn(Optional.of(IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .clientId(clientId)
+                .status(200)
+                .body(storedBody)
+                .createdAt(OffsetDateTime.now())
+                .build()));
+
+        mockMvc.perform(post("/api/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(storedBody));
+    }
+
+    @Test
+    @DisplayName("set_restart: kezdő tokenek a játékos betöltése nélkül")
+    void setRestart_ResetsWithoutLoadingPlayer() throws Exception {
+        ActionRequest req = new ActionRequest();
+        req.setClientId(clientId);
+        req.setIdempotencyKey(idempotencyKey);
+
+        when(playerService.restartPlayer(clientId, idempotencyKey)).thenReturn(1000);
+
+        mockMvc.perform(post("/api/set_restart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.current_tokens").value(1000))
+            .andExpect(jsonPath("$.game_state_hint").value("GAME_RESET_TO_NULL"));
+
+        verify(playerService, never()).getAndValidatePlayer(any());
         verify(playerService, never()).savePlayer(any());
-        verify(playerService, never()).updateTokens(any(), anyInt());
     }
 }
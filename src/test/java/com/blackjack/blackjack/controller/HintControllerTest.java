@@ -0,0 +1,149 @@
+package com.blackjack.blackjack.controller;
+
+import com.blackjack.blackjack.dto.ActionRequest;
+import com.blackjack.blackjack.dto.hint.ExpectedValueHint;
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.DealerHandMasked;
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.model.WinnerState;
+import com.blackjack.blackjack.service.ExpectedValueService;
+import com.blackjack.blackjack.service.PlayerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(HintController.class)
+@Import(TestMetricsConfig.class)
+@AutoConfigureMockMvc(addFilters = false)
+class HintControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private PlayerService playerService;
+    @MockitoBean
+    private ExpectedValueService expectedValueService;
+
+    private UUID clientId;
+    private ActionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        clientId = UUID.randomUUID();
+        request = new ActionRequest();
+        request.setClientId(clientId);
+        request.setIdempotencyKey(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("ev_hint: aktív körben visszaadja az EV-ket, mentés nélkül")
+    void expectedValueHint_ActiveRound() throws Exception {
+        GameState state = GameState.builder().isRoundActive(true).build();
+        when(playerService.getAndValidatePlayer(clientId))
+            .thenReturn(Player.builder().clientId(clientId).tokens(990).currentGameState(state).build());
+        when(expectedValueService.calculate(state)).thenReturn(ExpectedValueHint.builder()
+            .stand(-0.54)
+            .hit(-0.51)
+            .bestAction("HIT")
+            .build());
+
+        mockMvc.perform(post("/api/ev_hint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.game_state.best_action").value("HIT"))
+            .andExpect(jsonPath("$.game_state.hit").value(-0.51))
+            .andExpect(jsonPath("$.game_state.double").doesNotExist())
+            .andExpect(jsonPath("$.current_tokens").value(990));
+
+        verify(playerService, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("ev_hint: aktív kör nélkül 400")
+    void expectedValueHint_NoActiveRound() throws Exception {
+        when(playerService.getAndValidatePlayer(clientId))
+            .thenReturn(Player.builder().clientId(clientId).tokens(1000)
+                .currentGameState(GameState.builder().isRoundActive(false).build()).build());
+
+        mockMvc.perform(post("/api/ev_hint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(expectedValueService);
+    }
+
+    @Test
+    @DisplayName("ev_hint: takart osztói blackjacknél is 200, a végpont nem árulja el a rejtett lapot")
+    void expectedValueHint_HiddenDealerBlackjack() throws Exception {
+        for (String upCard : List.of("♣A", "♣K")) {
+            GameState state = GameState.builder()
+                .isRoundActive(true)
+                .natural21(WinnerState.BLACKJACK_DEALER_WON.getValue())
+                .dealerMasked(DealerHandMasked.builder()
+                    .hand(List.of(Card.createMaskedCard(), Card.of(upCard)))
+                    .nat21(WinnerState.NONE.getValue())
+                    .build())
+                .build();
+            when(playerService.getAndValidatePlayer(clientId))
+                .thenReturn(Player.builder().clientId(clientId).tokens(990).currentGameState(state).build());
+            when(expectedValueService.calculate(state)).thenReturn(ExpectedValueHint.builder()
+                .stand(-0.8)
+                .hit(-0.85)
+                .bestAction("STAND")
+                .build());
+
+            mockMvc.perform(post("/api/ev_hint")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.game_state.best_action").value("STAND"))
+                .andExpect(jsonPath("$.game_state.stand").value(-0.8));
+        }
+    }
+
+    @Test
+    @DisplayName("ev_hint: a kliens által látott natúr után nincs döntés, 400")
+    void expectedValueHint_VisibleNatural() throws Exception {
+        GameState state = GameState.builder()
+            .isRoundActive(true)
+            .natural21(WinnerState.BLACKJACK_PLAYER_WON.getValue())
+            .dealerMasked(DealerHandMasked.builder()
+                .hand(List.of(Card.createMaskedCard(), Card.of("♣7")))
+                .nat21(WinnerState.BLACKJACK_PLAYER_WON.getValue())
+                .build())
+            .build();
+        when(playerService.getAndValidatePlayer(clientId))
+            .thenReturn(Player.builder().clientId(clientId).tokens(990).currentGameState(state).build());
+
+        mockMvc.perform(post("/api/ev_hint")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(expectedValueService);
+    }
+}
@@ -0,0 +1,21 @@
+package com.blackjack.blackjack.controller;
+
+import com.blackjack.blackjack.concurrency.ClientLanes;
+import com.blackjack.blackjack.concurrency.OptimisticRetryPolicy;
+import com.blackjack.blackjack.metrics.ActionMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@TestConfiguration
+@Import({ActionMetrics.class, ClientLanes.class, OptimisticRetryPolicy.class})
+public class TestMetricsConfig {
+
+    // A @WebMvcTest szelet nem hoz létre MeterRegistry-t, a számlálókat memóriában ellenőrizzük
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -1,5 +1,6 @@
 package com.blackjack.blackjack.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -80,4 +81,92 @@ class DeckTest {
         assertEquals(0, currentDeck.getDeckLength());
         assertTrue(currentDeck.deck().isEmpty());
     }
+
+    @Test
+    @DisplayName("Egymás utáni osztások a pakli eredeti sorrendjében adják a lapokat")
+    void consecutiveDealsShouldFollowOriginalOrder() {
+        Deck deck = Deck.createNewDeck();
+        List<Card> expectedOrder = List.copyOf(deck.deck());
+
+        Deck currentDeck = deck;
+        for (int i = 0; i < 10; i++) {
+            DealResult result = currentDeck.dealCard();
+            assertEquals(expectedOrder.get(i), result.dealtCard());
+            currentDeck = result.newDeck();
+        }
+
+        assertEquals(expectedOrder.subList(10, expectedOrder.size()), currentDeck.deck());
+        assertEquals(expectedOrder.size() - 10, currentDeck.getDeckLength());
+    }
+
+    @Test
+    @DisplayName("JSON-ba csak a még ki nem osztott lapok kerülnek, visszaolvasva ugyanaz a pakli")
+    void jsonRoundTripShouldKeepOnlyRemainingCards() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Deck deck = Deck.builder()
+            .deck(List.of(Card.of("♥A"), Card.of("♠10"), Card.of("♦K")))
+            .build();
+
+        Deck dealtDeck = deck.dealCard().newDeck();
+
+        String json = objectMapper.writeValueAsString(dealtDeck);
+        Deck restored = objectMapper.readValue(json, Deck.class);
+
+        assertEquals("[\"♠10\",\"♦K\"]", objectMapper.readTree(json).get("deck").toString());
+        assertEquals(dealtDeck, restored);
+        assertEquals(2, restored.getDeckLength());
+    }
+
+    @Test
+    @DisplayName("Azonos seed-ből mindig ugyanaz a lapsorrend épül fel")
+    void sameSeedShouldCreateSameOrder() {
+        Deck first = Deck.createNewDeck(12345L);
+        Deck second = Deck.createNewDeck(12345L);
+
+        assertEquals(first.deck(), second.deck());
+        assertEquals(52 * NUM_DECKS, first.getDeckLength());
+    }
+
+    @Test
+    @DisplayName("Seed-es pakli JSON-ja csak a seed-et és a pozíciót tartalmazza, a lapokat nem")
+    void seededDeckJsonShouldStoreSeedAndPositionOnly() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Deck deck = Deck.createNewDeck(987L);
+        for (int i = 0; i < 7; i++) {
+            deck = deck.dealCard().newDeck();
+        }
+
+        String json = objectMapper.writeValueAsString(deck);
+        Deck restored = objectMapper.readValue(json, Deck.class);
+
+        assertNull(objectMapper.readTree(json).get("deck"));
+        assertEquals(987L, objectMapper.readTree(json).get("seed").asLong());
+        assertEquals(7, objectMapper.readTree(json).get("position").asInt());
+        assertEquals(deck, restored);
+        assertEquals(deck.dealCard().dealtCard(), restored.dealCard().dealtCard());
+    }
+
+    @Test
+    @DisplayName("A vágókártya a penetration szerint kerül a cipőbe, osztás és JSON után is megmarad")
+    void cutCardShouldFollowPenetration() throws Exception {
+        Deck deck = Deck.createNewDeck(55L).withPenetration(0.75);
+        int total = 52 * NUM_DECKS;
+        int dealable = (int) Math.round(total * 0.75);
+
+        assertEquals(total - dealable, deck.reserve());
+        for (int i = 0; i < dealable - 1; i++) {
+            deck = deck.dealCard().newDeck();
+        }
+        assertFalse(deck.isPastCut());
+
+        deck = deck.dealCard().newDeck();
+        assertTrue(deck.isPastCut());
+        // Kör közben tovább osztható
+        assertEquals(total - dealable - 1, deck.dealCard().newDeck().getDeckLength());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Deck restored = objectMapper.readValue(objectMapper.writeValueAsString(deck), Deck.class);
+        assertTrue(restored.isPastCut());
+        assertEquals(deck.reserve(), restored.reserve());
+    }
 }
@@ -0,0 +1,68 @@
+package com.blackjack.blackjack.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedHandTest {
+
+    @Test
+    @DisplayName("Lapfelvételkor az összeg és az ászok száma inkrementálisan frissül")
+    void withShouldTrackHardTotalAndAces() {
+        PackedHand hand = PackedHand.of(Card.of("♥A"), Card.of("♠6"));
+
+        assertEquals(17, hand.bestTotal(), "A + 6 soft 17!");
+        assertTrue(hand.isSoft());
+
+        PackedHand afterHit = hand.with(Card.of("♦9"));
+
+        assertEquals(16, afterHit.bestTotal(), "Az ász 1-re vált, így 16!");
+        assertEquals(16, afterHit.hardTotal());
+        assertEquals(1, afterHit.aceCount());
+        assertFalse(afterHit.isSoft());
+        assertEquals(2, hand.size(), "Az eredeti kéz nem változhat!");
+    }
+
+    @Test
+    @DisplayName("A tömör kéz listaként ugyanazokat a lapokat adja vissza, sorrendhelyesen")
+    void shouldBehaveAsImmutableCardList() {
+        List<Card> cards = List.of(Card.of("♣10"), Card.of("♥A"), Card.of("♠2"));
+        PackedHand hand = PackedHand.copyOf(cards);
+
+        assertEquals(cards, hand);
+        assertEquals(cards.hashCode(), hand.hashCode());
+        assertSame(hand, PackedHand.copyOf(hand), "Már tömör kézből nem készülhet másolat!");
+        assertThrows(UnsupportedOperationException.class, () -> hand.add(Card.of("♦3")));
+    }
+
+    @Test
+    @DisplayName("Split csak két azonos vagy két 10-es értékű lapnál lehetséges")
+    void isSplittablePairShouldMatchRuleEngine() {
+        assertTrue(PackedHand.of(Card.of("♥8"), Card.of("♠8")).isSplittablePair());
+        assertTrue(PackedHand.of(Card.of("♥K"), Card.of("♠10")).isSplittablePair());
+        assertFalse(PackedHand.of(Card.of("♥8"), Card.of("♠9")).isSplittablePair());
+        assertFalse(PackedHand.of(Card.of("♥8"), Card.of("♠8"), Card.of("♦8")).isSplittablePair());
+    }
+
+    @Test
+    @DisplayName("A PlayerHand JSON formátuma a tömör tárolás mellett sem változik")
+    void playerHandJsonShouldKeepCardStrings() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        PlayerHand playerHand = PlayerHand.builder()
+            .id("P-001")
+            .hand(List.of(Card.of("♥A"), Card.of("♠10")))
+            .sum(21)
+            .build();
+
+        String json = mapper.writeValueAsString(playerHand);
+        PlayerHand restored = mapper.readValue(json, PlayerHand.class);
+
+        assertEquals("[\"♥A\",\"♠10\"]", mapper.readTree(json).get("hand").toString());
+        assertInstanceOf(PackedHand.class, restored.hand());
+        assertEquals(playerHand, restored);
+    }
+}
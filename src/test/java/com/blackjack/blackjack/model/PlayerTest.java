@@ -0,0 +1,47 @@
+package com.blackjack.blackjack.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerTest {
+
+    @Test
+    @DisplayName("A lusta játékállapot csak az első hozzáféréskor töltődik be, egyszer")
+    void lazyGameStateShouldLoadOnFirstAccess() {
+        AtomicInteger loads = new AtomicInteger();
+        GameState state = GameState.builder().bet(50).build();
+        Player player = Player.builder()
+            .tokens(950)
+            .gameStateLoader(() -> {
+                loads.incrementAndGet();
+                return state;
+            })
+            .build();
+
+        assertEquals(950, player.getTokens());
+        assertFalse(player.isGameStateLoaded());
+        assertEquals(0, loads.get());
+
+        assertSame(state, player.getCurrentGameState());
+        assertSame(state, player.getCurrentGameState());
+        assertTrue(player.isGameStateLoaded());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Az explicit állapot (builder vagy setter) felülírja a még be nem töltött állapotot")
+    void explicitGameStateShouldOverrideLoader() {
+        Player lazy = Player.builder()
+            .gameStateLoader(() -> GameState.builder().bet(50).build())
+            .build();
+
+        assertNull(lazy.toBuilder().currentGameState(null).build().getCurrentGameState());
+
+        lazy.setCurrentGameState(null);
+        assertNull(lazy.getCurrentGameState());
+    }
+}
@@ -0,0 +1,72 @@
+package com.blackjack.blackjack.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitHandsTest {
+
+    private static PlayerHand hand(String id, boolean stated) {
+        return PlayerHand.builder().id(id).hand(List.of(Card.of("♠8"))).stated(stated).bet(10).build();
+    }
+
+    @Test
+    @DisplayName("A split menet lépései: a következő aktív kéz mindig a legkisebb le nem zárt azonosító")
+    void splitFlowShouldTrackNextActiveHand() {
+        PlayerHand second = hand("P-002", false);
+        PlayerHand third = hand("P-003", false);
+
+        SplitHands hands = SplitHands.EMPTY
+            .mark("P-001", false)
+            .put(third).mark("P-003", false)
+            .put(second).mark("P-002", false);
+
+        assertEquals(Optional.of("P-001"), hands.nextActiveId());
+        assertEquals(List.of("P-002", "P-003"), List.copyOf(hands.players().keySet()), "A slotok azonosító szerint rendezettek!");
+        assertTrue(hands.hasUnstatedWaiting());
+
+        // Stand az első kézen, majd a következő kéz aktívvá válik
+        SplitHands afterStand = hands.put(hand("P-001", true)).mark("P-001", true);
+        assertEquals(Optional.of("P-002"), afterStand.nextActiveId());
+
+        SplitHands afterActivate = afterStand.remove("P-002");
+        assertEquals(2, afterActivate.waitingCount());
+        assertNull(afterActivate.waiting("P-002"));
+        assertEquals(Map.of("P-001", true, "P-002", false, "P-003", false), afterActivate.playersIndex());
+
+        // Az eredeti példányok nem változnak, a kezek referenciái közösek
+        assertSame(third, afterActivate.waiting("P-003"));
+        assertEquals(2, hands.waitingCount());
+        assertEquals(Optional.of("P-001"), hands.nextActiveId());
+    }
+
+    @Test
+    @DisplayName("Map alakból felépítve és a GameState JSON-jában ugyanaz a players / playersIndex szerkezet marad")
+    void shouldKeepMapShapeInJson() throws Exception {
+        Map<String, PlayerHand> players = Map.of("P-003", hand("P-003", false), "P-001", hand("P-001", true));
+        Map<String, Boolean> index = Map.of("P-001", true, "P-002", false, "P-003", false);
+
+        GameState state = GameState.builder().playersIndex(index).players(players).build();
+
+        assertEquals(SplitHands.of(players, index), state.getHands(), "A builder hívások sorrendje nem számít!");
+        assertEquals(players, state.getPlayers());
+        assertEquals(index, state.getPlayersIndex());
+        assertEquals(Optional.of("P-002"), state.getHands().nextActiveId());
+        assertEquals(Optional.of("P-001"), state.getHands().firstWaitingId());
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(state);
+        assertFalse(mapper.readTree(json).has("hands"));
+        assertTrue(mapper.readTree(json).get("players").has("P-003"));
+
+        GameState restored = mapper.readValue(json, GameState.class);
+        assertEquals(state.getHands(), restored.getHands());
+        assertThrows(UnsupportedOperationException.class, () -> restored.getPlayers().remove("P-001"));
+    }
+}
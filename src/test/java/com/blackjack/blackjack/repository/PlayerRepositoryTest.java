@@ -1,5 +1,7 @@
 package com.blackjack.blackjack.repository;
 
+import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,11 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -36,4 +38,116 @@ class PlayerRepositoryTest {
         assertTrue(found.isPresent());
         assertEquals(clientId, found.get().getClientId());
     }
+
+    @Test
+    @DisplayName("findLazyByClientId / findSummaryByClientId: a játékállapot csak hozzáféréskor töltődik be")
+    void testLazyAndSummaryLoading() {
+        UUID clientId = UUID.randomUUID();
+        UUID key = UUID.randomUUID();
+        playerRepository.saveAndFlush(Player.builder()
+            .clientId(clientId)
+            .tokens(900)
+            .idempotencyKey(key)
+            .currentGameState(GameState.builder().bet(100).build())
+            .build());
+
+        PlayerSummary summary = playerRepository.findSummaryByClientId(clientId).orElseThrow();
+        assertEquals(900, summary.getTokens());
+        assertEquals(key, summary.getIdempotencyKey());
+
+        Player lazy = playerRepository.findLazyByClientId(clientId).orElseThrow();
+        assertEquals(key, lazy.getIdempotencyKey());
+        assertFalse(lazy.isGameStateLoaded());
+        assertEquals(100, lazy.getCurrentGameState().getBet());
+
+        assertEquals(Optional.of(1000), playerRepository.resetGameState(clientId, 1000, null));
+        assertNull(playerRepository.findLazyByClientId(clientId).orElseThrow().getCurrentGameState());
+    }
+
+    @Test
+    @DisplayName("applyAction: a seed-es cipő külön táblába kerül, betöltéskor visszaépül")
+    void testShoeStoredSeparately() {
+        UUID clientId = UUID.randomUUID();
+        Player saved = playerRepository.saveAndFlush(Player.builder()
+            .clientId(clientId)
+            .tokens(1000)
+            .idempotencyKey(UUID.randomUUID())
+            .build());
+        Deck dealt = Deck.createNewDeck(42L).dealCard().newDeck();
+
+        Optional<Integer> tokens = playerRepository.applyAction(clientId, saved.getVersion(),
+            GameState.builder().deck(dealt).bet(10).build(), -10, UUID.randomUUID());
+
+        assertEquals(Optional.of(990), tokens);
+        Deck loaded = playerRepository.findLazyByClientId(clientId).orElseThrow().getCurrentGameState().getDeck();
+        assertEquals(42L, loaded.seed());
+        assertEquals(dealt.getDeckLength(), loaded.getDeckLength());
+        assertNull(playerRepository.findByClientId(clientId).orElseThrow().getCurrentGameState().getDeck());
+    }
+
+    @Test
+    @DisplayName("resetGameState: a külön tárolt cipő is törlődik, a következő állapot nem kapja vissza")
+    void testResetDropsStoredShoe() {
+        UUID clientId = UUID.randomUUID();
+        Player saved = playerRepository.saveAndFlush(Player.builder()
+            .clientId(clientId)
+            .tokens(1000)
+            .idempotencyKey(UUID.randomUUID())
+            .build());
+        playerRepository.applyAction(clientId, saved.getVersion(),
+            GameState.builder().deck(Deck.createNewDeck(11L)).bet(20).build(), -20, UUID.randomUUID());
+
+        assertEquals(Optional.of(1000), playerRepository.resetGameState(clientId, 1000, null));
+
+        Player reset = playerRepository.findLazyByClientId(clientId).orElseThrow();
+        playerRepository.applyAction(clientId, reset.getVersion(), GameState.builder().bet(10).build(), -10, UUID.randomUUID());
+
+        assertNull(playerRepository.findLazyByClientId(clientId).orElseThrow().getCurrentGameState().getDeck(),
+            "A reset előtti cipő nem töltődhet vissza!");
+    }
+
+        @Test
+    @DisplayName("archiveIdle / restoreArchived: az inaktív állapot archiválódik, majd változatlanul visszatöltődik")
+    void testArchiveAndRestore() {
+        UUID clientId = UUID.randomUUID();
+        Player saved = playerRepository.saveAndFlush(Player.builder()
+            .clientId(clientId)
+            .tokens(1000)
+            .idempotencyKey(UUID.randomUUID())
+            .build());
+        playerRepository.applyAction(clientId, saved.getVersion(),
+            GameState.builder().deck(Deck.createNewDeck(7L)).bet(30).build(), -30, UUID.randomUUID());
+
+        assertEquals(1, playerRepository.archiveIdle(OffsetDateTime.now().plusMinutes(1), 10));
+        assertTrue(playerRepository.findLazyByClientId(clientId).orElseThrow().isArchived());
+
+        assertTrue(playerRepository.restoreArchived(clientId));
+        Player restored = playerRepository.findLazyByClientId(clientId).orElseThrow();
+        assertFalse(restored.isArchived());
+        assertEquals(30, restored.getCurrentGameState().getBet());
+        assertEquals(7L, restored.getCurrentGameState().getDeck().seed());
+    }
+
+    @Test
+    @DisplayName("flushGameState: token változás nélkül írja ki az állapotot, elavult verziónál nem ír")
+    void testFlushGameState() {
+        UUID clientId = UUID.randomUUID();
+        Player saved = playerRepository.saveAndFlush(Player.builder()
+            .clientId(clientId)
+            .tokens(1000)
+            .idempotencyKey(UUID.randomUUID())
+            .build());
+        UUID key = UUID.randomUUID();
+
+        assertTrue(playerRepository.flushGameState(clientId, saved.getVersion(),
+            GameState.builder().deck(Deck.createNewDeck(9L)).bet(40).isRoundActive(true).build(), key));
+        assertFalse(playerRepository.flushGameState(clientId, saved.getVersion(), GameState.builder().build(), key));
+
+        Player flushed = playerRepository.findLazyByClientId(clientId).orElseThrow();
+        assertEquals(1000, flushed.getTokens());
+        assertEquals(key, flushed.getIdempotencyKey());
+        assertEquals(saved.getVersion() + 1, flushed.getVersion());
+        assertEquals(40, flushed.getCurrentGameState().getBet());
+        assertEquals(9L, flushed.getCurrentGameState().getDeck().seed());
+    }
 }
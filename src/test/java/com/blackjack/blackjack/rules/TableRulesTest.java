@@ -0,0 +1,71 @@
+package com.blackjack.blackjack.rules;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.PlayerHand;
+import com.blackjack.blackjack.model.SplitHands;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.blackjack.blackjack.model.WinnerState.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableRulesTest {
+
+    private static final TableRules SIX_TO_FIVE = TableRules.compile("six-to-five",
+        RuleProfile.STANDARD.toBuilder().decks(6).blackjackPayout("6:5").resplitLimit(1).build());
+
+    private static PlayerHand pair(String id) {
+        return PlayerHand.builder().id(id).hand(List.of(Card.of("♠8"), Card.of("♥8"))).canSplit(true).build();
+    }
+
+    @Test
+    @DisplayName("Elszámolás a lefordított táblából: ugyanaz, mint a korábbi szorzók, a blackjack a profil szerint")
+    void settlementShouldFollowProfilePayout() {
+        TableRules standard = TableRules.STANDARD;
+        int dealerNone = NONE.getValue();
+
+        assertEquals(25, standard.settle(BLACKJACK_PLAYER_WON.getValue(), NONE.getValue(), dealerNone, 10));
+        assertEquals(15, standard.settle(BLACKJACK_PLAYER_WON.getValue(), NONE.getValue(), dealerNone, 6), "3:2, lefelé kerekítve");
+        assertEquals(22, SIX_TO_FIVE.settle(BLACKJACK_PLAYER_WON.getValue(), NONE.getValue(), dealerNone, 10));
+
+        for (TableRules rules : List.of(standard, SIX_TO_FIVE)) {
+            assertEquals(20, rules.settle(NONE.getValue(), PLAYER_WON.getValue(), dealerNone, 10));
+            assertEquals(10, rules.settle(NONE.getValue(), PUSH.getValue(), dealerNone, 10));
+            assertEquals(10, rules.settle(NONE.getValue(), NONE.getValue(), BLACKJACK_PUSH.getValue(), 10));
+            assertEquals(0, rules.settle(NONE.getValue(), PLAYER_WON.getValue(), BLACKJACK_DEALER_WON.getValue(), 10));
+            assertEquals(0, rules.settle(NONE.getValue(), PLAYER_LOST.getValue(), dealerNone, 10));
+            assertEquals(0, rules.settle(NONE.getValue(), 42, dealerNone, 10), "Ismeretlen kód: nincs kifizetés");
+        }
+    }
+
+    @Test
+    @DisplayName("Split limit, DAS és cipőméret a profilból")
+    void profileLimitsShouldApply() {
+        SplitHands oneSplit = SplitHands.EMPTY.put(pair("P-002")).mark("P-002", false);
+
+        assertTrue(TableRules.STANDARD.splitAllowed(pair("P-001"), oneSplit));
+        assertFalse(SIX_TO_FIVE.splitAllowed(pair("P-001"), oneSplit), "Egy split után nincs resplit!");
+        assertTrue(SIX_TO_FIVE.splitAllowed(pair("P-001"), SplitHands.EMPTY));
+        assertFalse(TableRules.STANDARD.splitAllowed(pair("P-001").toBuilder().canSplit(false).build(), SplitHands.EMPTY));
+        assertFalse(TableRules.STANDARD.splitAllowed(null, SplitHands.EMPTY));
+
+        assertEquals(104, TableRules.STANDARD.shoeLength());
+        assertEquals(312, SIX_TO_FIVE.shoeLength());
+        assertTrue(TableRules.STANDARD.doubleAfterSplit());
+        assertFalse(TableRules.STANDARD.dealerHitsSoft17());
+    }
+
+    @Test
+    @DisplayName("Hibás profil már lefordításkor hibát dob")
+    void invalidProfileShouldFailFast() {
+        RuleProfile.RuleProfileBuilder base = RuleProfile.STANDARD.toBuilder();
+
+        assertThrows(IllegalArgumentException.class, () -> TableRules.compile("x", base.blackjackPayout("3-2").build()));
+        assertThrows(IllegalArgumentException.class, () -> TableRules.compile("x", base.blackjackPayout("0:2").build()));
+        assertThrows(IllegalArgumentException.class, () -> TableRules.compile("x", base.blackjackPayout("3:2").decks(0).build()));
+        assertThrows(IllegalArgumentException.class, () -> TableRules.compile("x", base.decks(TableRules.MAX_DECKS + 1).build()));
+        assertThrows(IllegalArgumentException.class, () -> TableRules.compile("x", base.decks(2).resplitLimit(-1).build()));
+    }
+}
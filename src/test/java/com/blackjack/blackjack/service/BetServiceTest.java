@@ -3,10 +3,12 @@ package com.blackjack.blackjack.service;
 import com.blackjack.blackjack.common.GameConstants;
 import com.blackjack.blackjack.dto.bet.GameStateBet;
 import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.rules.TableRules;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -18,6 +20,9 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 public class BetServiceTest {
 
+    @Spy
+    private TableRules tableRules = TableRules.STANDARD;
+
     @InjectMocks
     private BetService betService;
 
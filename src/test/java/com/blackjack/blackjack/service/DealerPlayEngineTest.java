@@ -0,0 +1,79 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.DealerHandUnmasked;
+import com.blackjack.blackjack.model.HandState;
+import com.blackjack.blackjack.model.PackedHand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealerPlayEngineTest {
+
+    private final DealerPlayEngine s17 = new DealerPlayEngine(new HandStateUpdater(), false);
+    private final DealerPlayEngine h17 = new DealerPlayEngine(new HandStateUpdater(), true);
+
+    private static DealerHandUnmasked dealer(String... cards) {
+        return DealerHandUnmasked.builder()
+            .hand(List.of(cards).stream().map(Card::of).toList())
+            .natural21(1)
+            .build();
+    }
+
+    private static Deque<Card> shoe(String... cards) {
+        return new ArrayDeque<>(List.of(cards).stream().map(Card::of).toList());
+    }
+
+    @Test
+    @DisplayName("Egy menetben húz 17-ig, az összeg inkrementálisan számolva, a többi mező megmarad")
+    void shouldDrawUntilSeventeenInOnePass() {
+        Deque<Card> shoe = shoe("♥A", "♣2", "♠3", "♦K");
+
+        DealerHandUnmasked result = s17.play(dealer("♠5", "♥4"), shoe::pop); // 9 + A(soft 20)
+
+        assertEquals(20, result.sum());
+        assertEquals(3, result.hand().size());
+        assertEquals(HandState.UNDER_21.getValue(), result.handState());
+        assertEquals(1, result.natural21());
+        assertEquals(3, shoe.size(), "Csak a szükséges lapot húzhatja!");
+
+        DealerHandUnmasked busted = s17.play(dealer("♠10", "♥6"), shoe("♦K")::pop);
+        assertEquals(26, busted.sum());
+        assertEquals(HandState.BUST.getValue(), busted.handState());
+        assertInstanceOf(PackedHand.class, busted.hand());
+
+        // 9 húzás: a lapkód puffer (8 lap) közben ürül, a sorrend megmarad
+        Deque<Card> smallCards = shoe("♠2", "♥2", "♦2", "♣2", "♠A", "♥A", "♦A", "♣A", "♠A");
+        List<Card> expected = List.of(Card.of("♠2"), Card.of("♥2"), Card.of("♠2"), Card.of("♥2"), Card.of("♦2"),
+            Card.of("♣2"), Card.of("♠A"), Card.of("♥A"), Card.of("♦A"), Card.of("♣A"), Card.of("♠A"));
+        DealerHandUnmasked longHand = s17.play(dealer("♠2", "♥2"), smallCards::pop);
+        assertEquals(expected, longHand.hand());
+        assertEquals(17, longHand.sum());
+    }
+
+    @Test
+    @DisplayName("Soft 17: S17 megáll (ugyanaz a példány), H17 tovább húz; kemény 17-en mindkettő megáll")
+    void soft17RuleShouldBeConfigurable() {
+        DealerHandUnmasked soft17 = dealer("♥A", "♠6");
+
+        assertSame(soft17, s17.play(soft17, () -> fail("S17 mellett nem húzhat!")));
+        assertFalse(s17.mustDraw(soft17.hand()));
+
+        Deque<Card> shoe = shoe("♣A", "♦9");
+        DealerHandUnmasked afterHit = h17.play(soft17, shoe::pop);
+        assertEquals(18, afterHit.sum(), "Soft 17 + ász = soft 18");
+        assertTrue(h17.mustDraw(soft17.hand()));
+
+        DealerHandUnmasked hard17 = dealer("♠10", "♥7");
+        assertSame(hard17, h17.play(hard17, () -> fail("Kemény 17-en nem húzhat!")));
+
+        // Soft 17 húzás után (A + 2 + 4): H17 mellett ezen is húz
+        assertEquals(21, h17.play(dealer("♥A", "♣2"), shoe("♠4", "♦4")::pop).sum());
+        assertEquals(17, s17.play(dealer("♥A", "♣2"), shoe("♠4", "♦4")::pop).sum());
+    }
+}
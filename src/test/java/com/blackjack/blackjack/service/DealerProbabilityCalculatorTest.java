@@ -0,0 +1,91 @@
+package com.blackjack.blackjack.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static com.blackjack.blackjack.service.DealerProbabilityCalculator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealerProbabilityCalculatorTest {
+
+    private final DealerProbabilityCalculator calculator = new DealerProbabilityCalculator(100);
+
+    private static int[] fullShoe(int decks) {
+        int[] counts = new int[RANKS];
+        Arrays.fill(counts, 4 * decks);
+        counts[TEN] = 16 * decks;
+        return counts;
+    }
+
+    @Test
+    @DisplayName("Az osztó végső összegeinek valószínűsége összesen 1")
+    void finalTotalsShouldSumToOne() {
+        double[] totals = calculator.finalTotals(fullShoe(8), 5); // felfordított 6-os
+
+        double sum = Arrays.stream(totals).sum();
+
+        assertEquals(1.0, sum, 1e-9);
+        assertEquals(0.0, totals[16], "16-on az osztó nem állhat meg!");
+    }
+
+    @Test
+    @DisplayName("8 paklinál a 6-os mellett kb. 42% az osztó besokallása")
+    void bustProbabilityShouldMatchKnownValue() {
+        double[] totals = calculator.finalTotals(fullShoe(8), 5);
+
+        assertEquals(0.42, totals[BUST], 0.01);
+    }
+
+    @Test
+    @DisplayName("Ász mellett a 10-es rejtett lap külön blackjack kimenet (a kör takartan aktív marad)")
+    void holeCardBlackjackShouldBeSeparateOutcome() {
+        int[] counts = new int[RANKS];
+        counts[TEN] = 4;
+        counts[5] = 1; // egyetlen 6-os: ász + 6 = soft 17
+
+        double[] totals = calculator.finalTotals(counts, ACE);
+
+        assertEquals(0.8, totals[DEALER_BLACKJACK], 1e-12);
+        assertEquals(0.2, totals[17], 1e-12);
+        assertEquals(0.0, totals[21], "A blackjack nem sima 21!");
+    }
+
+    @Test
+    @DisplayName("Soft 17-en az osztó megáll")
+    void dealerShouldStandOnSoft17() {
+        int[] counts = new int[RANKS];
+        counts[ACE] = 3;
+
+        double[] totals = calculator.finalTotals(counts, 5); // 6 + ász = soft 17
+
+        assertEquals(1.0, totals[17], 1e-12);
+    }
+
+    @Test
+    @DisplayName("H17 szabállyal soft 17-en az osztó még húz")
+    void dealerShouldHitSoft17WhenConfigured() {
+        int[] counts = new int[RANKS];
+        counts[ACE] = 3;
+
+        double[] totals = new DealerProbabilityCalculator(100, true).finalTotals(counts, 5); // soft 17 + ász = 18
+
+        assertEquals(1.0, totals[18], 1e-12);
+    }
+
+    @Test
+    @DisplayName("Azonos összetétel és lap esetén a cache-ből jön az eredmény, a méret korlátos")
+    void cacheShouldReuseAndStayBounded() {
+        DealerProbabilityCalculator small = new DealerProbabilityCalculator(2);
+        int[] shoe = fullShoe(2);
+
+        double[] first = small.finalTotals(shoe, TEN);
+        assertSame(first, small.finalTotals(shoe, TEN));
+
+        small.finalTotals(shoe, 1);
+        small.finalTotals(shoe, 2);
+
+        assertEquals(2, small.cacheSize());
+    }
+}
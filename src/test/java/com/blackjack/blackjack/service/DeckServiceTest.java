@@ -1,11 +1,13 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -17,6 +19,9 @@ import static org.mockito.Mockito.*;
 public class DeckServiceTest {
 
     private final Card testCard = new Card(Suit.HEARTS, Rank.TEN);
+    @Spy
+    private TableRules tableRules = TableRules.STANDARD;
+
     @InjectMocks
     private DeckService deckService;
 
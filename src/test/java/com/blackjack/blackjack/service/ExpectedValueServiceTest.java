@@ -0,0 +1,146 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.dto.hint.ExpectedValueHint;
+import com.blackjack.blackjack.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpectedValueServiceTest {
+
+    private final ExpectedValueService expectedValueService =
+        new ExpectedValueService(new DealerProbabilityCalculator(1000));
+
+    /**
+     * 8 paklis cipő, amelyből a játékos két lapja és az osztó két lapja már kikerült.
+     */
+    private GameState dealtState(String player1, String player2, String dealerHole, String dealerUp) {
+        List<String> dealt = new ArrayList<>(List.of(player1, player2, dealerHole, dealerUp));
+        List<Card> shoe = new ArrayList<>();
+
+        for (int deck = 0; deck < 8; deck++) {
+            for (Suit suit : List.of(Suit.HEARTS, Suit.DIAMONDS, Suit.CLUBS, Suit.SPADES)) {
+                for (Rank rank : Rank.values()) {
+                    if (rank == Rank.MASKED_RANK) continue;
+                    Card card = new Card(suit, rank);
+                    if (!dealt.remove(card.toString())) {
+                        shoe.add(card);
+                    }
+                }
+            }
+        }
+
+        return stateWithShoe(shoe, player1, player2, dealerHole, dealerUp);
+    }
+
+    /**
+     * Ismert, kis összetétel: a cipő pontosan a megadott lapokból áll.
+     */
+    private GameState stateWithShoe(List<Card> shoe, String player1, String player2, String dealerHole, String dealerUp) {
+        PackedHand playerCards = PackedHand.of(Card.of(player1), Card.of(player2));
+        GameRuleEngine ruleEngine = new GameRuleEngine();
+
+        return GameState.builder()
+            .deck(new Deck(shoe))
+            .bet(10)
+            .isRoundActive(true)
+            .player(PlayerHand.builder()
+                .id("P-001")
+                .hand(playerCards)
+                .sum(playerCards.bestTotal())
+                .canSplit(ruleEngine.canSplit(playerCards))
+                .bet(10)
+                .build())
+            .dealerMasked(DealerHandMasked.builder()
+                .hand(List.of(Card.createMaskedCard(), Card.of(dealerUp)))
+                .canInsure(Card.of(dealerUp).rank() == Rank.ACE)
+                .build())
+            .dealerUnmasked(DealerHandUnmasked.builder()
+                .hand(List.of(Card.of(dealerHole), Card.of(dealerUp)))
+                .build())
+            .build();
+    }
+
+    @Test
+    @DisplayName("20 a 6-os ellen: a stand a legjobb, pozitív EV-vel")
+    void twentyShouldStand() {
+        ExpectedValueHint hint = expectedValueService.calculate(dealtState("♥K", "♠Q", "♦9", "♣6"));
+
+        assertEquals("STAND", hint.bestAction());
+        assertTrue(hint.stand() > 0.6, "Stand EV: " + hint.stand());
+        assertTrue(hint.hit() < 0, "Hit EV: " + hint.hit());
+    }
+
+    @Test
+    @DisplayName("11 a 6-os ellen: a double a legjobb")
+    void elevenShouldDouble() {
+        ExpectedValueHint hint = expectedValueService.calculate(dealtState("♥6", "♠5", "♦9", "♣6"));
+
+        assertEquals("DOUBLE", hint.bestAction());
+        assertTrue(hint.doubleDown() > hint.hit());
+        assertNull(hint.split(), "6-5 nem splitelhető!");
+    }
+
+    @Test
+    @DisplayName("8-8 a 6-os ellen: a split a legjobb")
+    void eightsShouldSplit() {
+        ExpectedValueHint hint = expectedValueService.calculate(dealtState("♥8", "♠8", "♦9", "♣6"));
+
+        assertEquals("SPLIT", hint.bestAction());
+        assertNotNull(hint.split());
+    }
+
+    @Test
+    @DisplayName("16 a 10-es ellen: hit jobb, mint stand, mindkettő negatív")
+    void sixteenAgainstTenShouldBeNegative() {
+        ExpectedValueHint hint = expectedValueService.calculate(dealtState("♥10", "♠6", "♦9", "♣K"));
+
+        assertTrue(hint.stand() < 0);
+        assertTrue(hint.hit() < 0);
+        assertNull(hint.insurance(), "Biztosítás csak ász mellett!");
+    }
+
+    @Test
+    @DisplayName("Ász mellett a biztosítás EV-je teljes cipőnél negatív")
+    void insuranceShouldBeNegativeOffTheTop() {
+        ExpectedValueHint hint = expectedValueService.calculate(dealtState("♥9", "♠7", "♦5", "♣A"));
+
+        assertNotNull(hint.insurance());
+        assertTrue(hint.insurance() < 0, "Insurance EV: " + hint.insurance());
+    }
+
+    @Test
+    @DisplayName("Ász mellett az osztói blackjack a teljes tétet viszi, duplázásnál a dupláját")
+    void dealerBlackjackUnderAceShouldLoseFullStake() {
+        // Ismeretlen lapok: K, K, 6 -> 2/3 eséllyel blackjack, különben soft 17
+        ExpectedValueHint hint = expectedValueService.calculate(
+            stateWithShoe(List.of(Card.of("♠K"), Card.of("♠6")), "♥5", "♠6", "♦K", "♣A"));
+
+        assertEquals(-1.0, hint.stand(), 1e-12);
+        // K húzás: 21 a {K, 6} ellen (0), 6 húzás: 17 a biztos blackjack ellen (-1), duplán
+        assertEquals(-2.0 / 3.0, hint.doubleDown(), 1e-12);
+        assertEquals(0.5, hint.insurance(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("10-es mellett az osztói blackjack: split mindkét kézre veszít, a játékos natúrja push")
+    void dealerBlackjackUnderTenShouldLoseBothSplitHands() {
+        // Ismeretlen lapok: csak ászok -> az osztónak biztosan blackjackje van
+        List<Card> aces = List.of(Card.of("♠A"), Card.of("♥A"));
+        ExpectedValueHint pair = expectedValueService.calculate(stateWithShoe(aces, "♥8", "♠8", "♦A", "♣K"));
+
+        assertEquals(-1.0, pair.stand(), 1e-12);
+        assertEquals(-2.0, pair.doubleDown(), 1e-12);
+        assertEquals(-2.0, pair.split(), 1e-12);
+
+        // Ismeretlen lapok: A, A, 9 -> 2/3 push, 1/3 eséllyel 19 ellen 3:2
+        ExpectedValueHint natural = expectedValueService.calculate(
+            stateWithShoe(List.of(Card.of("♠A"), Card.of("♠9")), "♥A", "♠K", "♦A", "♣K"));
+
+        assertEquals(0.5, natural.stand(), 1e-12);
+    }
+}
@@ -1,11 +1,13 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.TableRules;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
@@ -26,6 +28,9 @@ public class GameServiceTest {
     @Mock
     private HandStateUpdater handStateUpdater;
 
+    @Spy
+    private TableRules tableRules = TableRules.STANDARD;
+
     @InjectMocks
     private GameService gameService;
 
@@ -45,17 +50,14 @@ public class GameServiceTest {
         Card card4 = new Card(Suit.DIAMONDS, Rank.ACE); // Dealer 2 (Látható lap)
 
         when(gameStateManager.resetRoundState(any())).thenReturn(startState);
+        when(gameStateManager.reshuffleIfPastCut(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(gameStateManager.safeDealCard(any()))
-            .thenReturn(new GameService.DealResultWithState(card1, startState))
-            .thenReturn(new GameService.DealResultWithState(card2, startState))
-            .thenReturn(new GameService.DealResultWithState(card3, startState))
-            .thenReturn(new GameService.DealResultWithState(card4, startState));
+        when(gameStateManager.draw(any())).thenReturn(card1, card2, card3, card4);
 
         when(handValueCalculator.calculateSum(anyList())).thenReturn(18); // Player sum
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean())).thenReturn(HandState.UNDER_21);
         when(gameRuleEngine.canSplit(anyList())).thenReturn(false);
-        when(gameRuleEngine.initNatural21State(any())).thenReturn(WinnerState.NONE.getValue());
+        when(gameRuleEngine.initNatural21State(any(), any())).thenReturn(WinnerState.NONE.getValue());
 
         GameState result = gameService.initializeNewRound(startState);
 
@@ -73,7 +75,7 @@ public class GameServiceTest {
         assertEquals("✪", maskedCard.rank().getSymbol());
         assertEquals(" ", maskedCard.suit().getSymbol());
 
-        verify(gameStateManager, times(4)).safeDealCard(any());
+        verify(gameStateManager, times(4)).draw(any());
     }
 
     @Test
@@ -93,12 +95,9 @@ public class GameServiceTest {
         Card card4 = new Card(Suit.DIAMONDS, Rank.EIGHT);
 
         when(gameStateManager.resetRoundState(any())).thenReturn(startState);
+        when(gameStateManager.reshuffleIfPastCut(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(gameStateManager.safeDealCard(any()))
-            .thenReturn(new GameService.DealResultWithState(card1, startState))
-            .thenReturn(new GameService.DealResultWithState(card2, startState))
-            .thenReturn(new GameService.DealResultWithState(card3, startState))
-            .thenReturn(new GameService.DealResultWithState(card4, startState));
+        when(gameStateManager.draw(any())).thenReturn(card1, card2, card3, card4);
 
         when(handValueCalculator.calculateSum(anyList())).thenReturn(21, 13); // 21 (Player), 13 (Dealer)
 
@@ -108,7 +107,7 @@ public class GameServiceTest {
             .thenReturn(HandState.UNDER_21); // Második hívás (Dealer)
 
         when(gameRuleEngine.canSplit(anyList())).thenReturn(false);
-        when(gameRuleEngine.initNatural21State(any())).thenReturn(WinnerState.BLACKJACK_PLAYER_WON.getValue());
+        when(gameRuleEngine.initNatural21State(any(), any())).thenReturn(WinnerState.BLACKJACK_PLAYER_WON.getValue());
 
         GameState result = gameService.initializeNewRound(startState);
 
@@ -125,7 +124,7 @@ public class GameServiceTest {
 
         assertFalse(result.isAces());
 
-        verify(gameRuleEngine, times(1)).initNatural21State(any());
+        verify(gameRuleEngine, times(1)).initNatural21State(any(), any());
     }
 
     @Test
@@ -144,18 +143,15 @@ public class GameServiceTest {
         Card d2 = new Card(Suit.DIAMONDS, Rank.TEN);   // Dealer második lapja (látható)
 
         when(gameStateManager.resetRoundState(any())).thenReturn(startState);
+        when(gameStateManager.reshuffleIfPastCut(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(gameStateManager.safeDealCard(any()))
-            .thenReturn(new GameService.DealResultWithState(p1, startState))
-            .thenReturn(new GameService.DealResultWithState(d1, startState))
-            .thenReturn(new GameService.DealResultWithState(p2, startState))
-            .thenReturn(new GameService.DealResultWithState(d2, startState));
+        when(gameStateManager.draw(any())).thenReturn(p1, d1, p2, d2);
 
         when(handValueCalculator.calculateSum(anyList())).thenReturn(16, 15);
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean()))
             .thenReturn(HandState.UNDER_21);
         when(gameRuleEngine.canSplit(anyList())).thenReturn(true);
-        when(gameRuleEngine.initNatural21State(any())).thenReturn(WinnerState.NONE.getValue());
+        when(gameRuleEngine.initNatural21State(any(), any())).thenReturn(WinnerState.NONE.getValue());
 
         GameState result = gameService.initializeNewRound(startState);
 
@@ -172,7 +168,7 @@ public class GameServiceTest {
         assertEquals(d2, result.getDealerMasked().hand().get(1), "A dealer látható lapja a 10-es kell legyen.");
         assertFalse(result.getDealerMasked().canInsure(), "10-es lapra nem lehet biztosítást kötni.");
 
-        verify(gameStateManager, times(4)).safeDealCard(any());
+        verify(gameStateManager, times(4)).draw(any());
         verify(gameRuleEngine, times(1)).canSplit(anyList());
     }
 
@@ -194,8 +190,7 @@ public class GameServiceTest {
         // A következő kártya, amit húzni fog (egy 7-es)
         Card nextCard = new Card(Suit.HEARTS, Rank.SEVEN);
 
-        when(gameStateManager.safeDealCard(currentState))
-            .thenReturn(new GameService.DealResultWithState(nextCard, currentState));
+        when(gameStateManager.draw(any())).thenReturn(nextCard);
         when(handValueCalculator.calculateSum(anyList())).thenReturn(15);
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean()))
             .thenReturn(HandState.UNDER_21);
@@ -209,7 +204,7 @@ public class GameServiceTest {
         assertEquals(Rank.EIGHT, result.getPlayer().hand().get(0).rank());
         assertEquals(Rank.SEVEN, result.getPlayer().hand().get(1).rank());
 
-        verify(gameStateManager, times(1)).safeDealCard(any());
+        verify(gameStateManager, times(1)).draw(any());
     }
 
     @Test
@@ -230,8 +225,7 @@ public class GameServiceTest {
 
         Card bustCard = new Card(Suit.CLUBS, Rank.SEVEN); // 16 + 7 = 23 (Bust)
 
-        when(gameStateManager.safeDealCard(state))
-            .thenReturn(new GameService.DealResultWithState(bustCard, state));
+        when(gameStateManager.draw(any())).thenReturn(bustCard);
         when(handValueCalculator.calculateSum(anyList())).thenReturn(23);
         when(handStateUpdater.updateHandState(eq(23), anyInt(), anyBoolean()))
             .thenReturn(HandState.BUST);
@@ -268,8 +262,7 @@ public class GameServiceTest {
             .build();
 
         Card card = new Card(Suit.DIAMONDS, Rank.ACE);
-        when(gameStateManager.safeDealCard(splitState))
-            .thenReturn(new GameService.DealResultWithState(card, splitState));
+        when(gameStateManager.draw(any())).thenReturn(card);
 
         when(handValueCalculator.calculateSum(anyList())).thenReturn(11);
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), eq(true)))
@@ -576,7 +569,7 @@ public class GameServiceTest {
             .playersIndex(initialIndex)
             .build();
 
-        when(gameStateManager.areStatedFalseHands(anyMap())).thenReturn(true);
+        when(gameStateManager.areStatedFalseHands(any())).thenReturn(true);
 
         GameState result = gameService.addToPlayersListByStand(oldState);
 
@@ -586,14 +579,14 @@ public class GameServiceTest {
         assertTrue(result.getPlayers().get(handId).stated());
         assertTrue(result.getPlayersIndex().get(handId));
 
-        verify(gameStateManager).areStatedFalseHands(anyMap());
+        verify(gameStateManager).areStatedFalseHands(any());
     }
 
     @Test
     @DisplayName("addToPlayersListByStand: Nincs aktív kéz, az állapot változatlan")
     void testAddToPlayersListByStand_Inactive() {
         GameState oldState = GameState.builder().players(new HashMap<>()).build();
-        when(gameStateManager.areStatedFalseHands(anyMap())).thenReturn(false);
+        when(gameStateManager.areStatedFalseHands(any())).thenReturn(false);
 
         GameState result = gameService.addToPlayersListByStand(oldState);
 
@@ -638,13 +631,7 @@ public class GameServiceTest {
 
         when(gameStateManager.findNextActivePlayerId(any())).thenReturn(Optional.of(nextWaitingId));
 
-        // Dinamikus Mock. Az invocation.getArgument(0) az az állapot,
-        // amiből a kód már eltávolította a hand-2-t.
-        when(gameStateManager.safeDealCard(any(GameState.class))).thenAnswer(invocation -> {
-            GameState currentStateAtCall = invocation.getArgument(0);
-            Card dealtCard = new Card(Suit.HEARTS, Rank.TEN);
-            return new GameService.DealResultWithState(dealtCard, currentStateAtCall);
-        });
+        when(gameStateManager.draw(any())).thenReturn(new Card(Suit.HEARTS, Rank.TEN));
 
         when(handValueCalculator.calculateSum(any())).thenReturn(18);
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean())).thenReturn(HandState.UNDER_21);
@@ -655,8 +642,7 @@ public class GameServiceTest {
         assertNotNull(result.getPlayer());
         assertEquals(nextWaitingId, result.getPlayer().id());
 
-        // Ellenőrizzük a Map-et: Most már false lesz (sikeres törlés),
-        // mert a safeDealCard mockja nem írta felül a változtatást a régi state-el.
+        // Ellenőrizzük a Map-et: a kéz kikerült a várólistáról
         assertFalse(result.getPlayers().containsKey(nextWaitingId),
             "A Map-nek üresnek kell lennie, mert a kód eltávolította az ID-t.");
 
@@ -681,7 +667,7 @@ public class GameServiceTest {
 
         assertSame(state, result, "Üres Optional esetén az eredeti állapotot kell visszakapni.");
 
-        verify(gameStateManager, never()).safeDealCard(any());
+        verify(gameStateManager, never()).draw(any());
         verify(gameStateManager).findNextActivePlayerId(any());
         verifyNoMoreInteractions(handValueCalculator, gameRuleEngine);
     }
@@ -706,7 +692,7 @@ public class GameServiceTest {
 
         assertNotNull(result.getPlayer());
         assertEquals(2, result.getPlayer().hand().size(), "Nem szabad harmadik lapot kapnia.");
-        verify(gameStateManager, never()).safeDealCard(any()); // Fontos: a safeDealCard-ot nem hívhatja meg!
+        verify(gameStateManager, never()).draw(any()); // Fontos: lapot nem oszthat!
     }
 
     @Test
@@ -715,10 +701,10 @@ public class GameServiceTest {
         String handId = "split-2";
         PlayerHand handToExtract = PlayerHand.builder().id(handId).build();
 
-        // Fontos a LinkedHashMap a tesztadatban is, hogy modellezzük a sorrendet
+        // A várakozó kezek azonosító szerint rendezettek: a "split-2" slot van elöl
         Map<String, PlayerHand> playersMap = new LinkedHashMap<>();
         playersMap.put(handId, handToExtract);
-        playersMap.put("other-hand", PlayerHand.builder().id("other").build());
+        playersMap.put("split-3", PlayerHand.builder().id("split-3").build());
 
         GameState initialState = GameState.builder()
             .players(playersMap)
@@ -827,30 +813,30 @@ public class GameServiceTest {
 
         // Mockoljuk a resetRoundState-et, hogy a VALÓDI kód fusson le (toBuilder tesztelése)
         when(gameStateManager.resetRoundState(any())).thenCallRealMethod();
+        when(gameStateManager.reshuffleIfPastCut(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Dinamikus osztás: kiszedi a soron következő lapot a kapott state paklijából
-        when(gameStateManager.safeDealCard(any(GameState.class))).thenAnswer(invocation -> {
-            GameState s = invocation.getArgument(0);
+        when(gameStateManager.draw(any())).thenAnswer(invocation -> {
+            RoundContext round = invocation.getArgument(0);
 
-            // Ellenőrizzük, hogy van-e pakli a kapott állapotban
-            if (s.getDeck() == null || s.getDeck().deck().isEmpty()) {
+            // Ellenőrizzük, hogy van-e pakli a munkaállapotban
+            if (round.deck() == null || round.deck().deck().isEmpty()) {
                 throw new IllegalStateException("A pakli üres vagy null az osztásnál!");
             }
 
-            Card dealt = s.getDeck().deck().getFirst();
-            List<Card> remaining = new ArrayList<>(s.getDeck().deck());
+            Card dealt = round.deck().deck().getFirst();
+            List<Card> remaining = new ArrayList<>(round.deck().deck());
             remaining.removeFirst();
 
-            // Visszaadjuk a lapot és az ÚJ állapotot a CSÖKKENTETT paklival
-            return new GameService.DealResultWithState(dealt, s.toBuilder()
-                .deck(new Deck(remaining))
-                .build());
+            // Visszaadjuk a lapot, a munkaállapotba a CSÖKKENTETT pakli kerül
+            round.deck(new Deck(remaining));
+            return dealt;
         });
 
         // Szabálymotor mockolása (hogy az initializeNewRound sikeresen befejeződjön)
         when(handValueCalculator.calculateSum(anyList())).thenReturn(14); // Pl. ACE + 3
         when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean())).thenReturn(HandState.UNDER_21);
-        when(gameRuleEngine.initNatural21State(any())).thenReturn(WinnerState.NONE.getValue());
+        when(gameRuleEngine.initNatural21State(any(), any())).thenReturn(WinnerState.NONE.getValue());
 
         // 2. Act
         // Meghívjuk a restartot (ez belsőleg a valódi resetRoundState-et hívja a mock-on keresztül)
@@ -861,7 +847,7 @@ public class GameServiceTest {
             .deck(twelveCardDeck)
             .build();
 
-        // Elindítjuk az osztást (ez ismét hívja a resetRoundState-et, majd 4-szer a safeDealCard-ot)
+        // Elindítjuk az osztást (ez ismét hívja a resetRoundState-et, majd 4-szer a draw-t)
         GameState finalState = gameService.initializeNewRound(stateWithControlledDeck);
 
         // 3. Assert
@@ -913,7 +899,7 @@ public class GameServiceTest {
         assertEquals(c_04, finalState.getDealerMasked().hand().get(1), "A dealer második lapja viszont látható!");
 
         // 2. Ellenőrizzük a SZERVER szemszögéből (Unmasked Hand)
-        // Itt derül ki, hogy a safeDealCard tényleg a c_02-t (Treff 2-est) osztotta-e ki rejtve
+        // Itt derül ki, hogy az osztás tényleg a c_02-t (Treff 2-est) osztotta-e ki rejtve
         assertNotNull(finalState.getDealerUnmasked(), "A belső unmasked kéz nem lehet null!");
         assertEquals(c_02, finalState.getDealerUnmasked().hand().getFirst(),
             "A szervernek tudnia kell, hogy a rejtett lap valójában a c_02 volt!");
@@ -0,0 +1,50 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.repository.PlayerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class GameStateArchiverTest {
+
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-02T12:00:00Z"), ZoneOffset.UTC);
+
+    private GameStateArchiver archiver(int maxBatches) {
+        return new GameStateArchiver(playerRepository, registry, Duration.ofHours(24), 100, maxBatches, clock);
+    }
+
+    @Test
+    @DisplayName("Teljes kötegek után folytatja, a részleges kötegnél megáll; a cutoff az inaktivitási küszöb")
+    void shouldArchiveInBatchesUntilPartialBatch() {
+        OffsetDateTime cutoff = OffsetDateTime.parse("2025-01-01T12:00:00Z");
+        when(playerRepository.archiveIdle(cutoff, 100)).thenReturn(100, 100, 37);
+
+        int archived = archiver(20).archiveIdleGameStates();
+
+        assertEquals(237, archived);
+        verify(playerRepository, times(3)).archiveIdle(cutoff, 100);
+        assertEquals(237, registry.counter(GameStateArchiver.ARCHIVED_COUNTER).count());
+    }
+
+    @Test
+    @DisplayName("Futásonként legfeljebb maxBatches köteg")
+    void shouldStopAfterMaxBatches() {
+        when(playerRepository.archiveIdle(any(), anyInt())).thenReturn(100);
+
+        assertEquals(200, archiver(2).archiveIdleGameStates());
+        verify(playerRepository, times(2)).archiveIdle(any(), anyInt());
+    }
+}
@@ -0,0 +1,49 @@
+package com.blackjack.blackjack.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateDeltaServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode json(String value) throws Exception {
+        return objectMapper.readTree(value.replace('\'', '"'));
+    }
+
+    @Test
+    @DisplayName("A players map-ben csak a módosult kéz kerül a patch-be")
+    void diffShouldKeepOnlyChangedHands() throws Exception {
+        JsonNode source = json("{'split_req':1,'players':{'P-001':{'sum':18},'P-002':{'sum':12}}}");
+        JsonNode target = json("{'split_req':1,'players':{'P-001':{'sum':18},'P-002':{'sum':21}}}");
+
+        JsonNode patch = GameStateDeltaService.diff(source, target);
+
+        assertEquals(json("{'players':{'P-002':{'sum':21}}}"), patch);
+    }
+
+    @Test
+    @DisplayName("A megszűnt mező null-t kap, a tömb egészben cserélődik")
+    void diffShouldRemoveMissingFieldsAndReplaceArrays() throws Exception {
+        JsonNode source = json("{'dealer_masked':{'hand':['✪','♣6']},'hand':['♥5','♠6']}");
+        JsonNode target = json("{'dealer_unmasked':{'hand':['♦9','♣6']},'hand':['♥5','♠6','♦9']}");
+
+        JsonNode patch = GameStateDeltaService.diff(source, target);
+
+        assertTrue(patch.get("dealer_masked").isNull());
+        assertEquals(target.get("dealer_unmasked"), patch.get("dealer_unmasked"));
+        assertEquals(3, patch.get("hand").size());
+    }
+
+    @Test
+    @DisplayName("Azonos nézetnél üres a patch")
+    void diffShouldBeEmptyWhenUnchanged() throws Exception {
+        JsonNode state = json("{'bet':100,'player':{'hand':['♥5','♠6'],'sum':11}}");
+
+        assertTrue(GameStateDeltaService.diff(state, state.deepCopy()).isEmpty());
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
@@ -27,6 +28,8 @@ class GameStateManagerTest {
     private HandStateUpdater handStateUpdater;
     @Mock
     private DeckService deckService;
+    @Spy
+    private DealerPlayEngine dealerPlayEngine = new DealerPlayEngine(new HandStateUpdater(), false);
 
     @InjectMocks
     private GameStateManager gameStateManager;
@@ -113,7 +116,7 @@ class GameStateManagerTest {
     }
 
     @Test
-    @DisplayName("safeDealCard: Automata újrakeverés, ha a pakli üres vagy hibát dob")
+    @DisplayName("safeDealCard: Végső tartalék: új cipő, ha nincs pakli")
     void testSafeDealCard_ReshuffleCase() {
         GameState state = GameState.builder().deck(null).build(); // Nincs pakli
 
@@ -132,6 +135,27 @@ class GameStateManagerTest {
         verify(deckService, atLeastOnce()).createNewDeck();
     }
 
+    @Test
+    @DisplayName("draw: több osztás egy munkaállapotban, a GameState csak a végén épül fel")
+    void testDraw_AccumulatesInRoundContext() {
+        Deck shoe = Deck.createNewDeck(7L);
+        GameState state = GameState.builder().bet(10).deck(shoe).build();
+        when(deckService.dealCard(any())).thenAnswer(invocation -> invocation.<Deck>getArgument(0).dealCard());
+
+        RoundContext round = RoundContext.of(state);
+        Card first = gameStateManager.draw(round);
+        Card second = gameStateManager.draw(round);
+
+        assertSame(shoe, state.getDeck(), "Az eredeti állapot nem változhat");
+        assertEquals(shoe.deck().get(0), first);
+        assertEquals(shoe.deck().get(1), second);
+
+        GameState built = round.state().winner(1).build();
+        assertEquals(shoe.getDeckLength() - 2, round.build().getDeckLen());
+        assertEquals(1, built.getWinner());
+        assertEquals(10, built.getBet());
+    }
+
     @Test
     @DisplayName("processDealerDrawing: A Dealer 13-ról indulva, 16-on át 20-nál áll meg")
     void testProcessDealerDrawing_Success() {
@@ -157,15 +181,6 @@ class GameStateManagerTest {
             .thenReturn(new DealResult(draw1, Deck.builder().deck(List.of()).build()))
             .thenReturn(new DealResult(draw2, Deck.builder().deck(List.of()).build()));
 
-        when(handValueCalculator.calculateSum(anyList())).thenAnswer(invocation -> {
-            List<Card> cards = invocation.getArgument(0);
-            return cards.size() == 2 ? 13 : (cards.size() == 3 ? 16 : 20);
-        });
-
-        // Az updater mindig UNDER_21-et ad vissza (nem bustol be a dealer)
-        when(handStateUpdater.updateHandState(anyInt(), anyInt(), anyBoolean()))
-            .thenReturn(HandState.UNDER_21);
-
         GameState finalState = gameStateManager.processDealerDrawing(initialState);
 
         DealerHandUnmasked finalHand = finalState.getDealerUnmasked();
@@ -173,6 +188,7 @@ class GameStateManagerTest {
 
         assertEquals(20, finalHand.sum(), "A Dealernek 20 pontnál kell megállnia.");
         assertEquals(4, finalHand.hand().size(), "Összesen 4 lapnak kell lennie a kézben.");
+        assertEquals(HandState.UNDER_21.getValue(), finalHand.handState());
 
         verify(deckService, times(2)).dealCard(any());
     }
@@ -274,7 +290,7 @@ class GameStateManagerTest {
         playersIndex.put("P-003", false);
         playersIndex.put("P-002", false);
 
-        Optional<String> result = gameStateManager.findNextActivePlayerId(playersIndex);
+        Optional<String> result = gameStateManager.findNextActivePlayerId(SplitHands.of(null, playersIndex));
 
         assertTrue(result.isPresent());
         assertEquals("P-002", result.get());
@@ -288,7 +304,7 @@ class GameStateManagerTest {
             "P-002", true
         );
 
-        Optional<String> result = gameStateManager.findNextActivePlayerId(playersIndex);
+        Optional<String> result = gameStateManager.findNextActivePlayerId(SplitHands.of(null, playersIndex));
 
         assertTrue(result.isEmpty());
     }
@@ -304,7 +320,7 @@ class GameStateManagerTest {
             "P-002", hand2
         );
 
-        boolean result = gameStateManager.areStatedFalseHands(playersMap);
+        boolean result = gameStateManager.areStatedFalseHands(SplitHands.of(playersMap, null));
 
         assertTrue(result, "True-nak kell lennie, mert P-002 még aktív.");
     }
@@ -317,15 +333,33 @@ class GameStateManagerTest {
             "P-002", PlayerHand.builder().stated(true).build()
         );
 
-        boolean result = gameStateManager.areStatedFalseHands(playersMap);
+        boolean result = gameStateManager.areStatedFalseHands(SplitHands.of(playersMap, null));
 
         assertFalse(result, "False-nak kell lennie, mert mindenki végzett.");
     }
 
     @Test
-    @DisplayName("areStatedFalseHands: False-t ad üres map esetén")
+    @DisplayName("areStatedFalseHands: False-t ad üres tár esetén")
     void testAreStatedFalseHands_EmptyMap() {
-        assertFalse(gameStateManager.areStatedFalseHands(new HashMap<>()));
+        assertFalse(gameStateManager.areStatedFalseHands(SplitHands.EMPTY));
         assertFalse(gameStateManager.areStatedFalseHands(null));
     }
+
+    @Test
+    @DisplayName("reshuffleIfPastCut: vágókártya előtt marad a cipő, utána új cipő jön a kör előtt")
+    void testReshuffleIfPastCut() {
+        Deck fresh = Deck.createNewDeck(3L).withPenetration(0.5);
+        GameState beforeCut = GameState.builder().deck(fresh).build();
+
+        assertSame(beforeCut, gameStateManager.reshuffleIfPastCut(beforeCut));
+        verify(deckService, never()).createNewDeck();
+
+        Deck pastCut = fresh.toBuilder().position(fresh.getDeckLength() - fresh.reserve()).build();
+        Deck replacement = Deck.createNewDeck(4L);
+        when(deckService.createNewDeck()).thenReturn(replacement);
+
+        GameState reshuffled = gameStateManager.reshuffleIfPastCut(GameState.builder().deck(pastCut).build());
+
+        assertSame(replacement, reshuffled.getDeck());
+    }
 }
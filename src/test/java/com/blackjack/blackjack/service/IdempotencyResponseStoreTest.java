@@ -0,0 +1,112 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.dto.ApiResponse;
+import com.blackjack.blackjack.model.IdempotencyRecord;
+import com.blackjack.blackjack.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotencyResponseStoreTest {
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final MutableClock clock = new MutableClock();
+
+    private IdempotencyResponseStore store(int perClient) {
+        return new IdempotencyResponseStore(repository, new ObjectMapper(), new SimpleMeterRegistry(),
+            perClient, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    @DisplayName("A tárolt válasz bájtjai változatlanul jönnek vissza, és a tartós táblába is bekerülnek")
+    void storedResponseShouldReplayVerbatim() {
+        IdempotencyResponseStore store = store(4);
+        UUID clientId = UUID.randomUUID();
+        UUID key = UUID.randomUUID();
+
+        ResponseEntity<byte[]> first = store.store(clientId, key, ApiResponse.builder().status("SUCCESS").currentTokens(990).build());
+
+        ResponseEntity<byte[]> replay = store.replay(clientId, key).orElseThrow();
+        assertArrayEquals(first.getBody(), replay.getBody());
+        verify(repository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Sikertelen tartós írásnál a válasz nem bukik el, a memóriából visszajátszható")
+    void failedDurableWriteShouldNotFailResponse() {
+        IdempotencyResponseStore store = store(4);
+        UUID clientId = UUID.randomUUID();
+        UUID key = UUID.randomUUID();
+        when(repository.save(any(IdempotencyRecord.class))).thenThrow(new IllegalStateException("db down"));
+
+        ResponseEntity<byte[]> first = store.store(clientId, key, "a");
+
+        assertArrayEquals(first.getBody(), store.replay(clientId, key).orElseThrow().getBody());
+    }
+
+    @Test
+    @DisplayName("Kliensenként csak az utolsó N válasz marad meg")
+    void storeShouldBeBoundedPerClient() {
+        IdempotencyResponseStore store = store(2);
+        UUID clientId = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+
+        store.store(clientId, oldest, "a");
+        store.store(clientId, UUID.randomUUID(), "b");
+        store.store(clientId, UUID.randomUUID(), "c");
+
+        assertTrue(store.replay(clientId, oldest).isEmpty());
+    }
+
+    @Test
+    @DisplayName("TTL után a memóriából kiesik, a takarítás a táblát is üríti")
+    void expiredEntriesShouldBePurged() {
+        IdempotencyResponseStore store = store(4);
+        UUID clientId = UUID.randomUUID();
+        UUID key = UUID.randomUUID();
+        store.store(clientId, key, "a");
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertTrue(store.replay(clientId, key).isEmpty());
+        store.purgeExpired();
+        assertEquals(0, store.cachedClients());
+        verify(repository).deleteOlderThan(any());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
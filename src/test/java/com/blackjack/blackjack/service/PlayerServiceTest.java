@@ -1,6 +1,7 @@
 package com.blackjack.blackjack.service;
 
 import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.model.GameState;
 import com.blackjack.blackjack.model.Player;
 import com.blackjack.blackjack.repository.PlayerRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,10 +10,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
+import static com.blackjack.blackjack.common.GameConstants.INITIAL_TOKENS;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +30,8 @@ public class PlayerServiceTest {
     private PlayerService playerService;
     @Mock
     private PlayerRepository playerRepository;
+    @Mock
+    private PlayerStateCache playerStateCache;
     // A service-nek átadott Player objektum alapállapota
     private Player initialPlayer;
 
@@ -153,4 +159,78 @@ public class PlayerServiceTest {
         boolean isDuplicate = playerService.isDuplicateRequest(initialPlayer, UUID.randomUUID());
         assertFalse(isDuplicate);
     }
+
+    @Test
+    void applyAction_shouldDelegateToPlayerStateCache() {
+        GameState newState = GameState.builder().bet(10).build();
+        UUID newKey = UUID.randomUUID();
+
+        when(playerStateCache.apply(CLIENT_UUID, 0L, newState, -10, newKey)).thenReturn(Optional.of(190));
+
+        Optional<Integer> result = playerService.applyAction(CLIENT_UUID, 0L, newState, -10, newKey);
+
+        assertEquals(Optional.of(190), result);
+        verify(playerRepository, never()).save(any());
+    }
+
+    @Test
+    void applyAction_shouldRejectMissingIdempotencyKey() {
+        GameState newState = GameState.builder().build();
+
+        assertThrows(ResponseStatusException.class,
+            () -> playerService.applyAction(CLIENT_UUID, 0L, newState, 0, null));
+        verifyNoInteractions(playerRepository);
+    }
+
+    @Test
+    void getAndValidatePlayer_shouldUseLazyLoadWithoutEntityQuery() {
+        when(playerRepository.findLazyByClientId(CLIENT_UUID)).thenReturn(Optional.of(initialPlayer));
+
+        Player result = playerService.getAndValidatePlayer(CLIENT_UUID);
+
+        assertSame(initialPlayer, result);
+        verify(playerRepository, never()).findByClientId(any());
+    }
+
+    @Test
+    void getAndValidatePlayer_shouldServeCachedPlayerWithoutQueryAndCacheMisses() {
+        when(playerStateCache.get(CLIENT_UUID)).thenReturn(Optional.of(initialPlayer));
+
+        assertSame(initialPlayer, playerService.getAndValidatePlayer(CLIENT_UUID));
+        verifyNoInteractions(playerRepository);
+
+        UUID other = UUID.randomUUID();
+        Player loaded = initialPlayer.toBuilder().clientId(other).build();
+        when(playerRepository.findLazyByClientId(other)).thenReturn(Optional.of(loaded));
+
+        assertSame(loaded, playerService.getAndValidatePlayer(other));
+        verify(playerStateCache).put(loaded);
+    }
+
+    @Test
+    void restartPlayer_shouldResetWithoutLoadingAndThrowWhenMissing() {
+        UUID newKey = UUID.randomUUID();
+        when(playerRepository.resetGameState(CLIENT_UUID, INITIAL_TOKENS, newKey)).thenReturn(Optional.of(INITIAL_TOKENS));
+
+        assertEquals(INITIAL_TOKENS, playerService.restartPlayer(CLIENT_UUID, newKey));
+        verify(playerRepository, never()).findLazyByClientId(any());
+        verify(playerStateCache).invalidate(CLIENT_UUID);
+
+        UUID unknown = UUID.randomUUID();
+        when(playerRepository.resetGameState(unknown, INITIAL_TOKENS, newKey)).thenReturn(Optional.empty());
+        assertThrows(ResponseStatusException.class, () -> playerService.restartPlayer(unknown, newKey));
+    }
+
+    @Test
+    void getAndValidatePlayer_shouldRestoreArchivedGameStateTransparently() {
+        Player archived = initialPlayer.toBuilder().archived(true).build();
+        Player restored = initialPlayer.toBuilder().currentGameState(GameState.builder().bet(20).build()).build();
+        when(playerRepository.findLazyByClientId(CLIENT_UUID)).thenReturn(Optional.of(archived), Optional.of(restored));
+        when(playerRepository.restoreArchived(CLIENT_UUID)).thenReturn(true);
+
+        Player result = playerService.getAndValidatePlayer(CLIENT_UUID);
+
+        assertSame(restored, result);
+        verify(playerRepository).restoreArchived(CLIENT_UUID);
+    }
 }
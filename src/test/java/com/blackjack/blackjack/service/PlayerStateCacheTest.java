@@ -0,0 +1,229 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.GameState;
+import com.blackjack.blackjack.model.Player;
+import com.blackjack.blackjack.repository.PlayerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PlayerStateCacheTest {
+
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong nowMillis = new AtomicLong(Instant.parse("2025-01-02T12:00:00Z").toEpochMilli());
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(nowMillis.get());
+        }
+    };
+
+    private final UUID clientId = UUID.randomUUID();
+    private final GameState activeRound = GameState.builder().isRoundActive(true).bet(10).version(3).build();
+
+    private PlayerStateCache cache(PlayerStateCache.Durability durability) {
+        PlayerStateCache cache = new PlayerStateCache(playerRepository, registry, durability, 100, Duration.ofMinutes(10), clock);
+        cache.put(Player.builder()
+            .clientId(clientId)
+            .tokens(990)
+            .idempotencyKey(UUID.randomUUID())
+            .version(7)
+            .currentGameState(activeRound)
+            .build());
+        return cache;
+    }
+
+    @Test
+    @DisplayName("Write-behind: a token nélküli lépés a memóriában marad, a flush egyszer írja ki, a késés mérve")
+    void writeBehindShouldCoalesceAndFlushOnce() {
+        PlayerStateCache cache = cache(PlayerStateCache.Durability.WRITE_BEHIND);
+        GameState afterHit = activeRound.toBuilder().version(4).build();
+        GameState afterSecondHit = activeRound.toBuilder().version(5).build();
+        UUID lastKey = UUID.randomUUID();
+
+        assertEquals(Optional.of(990), cache.apply(clientId, 7, afterHit, 0, UUID.randomUUID()));
+        assertEquals(Optional.of(990), cache.apply(clientId, 7, afterSecondHit, 0, lastKey));
+        verify(playerRepository, never()).applyAction(any(), anyLong(), any(), anyInt(), any());
+
+        Player cached = cache.get(clientId).orElseThrow();
+        assertSame(afterSecondHit, cached.getCurrentGameState());
+        assertEquals(lastKey, cached.getIdempotencyKey());
+
+        when(playerRepository.flushGameState(clientId, 7, afterSecondHit, lastKey)).thenReturn(true);
+        nowMillis.addAndGet(250);
+        cache.flushAndEvict();
+        cache.flushAndEvict();
+
+        verify(playerRepository, times(1)).flushGameState(any(), anyLong(), any(), any());
+        assertEquals(8, cache.get(clientId).orElseThrow().getVersion());
+        assertEquals(250, registry.timer(PlayerStateCache.FLUSH_LAG_TIMER).totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2, registry.counter(PlayerStateCache.WRITE_COUNTER, "mode", "coalesced").count());
+        assertEquals(2, registry.counter(PlayerStateCache.LOOKUP_COUNTER, "result", "hit").count());
+    }
+
+    @Test
+    @DisplayName("Token változás és strict mód: azonnali írás, a korábban összevont lépésekkel együtt")
+    void tokenChangesAndStrictModeShouldWriteThrough() {
+        PlayerStateCache cache = cache(PlayerStateCache.Durability.WRITE_BEHIND);
+        GameState afterHit = activeRound.toBuilder().version(4).build();
+        GameState afterStand = afterHit.toBuilder().isRoundActive(false).version(5).build();
+        UUID standKey = UUID.randomUUID();
+        cache.apply(clientId, 7, afterHit, 0, UUID.randomUUID());
+
+        when(playerRepository.applyAction(clientId, 7, afterStand, 20, standKey)).thenReturn(Optional.of(1010));
+
+        assertEquals(Optional.of(1010), cache.apply(clientId, 7, afterStand, 20, standKey));
+        Player cached = cache.get(clientId).orElseThrow();
+        assertEquals(1010, cached.getTokens());
+        assertEquals(8, cached.getVersion());
+
+        // A write-through kiírta az összevont lépést is, nincs mit flush-olni
+        cache.flushAndEvict();
+        verify(playerRepository, never()).flushGameState(any(), anyLong(), any(), any());
+
+        PlayerStateCache strict = cache(PlayerStateCache.Durability.STRICT);
+        UUID hitKey = UUID.randomUUID();
+        when(playerRepository.applyAction(clientId, 7, afterHit, 0, hitKey)).thenReturn(Optional.of(990));
+
+        assertEquals(Optional.of(990), strict.apply(clientId, 7, afterHit, 0, hitKey));
+        verify(playerRepository).applyAction(clientId, 7, afterHit, 0, hitKey);
+    }
+
+    @Test
+    @DisplayName("Ütköző flush és tétlenség: a bejegyzés kiesik, a következő betöltés az adatbázisból jön")
+    void conflictsAndIdleEntriesShouldBeDropped() {
+        PlayerStateCache cache = cache(PlayerStateCache.Durability.WRITE_BEHIND);
+        cache.apply(clientId, 7, activeRound.toBuilder().version(4).build(), 0, UUID.randomUUID());
+        when(playerRepository.flushGameState(any(), anyLong(), any(), any())).thenReturn(false);
+
+        cache.flushAndEvict();
+
+        assertTrue(cache.get(clientId).isEmpty());
+        assertEquals(1, registry.counter(PlayerStateCache.FLUSH_COUNTER, "result", "conflict").count());
+
+        PlayerStateCache idle = cache(PlayerStateCache.Durability.WRITE_BEHIND);
+        nowMillis.addAndGet(Duration.ofMinutes(11).toMillis());
+        idle.flushAndEvict();
+
+        assertEquals(0, idle.size());
+        assertEquals(1, registry.counter(PlayerStateCache.LOOKUP_COUNTER, "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Tele gyorsítótár: az új játékos a legrégebben használt helyére kerül, a piszkos előbb kiíródik")
+    void fullCacheShouldEvictLeastRecentlyUsed() {
+        PlayerStateCache cache = new PlayerStateCache(playerRepository, registry, PlayerStateCache.Durability.WRITE_BEHIND,
+            2, Duration.ofMinutes(10), clock);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        cache.put(player(first));
+        nowMillis.addAndGet(10);
+        cache.put(player(second));
+        nowMillis.addAndGet(10);
+        cache.get(first);
+
+        cache.put(player(third));
+
+        assertTrue(cache.get(second).isEmpty(), "A legrégebben használt tiszta bejegyzés esik ki!");
+        assertTrue(cache.get(first).isPresent());
+        assertTrue(cache.get(third).isPresent());
+
+        // Csak piszkos bejegyzések: a legrégebbi kiírás után adja át a helyét
+        nowMillis.addAndGet(10);
+        cache.apply(first, 7, activeRound, 0, UUID.randomUUID());
+        nowMillis.addAndGet(10);
+        cache.apply(third, 7, activeRound, 0, UUID.randomUUID());
+        when(playerRepository.flushGameState(eq(first), anyLong(), any(), any())).thenReturn(true);
+
+        cache.put(player(second));
+
+        verify(playerRepository).flushGameState(eq(first), anyLong(), any(), any());
+        assertTrue(cache.get(first).isEmpty());
+        assertTrue(cache.get(second).isPresent());
+        assertEquals(2, registry.counter(PlayerStateCache.EVICTION_COUNTER).count());
+
+        // Sikertelen kiírásnál a ki nem írt lépés nem veszhet el: az új játékos nem kerül be
+        nowMillis.addAndGet(10);
+        cache.apply(second, 7, activeRound, 0, UUID.randomUUID());
+        when(playerRepository.flushGameState(eq(third), anyLong(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        cache.put(player(first));
+
+        assertTrue(cache.get(first).isEmpty());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Betöltés utáni felvétel: a jsonb nem deszerializálódik, a duplikátum ellenőrzés sem tölti be")
+    void putShouldKeepGameStateLazy() {
+        PlayerStateCache cache = new PlayerStateCache(playerRepository, registry, PlayerStateCache.Durability.WRITE_BEHIND,
+            100, Duration.ofMinutes(10), clock);
+        PlayerService playerService = new PlayerService(playerRepository, cache);
+        UUID lazyClient = UUID.randomUUID();
+        UUID key = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        when(playerRepository.findLazyByClientId(lazyClient)).thenReturn(Optional.of(Player.builder()
+            .clientId(lazyClient)
+            .tokens(1000)
+            .idempotencyKey(key)
+            .version(7)
+            .gameStateLoader(() -> {
+                loads.incrementAndGet();
+                return activeRound;
+            })
+            .build()));
+
+        Player loaded = playerService.getAndValidatePlayer(lazyClient);
+        assertTrue(playerService.isDuplicateRequest(loaded, key));
+        assertFalse(loaded.isGameStateLoaded());
+
+        Player hit = playerService.getAndValidatePlayer(lazyClient);
+        assertFalse(hit.isGameStateLoaded());
+        assertEquals(0, loads.get());
+
+        // Az első olvasás egyszer tölt, a betöltött és a gyorsítótárazott példány ugyanazt az állapotot látja
+        assertSame(activeRound, hit.getCurrentGameState());
+        assertSame(activeRound, loaded.getCurrentGameState());
+        assertEquals(1, loads.get());
+    }
+
+    private static Player player(UUID clientId) {
+        return Player.builder()
+            .clientId(clientId)
+            .tokens(1000)
+            .idempotencyKey(UUID.randomUUID())
+            .version(7)
+            .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.model.*;
+import com.blackjack.blackjack.rules.RuleProfile;
+import com.blackjack.blackjack.rules.TableRules;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.blackjack.blackjack.model.PlayerAction.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoundStateMachineTest {
+
+    private final RoundStateMachine machine = new RoundStateMachine(TableRules.STANDARD);
+
+    private static PlayerHand hand(String... cards) {
+        List<Card> list = List.of(cards).stream().map(Card::of).toList();
+        boolean pair = list.size() == 2 && list.get(0).rank() == list.get(1).rank();
+        return PlayerHand.builder().id("P-001").hand(list).canSplit(pair).sum(new HandValueCalculator().calculateSum(list)).bet(10).build();
+    }
+
+    private static int mask(PlayerAction... actions) {
+        int mask = 0;
+        for (PlayerAction action : actions) {
+            mask |= action.getBit();
+        }
+        return mask;
+    }
+
+    @Test
+    @DisplayName("Tét fázis: új kör csak tét után, visszavétel csak ha van tét")
+    void bettingPhaseShouldRequireBetToStart() {
+        GameState empty = GameState.builder().build();
+        GameState withBet = empty.toBuilder().bet(20).betList(List.of(20)).build();
+
+        assertEquals(RoundPhase.BETTING, machine.phase(empty));
+        assertEquals(mask(CREATE_DECK, BET), machine.allowedActions(empty));
+        assertEquals(mask(CREATE_DECK, BET, RETAKE_BET, START_GAME), machine.allowedActions(withBet));
+
+        GameRuleException ex = assertThrows(GameRuleException.class, () -> machine.require(empty, START_GAME));
+        assertEquals("START_GAME_NOT_ALLOWED", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Játékos köre: a maszk a kézből számolódik, a takart osztói blackjack nem szivárog ki")
+    void playerTurnShouldFollowHand() {
+        DealerHandMasked aceUp = DealerHandMasked.builder().hand(List.of(Card.createMaskedCard(), Card.of("♣A"))).canInsure(true).build();
+        GameState dealt = GameState.builder().isRoundActive(true).player(hand("♥8", "♠8")).dealerMasked(aceUp).build();
+
+        GameState advanced = machine.advance(dealt, START_GAME);
+        assertEquals(RoundPhase.PLAYER_TURN, advanced.getRoundPhase());
+        assertEquals(mask(HIT, STAND, DOUBLE, INSURANCE, SPLIT), advanced.getAllowedActions());
+        // Az osztó blackjackje takart (nat21 = NONE): a rewards nem válik elérhetővé
+        assertFalse(REWARDS.isAllowed(advanced.getAllowedActions()));
+
+        // Bármely más akció után nincs biztosítás; három lapnál nincs duplázás és split
+        GameState afterHit = machine.advance(dealt.toBuilder().player(hand("♥8", "♠8", "♦2")).build(), HIT);
+        assertEquals(mask(HIT, STAND), afterHit.getAllowedActions());
+
+        // 21 felett csak a stand (elszámolás) marad
+        assertEquals(mask(STAND), machine.advance(dealt.toBuilder().player(hand("♥8", "♠8", "♦K")).build(), HIT).getAllowedActions());
+
+        GameState playerBlackjack = dealt.toBuilder().player(hand("♥A", "♠K"))
+            .dealerMasked(aceUp.toBuilder().nat21(WinnerState.BLACKJACK_PLAYER_WON.getValue()).build()).build();
+        assertTrue(REWARDS.isAllowed(machine.advance(playerBlackjack, START_GAME).getAllowedActions()));
+    }
+
+    @Test
+    @DisplayName("Split kör: split végpontok, DAS és split limit a szabályprofilból, a tárolt maszk az irányadó")
+    void splitTurnShouldFollowRulesAndHands() {
+        PlayerHand waiting = PlayerHand.builder().id("P-002").hand(List.of(Card.of("♠8"))).sum(8).bet(10).build();
+        GameState split = GameState.builder()
+            .isRoundActive(true)
+            .wasSplitInRound(true)
+            .player(hand("♥8", "♦3"))
+            .hands(SplitHands.EMPTY.mark("P-001", false).put(waiting).mark("P-002", false))
+            .build();
+
+        assertEquals(RoundPhase.SPLIT_TURN, machine.phase(split));
+        assertEquals(mask(SPLIT_STAND, SPLIT_HIT, SPLIT_DOUBLE, STASH_SPLIT_HAND, NEXT_SPLIT_HAND, COLLECT_SPLIT_HANDS),
+            machine.allowedActions(split));
+
+        RuleProfile noDas = RuleProfile.STANDARD.toBuilder().doubleAfterSplit(false).resplitLimit(1).build();
+        RoundStateMachine strict = new RoundStateMachine(TableRules.compile("strict", noDas));
+        GameState pairAgain = split.toBuilder().player(hand("♥8", "♦8")).build();
+        assertFalse(SPLIT_DOUBLE.isAllowed(strict.allowedActions(split)));
+        assertFalse(SPLIT.isAllowed(strict.allowedActions(pairAgain)), "Egy split után a limit elfogyott!");
+        assertTrue(SPLIT.isAllowed(machine.allowedActions(pairAgain)));
+
+        // A mentett maszk felülírja a származtatottat (az átmenetkor egyszer számolva)
+        GameState stored = split.toBuilder().allowedActions(mask(SPLIT_STAND)).build();
+        assertThrows(GameRuleException.class, () -> machine.require(stored, SPLIT_HIT));
+        assertDoesNotThrow(() -> machine.require(stored, SPLIT_STAND));
+    }
+}
@@ -0,0 +1,67 @@
+package com.blackjack.blackjack.service;
+
+import com.blackjack.blackjack.model.Deck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.blackjack.blackjack.common.GameConstants.INITIAL_DECK_LENGTH;
+import static com.blackjack.blackjack.common.GameConstants.NUM_DECKS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShoePoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong seeds = new AtomicLong(100);
+
+    private double count(String result) {
+        return registry.counter(ShoePool.POOL_COUNTER, "result", result).count();
+    }
+
+    @Test
+    @DisplayName("Feltöltött készletből kész cipő jön (hit), üres készletnél szinkron keverés (miss)")
+    void takeShouldPreferPoolAndFallBackWhenEmpty() {
+        ShoePool pool = new ShoePool(registry, 2, seeds::getAndIncrement, NUM_DECKS, false);
+        assertTrue(pool.refillOne());
+        assertTrue(pool.refillOne());
+        assertFalse(pool.refillOne()); // korlátos
+
+        Deck first = pool.take();
+        pool.take();
+        Deck fallback = pool.take();
+
+        assertEquals(100L, first.seed());
+        assertEquals(102L, fallback.seed());
+        assertEquals(INITIAL_DECK_LENGTH, fallback.getDeckLength());
+        assertEquals(2, count("hit"));
+        assertEquals(1, count("miss"));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    @DisplayName("A háttérszál feltölti a készletet; a cipő a seed-ből azonosan újraépül")
+    void fillerShouldFillPoolWithReproducibleShoes() throws InterruptedException {
+        ShoePool pool = new ShoePool(registry, 3, ShoePool.seedSource("fast"), NUM_DECKS, true);
+        try {
+            for (int i = 0; i < 200 && pool.size() < 3; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, pool.size());
+
+            Deck shoe = pool.take();
+            assertEquals(Deck.createNewDeck(shoe.seed()).deck(), shoe.deck());
+            assertEquals(1, count("hit"));
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Ismeretlen RNG név hiba")
+    void unknownRngShouldBeRejected() {
+        assertNotNull(ShoePool.seedSource("secure"));
+        assertThrows(IllegalArgumentException.class, () -> ShoePool.seedSource("dice"));
+    }
+}
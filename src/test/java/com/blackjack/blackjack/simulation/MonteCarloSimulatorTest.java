@@ -0,0 +1,35 @@
+package com.blackjack.blackjack.simulation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSimulatorTest {
+
+    @Test
+    @DisplayName("Azonos seed és körszám mellett a párhuzamos futás eredménye is azonos")
+    void sameSeedShouldGiveSameResult() {
+        MonteCarloSimulator simulator = MonteCarloSimulator.withDefaultEngine(new BasicStrategy(), 10);
+        long rounds = MonteCarloSimulator.LEAF_ROUNDS / 10 * 3;
+
+        SimulationResult first = simulator.run(rounds, 42L, 2);
+        SimulationResult second = simulator.run(rounds, 42L, 4);
+
+        assertEquals(rounds, first.rounds());
+        assertEquals(first.netUnits(), second.netUnits());
+        assertEquals(first.sumSquares(), second.sumSquares());
+    }
+
+    @Test
+    @DisplayName("Alapstratégiával a ház előnye és a szórás a szokásos tartományban marad")
+    void basicStrategyShouldStayInPlausibleRange() {
+        MonteCarloSimulator simulator = MonteCarloSimulator.withDefaultEngine(new BasicStrategy(), 10);
+
+        SimulationResult result = simulator.run(MonteCarloSimulator.LEAF_ROUNDS * 2 + 1, 7L, 2);
+
+        assertTrue(Math.abs(result.houseEdge()) < 0.05, "Valószínűtlen ház előny: " + result.houseEdge());
+        assertTrue(result.variance() > 1.0 && result.variance() < 1.6, "Valószínűtlen szórásnégyzet: " + result.variance());
+        assertTrue(result.roundsPerSecond() > 0);
+    }
+}
@@ -0,0 +1,92 @@
+package com.blackjack.blackjack.simulation;
+
+import com.blackjack.blackjack.factory.DefaultPlayerHandFactory;
+import com.blackjack.blackjack.model.Card;
+import com.blackjack.blackjack.model.Deck;
+import com.blackjack.blackjack.rules.TableRules;
+import com.blackjack.blackjack.service.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoundSimulatorTest {
+    private static final int BET = 10;
+
+    private final HandValueCalculator handValueCalculator = new HandValueCalculator();
+    private final HandStateUpdater handStateUpdater = new HandStateUpdater();
+    private final GameRuleEngine gameRuleEngine = new GameRuleEngine();
+    private final GameStateManager gameStateManager = new GameStateManager(
+        gameRuleEngine, new DefaultPlayerHandFactory(), handValueCalculator, handStateUpdater, new DeckService(),
+        new DealerPlayEngine(handStateUpdater, false));
+    private final GameService gameService = new GameService(gameRuleEngine, gameStateManager, handValueCalculator, handStateUpdater,
+        TableRules.STANDARD);
+
+    /**
+     * Osztási sorrend: játékos, osztó, játékos, osztó (felfordított), utána a húzott lapok.
+     * A végére töltelék kerül, hogy a kör előtt ne jöjjön új cipő.
+     */
+    private RoundSimulator simulatorWith(PlayerStrategy strategy, String... cards) {
+        List<Card> shoe = new ArrayList<>();
+        for (String card : cards) {
+            shoe.add(Card.of(card));
+        }
+        shoe.addAll(Collections.nCopies(60, Card.of("♣2")));
+
+        return new RoundSimulator(gameService, gameStateManager, gameRuleEngine, strategy,
+            new SplittableRandom(1), BET, new Deck(shoe));
+    }
+
+    @Test
+    @DisplayName("Játékos blackjack: 2.5-szörös kifizetés, nettó +1.5 tét")
+    void playerBlackjackShouldPayThreeToTwo() {
+        RoundSimulator simulator = simulatorWith(context -> Decision.STAND, "♥A", "♠9", "♦K", "♣7");
+
+        assertEquals(15, simulator.playRound());
+    }
+
+    @Test
+    @DisplayName("Double: a plusz tét levonódik, nyerésnél a duplázott tét kétszerese jár")
+    void doubleShouldChargeAndPayDoubledBet() {
+        PlayerStrategy alwaysDouble = context -> context.canDouble() ? Decision.DOUBLE : Decision.STAND;
+        // Játékos 6+5 = 11, osztó 10+6 = 16; double lap 10 -> 21, osztó húz 10 -> 26 (bust)
+        RoundSimulator simulator = simulatorWith(alwaysDouble, "♥6", "♠10", "♦5", "♣6", "♥10", "♠10");
+
+        assertEquals(20, simulator.playRound());
+    }
+
+    @Test
+    @DisplayName("Split: mindkét kéz külön tétet fizet és külön számolódik el")
+    void splitShouldSettleEveryHand() {
+        PlayerStrategy splitThenStand = context -> context.canSplit() ? Decision.SPLIT : Decision.STAND;
+        // Játékos 8-8, osztó 10+9 = 19; első kéz 8+3 = 11, második 8+2 = 10 -> mindkettő veszít
+        RoundSimulator simulator = simulatorWith(splitThenStand, "♥8", "♠10", "♦8", "♣9", "♥3", "♠2");
+
+        assertEquals(-20, simulator.playRound());
+    }
+
+    @Test
+    @DisplayName("Split után a nyerő kéz is megkapja a nyereményét")
+    void splitShouldPayWinningHand() {
+        PlayerStrategy splitThenStand = context -> context.canSplit() ? Decision.SPLIT : Decision.STAND;
+        // Osztó 10+7 = 17; első kéz 8+10 = 18 (nyer), második 8+9 = 17 (push)
+        RoundSimulator simulator = simulatorWith(splitThenStand, "♥8", "♠10", "♦8", "♣7", "♥10", "♠9");
+
+        assertEquals(10, simulator.playRound());
+    }
+
+    @Test
+    @DisplayName("Takart osztói blackjack: a játékos tovább játszik, a duplázott tét is elveszik")
+    void hiddenDealerBlackjackShouldTakeDoubledBet() {
+        PlayerStrategy alwaysDouble = context -> context.canDouble() ? Decision.DOUBLE : Decision.STAND;
+        // Játékos 6+5 = 11, osztó A (rejtett) + K = blackjack; double lap 10 -> 21, elszámolás a standnál
+        RoundSimulator simulator = simulatorWith(alwaysDouble, "♥6", "♠A", "♦5", "♣K", "♥10");
+
+        assertEquals(-20, simulator.playRound());
+    }
+}
@@ -0,0 +1,145 @@
+package com.blackjack.blackjack.websocket;
+
+import com.blackjack.blackjack.controller.BetController;
+import com.blackjack.blackjack.controller.GameController;
+import com.blackjack.blackjack.dto.ActionRequest;
+import com.blackjack.blackjack.dto.ApiResponse;
+import com.blackjack.blackjack.dto.bet.BetRequest;
+import com.blackjack.blackjack.exception.GameRuleException;
+import com.blackjack.blackjack.exception.GlobalExceptionHandler;
+import com.blackjack.blackjack.metrics.ActionMetrics;
+import com.blackjack.blackjack.repository.PlayerSummary;
+import com.blackjack.blackjack.service.PlayerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GameSocketHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ActionMetrics actionMetrics = new ActionMetrics(registry);
+
+    private GameController gameController;
+    private BetController betController;
+    private PlayerService playerService;
+    private GameSocketHandler handler;
+
+    private UUID clientId;
+    private WebSocketSession session;
+    private Map<String, Object> attributes;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        gameController = mock(GameController.class);
+        betController = mock(BetController.class);
+        playerService = mock(PlayerService.class);
+        handler = new GameSocketHandler(gameController, betController, playerService,
+            new GlobalExceptionHandler(actionMetrics), actionMetrics, objectMapper, registry);
+
+        clientId = UUID.randomUUID();
+        attributes = new HashMap<>();
+        session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getUri()).thenReturn(URI.create("ws://localhost/ws/game?clientId=" + clientId));
+        when(playerService.getPlayerSummary(clientId)).thenReturn(mock(PlayerSummary.class));
+    }
+
+    private JsonNode sendFrame(String frame) throws Exception {
+        handler.handleTextMessage(session, new TextMessage(frame));
+        ArgumentCaptor<TextMessage> reply = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(reply.capture());
+        return objectMapper.readTree(reply.getValue().getPayload());
+    }
+
+    @Test
+    @DisplayName("A kapcsolathoz kötött clientId-vel és a frame kulcsával fut a controller akció")
+    void frameShouldDispatchWithBoundClient() throws Exception {
+        UUID key = UUID.randomUUID();
+        doReturn(ResponseEntity.ok(ApiResponse.builder().status("SUCCESS").currentTokens(990).version(4L).build()))
+            .when(gameController).playerHit(any());
+
+        handler.afterConnectionEstablished(session);
+        JsonNode reply = sendFrame("{\"a\":\"hit\",\"k\":\"" + key + "\",\"v\":3}");
+
+        ArgumentCaptor<ActionRequest> request = ArgumentCaptor.forClass(ActionRequest.class);
+        verify(gameController).playerHit(request.capture());
+        assertEquals(clientId, request.getValue().getClientId());
+        assertEquals(key, request.getValue().getIdempotencyKey());
+        assertEquals(3L, request.getValue().getAckVersion());
+
+        assertEquals(key.toString(), reply.get("k").asText());
+        assertEquals(200, reply.get("s").asInt());
+        assertEquals(990, reply.get("r").get("current_tokens").asInt());
+        // A játékost csak a kapcsolódáskor validáljuk
+        verify(playerService, times(1)).getPlayerSummary(clientId);
+    }
+
+    @Test
+    @DisplayName("A bet frame a tétet a BetController-nek adja át")
+    void betFrameShouldCarryAmount() throws Exception {
+        doReturn(ResponseEntity.ok(ApiResponse.builder().status("success").build())).when(betController).placeBet(any());
+
+        handler.afterConnectionEstablished(session);
+        sendFrame("{\"a\":\"bet\",\"k\":\"" + UUID.randomUUID() + "\",\"b\":50}");
+
+        ArgumentCaptor<BetRequest> request = ArgumentCaptor.forClass(BetRequest.class);
+        verify(betController).placeBet(request.capture());
+        assertEquals(clientId, request.getValue().clientId());
+        assertEquals(50, request.getValue().bet());
+    }
+
+    @Test
+    @DisplayName("A hibák ugyanazt a státuszt és hibakódot adják, mint REST-en")
+    void errorsShouldMapLikeRest() throws Exception {
+        when(gameController.doubleRequest(any())).thenThrow(new GameRuleException("NOT_ENOUGH_TOKENS"));
+        when(gameController.playerHit(any())).thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Another action is in progress for this player"));
+
+        handler.afterConnectionEstablished(session);
+
+        JsonNode rule = sendFrame("{\"a\":\"double_request\",\"k\":\"" + UUID.randomUUID() + "\"}");
+        assertEquals(400, rule.get("s").asInt());
+        assertEquals("NOT_ENOUGH_TOKENS", rule.get("r").get("error_code").asText());
+
+        JsonNode busy = sendFrame("{\"a\":\"hit\",\"k\":\"" + UUID.randomUUID() + "\"}");
+        assertEquals(429, busy.get("s").asInt());
+
+        JsonNode unknown = sendFrame("{\"a\":\"fold\"}");
+        assertEquals("UNKNOWN_ACTION", unknown.get("r").get("error_code").asText());
+    }
+
+    @Test
+    @DisplayName("Ismeretlen játékos kapcsolata lezárul, frame-et nem dolgozunk fel")
+    void unknownClientShouldBeRejected() throws Exception {
+        when(playerService.getPlayerSummary(clientId)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage("{\"a\":\"hit\"}"));
+
+        verify(session).close(argThat((CloseStatus status) -> status.getCode() == CloseStatus.POLICY_VIOLATION.getCode()));
+        verifyNoInteractions(gameController);
+        assertFalse(attributes.containsKey(GameSocketHandler.CLIENT_ID_ATTRIBUTE));
+    }
+}